@@ -29,4 +29,5 @@ public class AppOptionKeys {
     public static final String IGNORE_DEV_MSG_KEY = "ignoreDevMsg";
     public static final String USE_DEV_PRIVILEGE_KEYS = "useDevPrivilegeKeys";
     public static final String REFERRAL_ID = "referralId";
+    public static final String TRADE_TASK_METRICS_LOG_INTERVAL = "tradeTaskMetricsLogInterval";
 }
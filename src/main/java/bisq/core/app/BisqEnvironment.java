@@ -193,7 +193,8 @@ public class BisqEnvironment extends StandardEnvironment {
     protected final String btcNodes, seedNodes, ignoreDevMsg, useDevPrivilegeKeys, useDevMode, useTorForBtc, rpcUser, rpcPassword,
             rpcPort, rpcBlockNotificationPort, dumpBlockchainData, fullDaoNode,
             myAddress, banList, dumpStatistics, maxMemory, socks5ProxyBtcAddress,
-            socks5ProxyHttpAddress, useAllProvidedNodes, numConnectionForBtc, genesisTxId, genesisBlockHeight, referralId, daoActivated;
+            socks5ProxyHttpAddress, useAllProvidedNodes, numConnectionForBtc, maxConcurrentTxBroadcasts, genesisTxId, genesisBlockHeight, referralId, daoActivated,
+            tradeTaskMetricsLogInterval;
 
 
     public BisqEnvironment(OptionSet options) {
@@ -243,6 +244,9 @@ public class BisqEnvironment extends StandardEnvironment {
         dumpStatistics = commandLineProperties.containsProperty(AppOptionKeys.DUMP_STATISTICS) ?
                 (String) commandLineProperties.getProperty(AppOptionKeys.DUMP_STATISTICS) :
                 "";
+        tradeTaskMetricsLogInterval = commandLineProperties.containsProperty(AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL) ?
+                (String) commandLineProperties.getProperty(AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL) :
+                "0";
         maxMemory = commandLineProperties.containsProperty(AppOptionKeys.MAX_MEMORY) ?
                 (String) commandLineProperties.getProperty(AppOptionKeys.MAX_MEMORY) :
                 "";
@@ -313,6 +317,9 @@ public class BisqEnvironment extends StandardEnvironment {
         numConnectionForBtc = commandLineProperties.containsProperty(BtcOptionKeys.NUM_CONNECTIONS_FOR_BTC) ?
                 (String) commandLineProperties.getProperty(BtcOptionKeys.NUM_CONNECTIONS_FOR_BTC) :
                 "9";
+        maxConcurrentTxBroadcasts = commandLineProperties.containsProperty(BtcOptionKeys.MAX_CONCURRENT_TX_BROADCASTS) ?
+                (String) commandLineProperties.getProperty(BtcOptionKeys.MAX_CONCURRENT_TX_BROADCASTS) :
+                "4";
 
         MutablePropertySources propertySources = this.getPropertySources();
         propertySources.addFirst(commandLineProperties);
@@ -443,6 +450,7 @@ public class BisqEnvironment extends StandardEnvironment {
                 setProperty(AppOptionKeys.USE_DEV_PRIVILEGE_KEYS, useDevPrivilegeKeys);
                 setProperty(AppOptionKeys.REFERRAL_ID, referralId);
                 setProperty(AppOptionKeys.DUMP_STATISTICS, dumpStatistics);
+                setProperty(AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL, tradeTaskMetricsLogInterval);
                 setProperty(AppOptionKeys.APP_NAME_KEY, appName);
                 setProperty(AppOptionKeys.MAX_MEMORY, maxMemory);
                 setProperty(AppOptionKeys.USER_DATA_DIR_KEY, userDataDir);
@@ -464,6 +472,7 @@ public class BisqEnvironment extends StandardEnvironment {
                 setProperty(BtcOptionKeys.USER_AGENT, userAgent);
                 setProperty(BtcOptionKeys.USE_ALL_PROVIDED_NODES, useAllProvidedNodes);
                 setProperty(BtcOptionKeys.NUM_CONNECTIONS_FOR_BTC, numConnectionForBtc);
+                setProperty(BtcOptionKeys.MAX_CONCURRENT_TX_BROADCASTS, maxConcurrentTxBroadcasts);
 
                 setProperty(UserAgent.NAME_KEY, appName);
                 setProperty(UserAgent.VERSION_KEY, Version.VERSION);
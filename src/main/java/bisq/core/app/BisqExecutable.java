@@ -30,6 +30,7 @@ import bisq.core.offer.OpenOfferManager;
 import bisq.core.setup.CorePersistedDataHost;
 import bisq.core.setup.CoreSetup;
 import bisq.core.trade.TradeManager;
+import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.util.joptsimple.EnumValueConverter;
 
 import bisq.network.NetworkOptionKeys;
@@ -254,6 +255,7 @@ public abstract class BisqExecutable implements GracefulShutDownHandler {
             if (injector != null) {
                 injector.getInstance(ArbitratorManager.class).shutDown();
                 injector.getInstance(TradeManager.class).shutDown();
+                injector.getInstance(TradeStatisticsManager.class).shutDown();
                 injector.getInstance(DaoSetup.class).shutDown();
                 injector.getInstance(OpenOfferManager.class).shutDown(() -> {
                     injector.getInstance(P2PService.class).shutDown(() -> {
@@ -368,6 +370,10 @@ public abstract class BisqExecutable implements GracefulShutDownHandler {
                 description("If set to true the trade statistics are stored as json file in the data dir.", false))
                 .withRequiredArg()
                 .ofType(boolean.class);
+        parser.accepts(AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL,
+                description("Interval in seconds for logging the durations of the trade protocol tasks. 0 disables the log.", 0))
+                .withRequiredArg()
+                .ofType(int.class);
         parser.accepts(AppOptionKeys.PROVIDERS,
                 description("Custom providers (comma separated)", false))
                 .withRequiredArg();
@@ -402,6 +408,9 @@ public abstract class BisqExecutable implements GracefulShutDownHandler {
         parser.accepts(BtcOptionKeys.NUM_CONNECTIONS_FOR_BTC,
                 description("Number of connections to the Bitcoin network", "9"))
                 .withRequiredArg();
+        parser.accepts(BtcOptionKeys.MAX_CONCURRENT_TX_BROADCASTS,
+                description("Max. number of transactions which are broadcast at the same time", "4"))
+                .withRequiredArg();
 
 
         //RpcOptionKeys
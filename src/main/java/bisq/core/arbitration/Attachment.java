@@ -17,33 +17,169 @@
 
 package bisq.core.arbitration;
 
+import bisq.common.crypto.Hash;
 import bisq.common.proto.network.NetworkPayload;
+import bisq.common.util.Utilities;
 
 import io.bisq.generated.protobuffer.PB;
 
 import com.google.protobuf.ByteString;
 
-import lombok.Value;
+import java.nio.charset.StandardCharsets;
 
-@Value
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * The content of an attachment is either held in memory or, once the dispute got persisted, in the AttachmentStore.
+ * In the latter case we only keep the hash of the content and load it on demand.
+ * <p>
+ * Over the network we always send the content. In the persisted DisputeList we store a reference, which is the hash
+ * prefixed with REFERENCE_PREFIX in the bytes field, so we don't need to change the PB.Attachment format.
+ * References are only decoded by fromPersistedProto. Received attachments are always read as content, so a peer
+ * cannot point to a file in our store.
+ */
+@Slf4j
 public final class Attachment implements NetworkPayload {
+    private static final byte[] REFERENCE_PREFIX = "bisq.AttachmentStore:".getBytes(StandardCharsets.UTF_8);
+    private static final int HASH_LENGTH = 32;
+
+    @Getter
     private final String fileName;
-    private final byte[] bytes;
+    @Nullable
+    private byte[] bytes;
+    @Nullable
+    private byte[] hash;
+    @Nullable
+    transient private AttachmentStore store;
 
     public Attachment(String fileName, byte[] bytes) {
+        this(fileName, bytes, null);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Attachment(String fileName, @Nullable byte[] bytes, @Nullable byte[] hash) {
         this.fileName = fileName;
         this.bytes = bytes;
+        this.hash = hash;
     }
 
     @Override
     public PB.Attachment toProtoMessage() {
         return PB.Attachment.newBuilder()
                 .setFileName(fileName)
-                .setBytes(ByteString.copyFrom(bytes))
+                .setBytes(ByteString.copyFrom(getBytes()))
+                .build();
+    }
+
+    /**
+     * Writes the content to the store if not done already and releases it from memory.
+     *
+     * @return The proto with a reference to the content in the store
+     */
+    public synchronized PB.Attachment toPersistableProtoMessage(AttachmentStore store) {
+        if (bytes != null) {
+            try {
+                hash = store.add(bytes);
+                this.store = store;
+                bytes = null;
+            } catch (IOException e) {
+                log.error("Could not write attachment {} to the attachment store. We persist it inline. {}",
+                        fileName, e.toString());
+                return toProtoMessage();
+            }
+        }
+
+        return PB.Attachment.newBuilder()
+                .setFileName(fileName)
+                .setBytes(ByteString.copyFrom(REFERENCE_PREFIX).concat(ByteString.copyFrom(getHash())))
                 .build();
     }
 
     public static Attachment fromProto(PB.Attachment proto) {
         return new Attachment(proto.getFileName(), proto.getBytes().toByteArray());
     }
+
+    // Only to be used for the persisted DisputeList
+    public static Attachment fromPersistedProto(PB.Attachment proto) {
+        ByteString bytes = proto.getBytes();
+        ByteString prefix = ByteString.copyFrom(REFERENCE_PREFIX);
+        if (bytes.size() == prefix.size() + HASH_LENGTH && bytes.startsWith(prefix))
+            return new Attachment(proto.getFileName(), null, bytes.substring(prefix.size()).toByteArray());
+        else
+            return fromProto(proto);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Needs to be set after reading the persisted DisputeList to be able to load the content
+    public synchronized void setStore(AttachmentStore store) {
+        this.store = store;
+    }
+
+    public synchronized boolean isReference() {
+        return bytes == null;
+    }
+
+    /**
+     * @return The content, loaded from the store if it is not held in memory. If the content cannot be loaded we
+     * return an empty array.
+     */
+    public synchronized byte[] getBytes() {
+        if (bytes != null)
+            return bytes;
+
+        if (store == null) {
+            log.error("Attachment {} is a reference but the attachment store is not set", fileName);
+            return new byte[0];
+        }
+        return store.get(getHash()).orElse(new byte[0]);
+    }
+
+    public synchronized byte[] getHash() {
+        if (hash == null)
+            hash = Hash.getSha256Hash(Objects.requireNonNull(bytes));
+        return hash;
+    }
+
+    public String getHashAsHex() {
+        return Utilities.bytesAsHexString(getHash());
+    }
+
+    // Two attachments are equal if they have the same file name and content, independent whether the content is held
+    // in memory or in the store.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Attachment that = (Attachment) o;
+        return fileName.equals(that.fileName) && Arrays.equals(getHash(), that.getHash());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * fileName.hashCode() + Arrays.hashCode(getHash());
+    }
+
+    @Override
+    public String toString() {
+        return "Attachment{" +
+                "\n     fileName='" + fileName + '\'' +
+                ",\n     hash=" + getHashAsHex() +
+                "\n}";
+    }
 }
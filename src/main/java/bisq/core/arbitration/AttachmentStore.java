@@ -0,0 +1,116 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.arbitration;
+
+import bisq.common.crypto.Hash;
+import bisq.common.util.Utilities;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Optional;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores the content of dispute attachments in files named by the SHA-256 hash of the content. Attachments with the
+ * same content (e.g. a screenshot sent to both traders) are stored only once. The persisted DisputeList only holds
+ * the hashes, so the attachments are only loaded when they are displayed or sent to a peer.
+ * <p>
+ * Methods are synchronized as the DisputeList gets persisted from the storage thread.
+ */
+@Slf4j
+public class AttachmentStore {
+    public static final String DIR_NAME = "DisputeAttachments";
+
+    private final File dir;
+
+    public AttachmentStore(File storageDir) {
+        this.dir = new File(storageDir, DIR_NAME);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Writes the bytes if we don't have a file with that content yet.
+     *
+     * @return The SHA-256 hash of the bytes which is used to load them again
+     */
+    public synchronized byte[] add(byte[] bytes) throws IOException {
+        byte[] hash = Hash.getSha256Hash(bytes);
+        File file = getFile(hash);
+        if (file.exists())
+            return hash;
+
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IOException("Could not create directory " + dir);
+
+        File tempFile = new File(dir, file.getName() + ".tmp");
+        Files.write(tempFile.toPath(), bytes);
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return hash;
+    }
+
+    public synchronized Optional<byte[]> get(byte[] hash) {
+        File file = getFile(hash);
+        if (!file.exists()) {
+            log.warn("Attachment file {} does not exist", file);
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            log.error("Could not read attachment file {}. {}", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes all files which are not in the set of referenced hashes, e.g. after disputes got removed.
+     */
+    public synchronized void removeUnreferenced(Set<String> referencedHashesAsHex) {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+
+        for (File file : files) {
+            if (!referencedHashesAsHex.contains(file.getName())) {
+                log.info("Remove unreferenced attachment file {}", file);
+                if (!file.delete())
+                    log.warn("Could not delete attachment file {}", file);
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private File getFile(byte[] hash) {
+        return new File(dir, Utilities.bytesAsHexString(hash));
+    }
+}
@@ -43,6 +43,7 @@ import javafx.collections.ObservableList;
 
 import java.util.Date;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.EqualsAndHashCode;
@@ -181,6 +182,15 @@ public final class Dispute implements NetworkPayload {
 
     @Override
     public PB.Dispute toProtoMessage() {
+        return getBuilder(msg -> msg.toProtoNetworkEnvelope().getDisputeCommunicationMessage()).build();
+    }
+
+    // Used for the persisted DisputeList. Attachments are written to the AttachmentStore and only referenced.
+    public PB.Dispute toPersistableProtoMessage(AttachmentStore attachmentStore) {
+        return getBuilder(msg -> msg.toPersistableProtoMessage(attachmentStore)).build();
+    }
+
+    private PB.Dispute.Builder getBuilder(Function<DisputeCommunicationMessage, PB.DisputeCommunicationMessage> messageToProto) {
         PB.Dispute.Builder builder = PB.Dispute.newBuilder()
                 .setTradeId(tradeId)
                 .setTraderId(traderId)
@@ -193,7 +203,7 @@ public final class Dispute implements NetworkPayload {
                 .setArbitratorPubKeyRing(arbitratorPubKeyRing.toProtoMessage())
                 .setIsSupportTicket(isSupportTicket)
                 .addAllDisputeCommunicationMessages(disputeCommunicationMessages.stream()
-                        .map(msg -> msg.toProtoNetworkEnvelope().getDisputeCommunicationMessage())
+                        .map(messageToProto)
                         .collect(Collectors.toList()))
                 .setIsClosed(isClosedProperty.get())
                 .setOpeningDate(openingDate)
@@ -208,10 +218,21 @@ public final class Dispute implements NetworkPayload {
         Optional.ofNullable(makerContractSignature).ifPresent(builder::setMakerContractSignature);
         Optional.ofNullable(takerContractSignature).ifPresent(builder::setTakerContractSignature);
         Optional.ofNullable(disputeResultProperty.get()).ifPresent(result -> builder.setDisputeResult(disputeResultProperty.get().toProtoMessage()));
-        return builder.build();
+        return builder;
     }
 
     public static Dispute fromProto(PB.Dispute proto, CoreProtoResolver coreProtoResolver) {
+        return fromProto(proto, coreProtoResolver, DisputeCommunicationMessage::fromPayloadProto);
+    }
+
+    // Used for the persisted DisputeList. Attachments might be references to the content in the AttachmentStore.
+    public static Dispute fromPersistedProto(PB.Dispute proto, CoreProtoResolver coreProtoResolver) {
+        return fromProto(proto, coreProtoResolver, DisputeCommunicationMessage::fromPersistedProto);
+    }
+
+    private static Dispute fromProto(PB.Dispute proto,
+                                     CoreProtoResolver coreProtoResolver,
+                                     Function<PB.DisputeCommunicationMessage, DisputeCommunicationMessage> messageFromProto) {
         final Dispute dispute = new Dispute(proto.getTradeId(),
                 proto.getTraderId(),
                 proto.getDisputeOpenerIsBuyer(),
@@ -231,7 +252,7 @@ public final class Dispute implements NetworkPayload {
                 proto.getIsSupportTicket());
 
         dispute.disputeCommunicationMessages.addAll(proto.getDisputeCommunicationMessagesList().stream()
-                .map(DisputeCommunicationMessage::fromPayloadProto)
+                .map(messageFromProto)
                 .collect(Collectors.toList()));
 
         dispute.openingDate = proto.getOpeningDate();
@@ -18,8 +18,10 @@
 package bisq.core.arbitration;
 
 import bisq.core.proto.CoreProtoResolver;
+import bisq.core.trade.Contract;
+
+import bisq.network.p2p.NodeAddress;
 
-import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.persistable.PersistableEnvelope;
 import bisq.common.proto.persistable.PersistedDataHost;
 import bisq.common.storage.Storage;
@@ -28,10 +30,20 @@ import io.bisq.generated.protobuffer.PB;
 
 import com.google.protobuf.Message;
 
+import javafx.beans.value.ChangeListener;
+
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -39,8 +51,11 @@ import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
-@ToString
+@ToString(exclude = {"disputesByTradeId", "numDisputesByBuyerNodeAddress", "numDisputesBySellerNodeAddress",
+        "isClosedListener", "numOpenDisputes", "attachmentStore"})
 /**
  * Holds a List of Dispute objects.
  *
@@ -51,16 +66,44 @@ public final class DisputeList implements PersistableEnvelope, PersistedDataHost
     transient private final Storage<DisputeList> storage;
     @Getter
     private final ObservableList<Dispute> list = FXCollections.observableArrayList();
+    // Index by tradeId and counters. They are updated by a listener on the list so they stay consistent if the list
+    // gets changed directly.
+    transient private final Map<String, List<Dispute>> disputesByTradeId = new HashMap<>();
+    transient private final Map<NodeAddress, Integer> numDisputesByBuyerNodeAddress = new HashMap<>();
+    transient private final Map<NodeAddress, Integer> numDisputesBySellerNodeAddress = new HashMap<>();
+    transient private final ChangeListener<Boolean> isClosedListener = (observable, wasClosed, isClosed) ->
+            numOpenDisputes += isClosed ? -1 : 1;
+    transient private int numOpenDisputes;
+    // Holds the content of the attachments. Only set at the instance we persist.
+    @Nullable
+    transient private final AttachmentStore attachmentStore;
 
-    public DisputeList(Storage<DisputeList> storage) {
+    public DisputeList(Storage<DisputeList> storage, @Nullable AttachmentStore attachmentStore) {
         this.storage = storage;
+        this.attachmentStore = attachmentStore;
+        list.addListener(this::onListChanged);
     }
 
     @Override
     public void readPersisted() {
         DisputeList persisted = storage.initAndGetPersisted(this, 50);
-        if (persisted != null)
+        if (persisted != null) {
             list.addAll(persisted.getList());
+
+            if (attachmentStore != null) {
+                // Attachments from the persisted list are references. We set the store to load them on demand and
+                // remove the files of attachments from disputes which have been removed.
+                Set<String> referencedHashes = new HashSet<>();
+                list.forEach(dispute -> dispute.getDisputeCommunicationMessages().stream()
+                        .flatMap(message -> message.getAttachments().stream())
+                        .filter(Attachment::isReference)
+                        .forEach(attachment -> {
+                            attachment.setStore(attachmentStore);
+                            referencedHashes.add(attachment.getHashAsHex());
+                        }));
+                attachmentStore.removeUnreferenced(referencedHashes);
+            }
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -69,13 +112,20 @@ public final class DisputeList implements PersistableEnvelope, PersistedDataHost
 
     private DisputeList(Storage<DisputeList> storage, List<Dispute> list) {
         this.storage = storage;
+        this.attachmentStore = null;
+        this.list.addListener(this::onListChanged);
         this.list.addAll(list);
     }
 
     @Override
     public Message toProtoMessage() {
+        List<PB.Dispute> disputes = list.stream()
+                .map(dispute -> attachmentStore != null ?
+                        dispute.toPersistableProtoMessage(attachmentStore) :
+                        dispute.toProtoMessage())
+                .collect(Collectors.toList());
         return PB.PersistableEnvelope.newBuilder().setDisputeList(PB.DisputeList.newBuilder()
-                .addAllDispute(ProtoUtil.collectionToProto(list))).build();
+                .addAllDispute(disputes)).build();
     }
 
     public static DisputeList fromProto(PB.DisputeList proto,
@@ -84,7 +134,7 @@ public final class DisputeList implements PersistableEnvelope, PersistedDataHost
         log.debug("DisputeList fromProto of {} ", proto);
 
         List<Dispute> list = proto.getDisputeList().stream()
-                .map(disputeProto -> Dispute.fromProto(disputeProto, coreProtoResolver))
+                .map(disputeProto -> Dispute.fromPersistedProto(disputeProto, coreProtoResolver))
                 .collect(Collectors.toList());
         list.forEach(e -> e.setStorage(storage));
         return new DisputeList(storage, list);
@@ -126,12 +176,82 @@ public final class DisputeList implements PersistableEnvelope, PersistedDataHost
         return list.isEmpty();
     }
 
-    @SuppressWarnings({"BooleanMethodIsAlwaysInverted", "SuspiciousMethodCalls"})
+    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean contains(Object o) {
-        return list.contains(o);
+        // Equal disputes have the same tradeId
+        return o instanceof Dispute && getDisputesByTradeId(((Dispute) o).getTradeId()).contains(o);
     }
 
     public Stream<Dispute> stream() {
         return list.stream();
     }
+
+    public List<Dispute> getDisputesByTradeId(String tradeId) {
+        List<Dispute> disputes = disputesByTradeId.get(tradeId);
+        return disputes != null ? Collections.unmodifiableList(disputes) : Collections.emptyList();
+    }
+
+    public Optional<Dispute> findDispute(String tradeId, int traderId) {
+        // There are at most a few disputes per trade
+        return getDisputesByTradeId(tradeId).stream().filter(e -> e.getTraderId() == traderId).findAny();
+    }
+
+    public int getNumOpenDisputes() {
+        return numOpenDisputes;
+    }
+
+    /**
+     * @return The number of disputes where the buyer (or seller) of the contract had the same node address
+     */
+    public int getNumDisputes(boolean isBuyer, @Nullable NodeAddress nodeAddress) {
+        if (nodeAddress == null)
+            return 0;
+
+        Integer numDisputes = (isBuyer ? numDisputesByBuyerNodeAddress : numDisputesBySellerNodeAddress).get(nodeAddress);
+        return numDisputes != null ? numDisputes : 0;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void onListChanged(ListChangeListener.Change<? extends Dispute> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(dispute -> {
+                List<Dispute> disputes = disputesByTradeId.get(dispute.getTradeId());
+                if (disputes != null) {
+                    disputes.removeIf(e -> e == dispute);
+                    if (disputes.isEmpty())
+                        disputesByTradeId.remove(dispute.getTradeId());
+                }
+                updateCounters(dispute, -1);
+                dispute.isClosedProperty().removeListener(isClosedListener);
+            });
+            change.getAddedSubList().forEach(dispute -> {
+                disputesByTradeId.computeIfAbsent(dispute.getTradeId(), e -> new ArrayList<>(2)).add(dispute);
+                updateCounters(dispute, 1);
+                dispute.isClosedProperty().addListener(isClosedListener);
+            });
+        }
+    }
+
+    private void updateCounters(Dispute dispute, int delta) {
+        if (!dispute.isClosed())
+            numOpenDisputes += delta;
+
+        Contract contract = dispute.getContract();
+        if (contract != null) {
+            updateCounter(numDisputesByBuyerNodeAddress, contract.getBuyerNodeAddress(), delta);
+            updateCounter(numDisputesBySellerNodeAddress, contract.getSellerNodeAddress(), delta);
+        }
+    }
+
+    private static void updateCounter(Map<NodeAddress, Integer> map, @Nullable NodeAddress nodeAddress, int delta) {
+        if (nodeAddress != null)
+            map.compute(nodeAddress, (key, value) -> {
+                int newValue = (value != null ? value : 0) + delta;
+                return newValue > 0 ? newValue : null;
+            });
+    }
 }
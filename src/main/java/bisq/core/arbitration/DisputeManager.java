@@ -86,7 +86,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -108,6 +107,7 @@ public class DisputeManager implements PersistedDataHost {
     private final P2PService p2PService;
     private final KeyRing keyRing;
     private final Storage<DisputeList> disputeStorage;
+    private final AttachmentStore attachmentStore;
     private DisputeList disputes;
     private final String disputeInfo;
     private final CopyOnWriteArraySet<DecryptedMessageWithPubKey> decryptedMailboxMessageWithPubKeys = new CopyOnWriteArraySet<>();
@@ -146,6 +146,7 @@ public class DisputeManager implements PersistedDataHost {
         this.keyRing = keyRing;
 
         disputeStorage = new Storage<>(storageDir, persistenceProtoResolver);
+        attachmentStore = new AttachmentStore(storageDir);
 
         openDisputes = new HashMap<>();
         closedDisputes = new HashMap<>();
@@ -170,7 +171,7 @@ public class DisputeManager implements PersistedDataHost {
 
     @Override
     public void readPersisted() {
-        disputes = new DisputeList(disputeStorage);
+        disputes = new DisputeList(disputeStorage, attachmentStore);
         disputes.readPersisted();
         disputes.stream().forEach(dispute -> dispute.setStorage(disputeStorage));
     }
@@ -219,12 +220,7 @@ public class DisputeManager implements PersistedDataHost {
             Subscription disputeStateSubscription = EasyBind.subscribe(dispute.isClosedProperty(),
                     isClosed -> {
                         // We get the event before the list gets updated, so we execute on next frame
-                        UserThread.execute(() -> {
-                            int openDisputes = disputes.getList().stream()
-                                    .filter(e -> !e.isClosed())
-                                    .collect(Collectors.toList()).size();
-                            numOpenDisputes.set(openDisputes);
-                        });
+                        UserThread.execute(() -> numOpenDisputes.set(disputes.getNumOpenDisputes()));
                     });
             disputeIsClosedSubscriptionsMap.put(id, disputeStateSubscription);
         });
@@ -1072,21 +1068,8 @@ public class DisputeManager implements PersistedDataHost {
     }
 
     public String getNrOfDisputes(boolean isBuyer, Contract contract) {
-        return String.valueOf(getDisputesAsObservableList().stream()
-                .filter(e -> {
-                    Contract contract1 = e.getContract();
-                    if (contract1 == null)
-                        return false;
-
-                    if (isBuyer) {
-                        NodeAddress buyerNodeAddress = contract1.getBuyerNodeAddress();
-                        return buyerNodeAddress != null && buyerNodeAddress.equals(contract.getBuyerNodeAddress());
-                    } else {
-                        NodeAddress sellerNodeAddress = contract1.getSellerNodeAddress();
-                        return sellerNodeAddress != null && sellerNodeAddress.equals(contract.getSellerNodeAddress());
-                    }
-                })
-                .collect(Collectors.toSet()).size());
+        return String.valueOf(disputes.getNumDisputes(isBuyer,
+                isBuyer ? contract.getBuyerNodeAddress() : contract.getSellerNodeAddress()));
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -1114,7 +1097,7 @@ public class DisputeManager implements PersistedDataHost {
     }
 
     private Optional<Dispute> findDispute(String tradeId, int traderId) {
-        return disputes.stream().filter(e -> e.getTradeId().equals(tradeId) && e.getTraderId() == traderId).findAny();
+        return disputes.findDispute(tradeId, traderId);
     }
 
     public Optional<Dispute> findOwnDispute(String tradeId) {
@@ -1122,7 +1105,7 @@ public class DisputeManager implements PersistedDataHost {
     }
 
     private Stream<Dispute> getDisputeStream(String tradeId) {
-        return disputes.stream().filter(e -> e.getTradeId().equals(tradeId));
+        return disputes.getDisputesByTradeId(tradeId).stream();
     }
 
     private void cleanupRetryMap(String uid) {
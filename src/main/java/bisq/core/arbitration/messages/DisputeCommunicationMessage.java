@@ -18,6 +18,7 @@
 package bisq.core.arbitration.messages;
 
 import bisq.core.arbitration.Attachment;
+import bisq.core.arbitration.AttachmentStore;
 
 import bisq.network.p2p.NodeAddress;
 
@@ -38,6 +39,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import java.lang.ref.WeakReference;
@@ -134,12 +136,23 @@ public final class DisputeCommunicationMessage extends DisputeMessage {
 
     @Override
     public PB.NetworkEnvelope toProtoNetworkEnvelope() {
+        return getNetworkEnvelopeBuilder()
+                .setDisputeCommunicationMessage(getBuilder(Attachment::toProtoMessage))
+                .build();
+    }
+
+    // Used for the persisted DisputeList. The attachments only hold a reference to the content in the AttachmentStore.
+    public PB.DisputeCommunicationMessage toPersistableProtoMessage(AttachmentStore attachmentStore) {
+        return getBuilder(attachment -> attachment.toPersistableProtoMessage(attachmentStore)).build();
+    }
+
+    private PB.DisputeCommunicationMessage.Builder getBuilder(Function<Attachment, PB.Attachment> attachmentToProto) {
         PB.DisputeCommunicationMessage.Builder builder = PB.DisputeCommunicationMessage.newBuilder()
                 .setTradeId(tradeId)
                 .setTraderId(traderId)
                 .setSenderIsTrader(senderIsTrader)
                 .setMessage(message)
-                .addAllAttachments(attachments.stream().map(Attachment::toProtoMessage).collect(Collectors.toList()))
+                .addAllAttachments(attachments.stream().map(attachmentToProto).collect(Collectors.toList()))
                 .setSenderNodeAddress(senderNodeAddress.toProtoMessage())
                 .setDate(date)
                 .setArrived(arrivedProperty.get())
@@ -149,18 +162,22 @@ public final class DisputeCommunicationMessage extends DisputeMessage {
                 .setAcknowledged(acknowledgedProperty.get());
         Optional.ofNullable(sendMessageErrorProperty.get()).ifPresent(builder::setSendMessageError);
         Optional.ofNullable(ackErrorProperty.get()).ifPresent(builder::setAckError);
-        return getNetworkEnvelopeBuilder()
-                .setDisputeCommunicationMessage(builder)
-                .build();
+        return builder;
     }
 
     public static DisputeCommunicationMessage fromProto(PB.DisputeCommunicationMessage proto, int messageVersion) {
+        return fromProto(proto, messageVersion, Attachment::fromProto);
+    }
+
+    private static DisputeCommunicationMessage fromProto(PB.DisputeCommunicationMessage proto,
+                                                         int messageVersion,
+                                                         Function<PB.Attachment, Attachment> attachmentFromProto) {
         final DisputeCommunicationMessage disputeCommunicationMessage = new DisputeCommunicationMessage(
                 proto.getTradeId(),
                 proto.getTraderId(),
                 proto.getSenderIsTrader(),
                 proto.getMessage(),
-                new ArrayList<>(proto.getAttachmentsList().stream().map(Attachment::fromProto).collect(Collectors.toList())),
+                new ArrayList<>(proto.getAttachmentsList().stream().map(attachmentFromProto).collect(Collectors.toList())),
                 NodeAddress.fromProto(proto.getSenderNodeAddress()),
                 proto.getDate(),
                 proto.getArrived(),
@@ -182,6 +199,11 @@ public final class DisputeCommunicationMessage extends DisputeMessage {
         return fromProto(proto, -1);
     }
 
+    // Used for the persisted DisputeList. The attachments might be references to the content in the AttachmentStore.
+    public static DisputeCommunicationMessage fromPersistedProto(PB.DisputeCommunicationMessage proto) {
+        return fromProto(proto, -1, Attachment::fromPersistedProto);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
@@ -31,7 +31,12 @@ import org.bitcoinj.wallet.Wallet;
 import com.google.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -39,10 +44,15 @@ import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * The List supporting our persistence solution.
+ * Besides the list we keep indexes by offerId, context and address string which are updated at each add and remove,
+ * so lookups do not need to scan all entries. Access is synchronized as the wallet services might be called from
+ * different threads.
  */
-@ToString
+@ToString(exclude = {"entriesByOfferId", "entriesByContext", "entriesByAddress"})
 @Slf4j
 public final class AddressEntryList implements PersistableEnvelope, PersistedDataHost {
     transient private Storage<AddressEntryList> storage;
@@ -50,16 +60,23 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     @Getter
     private List<AddressEntry> list;
 
+    transient private final Map<String, List<AddressEntry>> entriesByOfferId = new HashMap<>();
+    transient private final Map<AddressEntry.Context, List<AddressEntry>> entriesByContext = new EnumMap<>(AddressEntry.Context.class);
+    // The address is only available once the key is set after the wallet is ready
+    transient private final Map<String, List<AddressEntry>> entriesByAddress = new HashMap<>();
+
     @Inject
     public AddressEntryList(Storage<AddressEntryList> storage) {
         this.storage = storage;
     }
 
     @Override
-    public void readPersisted() {
+    public synchronized void readPersisted() {
         AddressEntryList persisted = storage.initAndGetPersisted(this, 50);
-        if (persisted != null)
+        if (persisted != null) {
             list = new ArrayList<>(persisted.getList());
+            rebuildIndexes();
+        }
     }
 
 
@@ -90,7 +107,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public void onWalletReady(Wallet wallet) {
+    public synchronized void onWalletReady(Wallet wallet) {
         this.wallet = wallet;
 
         if (list != null) {
@@ -116,36 +133,44 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
 
             persist();
         }
+
+        // Now all keys are set and we can index the addresses as well
+        rebuildIndexes();
     }
 
     private boolean add(AddressEntry addressEntry) {
-        return list.add(addressEntry);
+        boolean changed = list.add(addressEntry);
+        if (changed)
+            addToIndexes(addressEntry);
+        return changed;
     }
 
     private boolean remove(AddressEntry addressEntry) {
-        return list.remove(addressEntry);
+        boolean changed = list.remove(addressEntry);
+        if (changed)
+            removeFromIndexes(addressEntry);
+        return changed;
     }
 
-    public AddressEntry addAddressEntry(AddressEntry addressEntry) {
+    public synchronized AddressEntry addAddressEntry(AddressEntry addressEntry) {
         boolean changed = add(addressEntry);
         if (changed)
             persist();
         return addressEntry;
     }
 
-    public void swapTradeToSavings(String offerId) {
-        list.stream().filter(addressEntry -> offerId.equals(addressEntry.getOfferId()))
-                .findAny().ifPresent(this::swapToAvailable);
+    public synchronized void swapTradeToSavings(String offerId) {
+        getFromIndex(entriesByOfferId, offerId).stream().findAny().ifPresent(this::swapToAvailable);
     }
 
-    public void swapToAvailable(AddressEntry addressEntry) {
+    public synchronized void swapToAvailable(AddressEntry addressEntry) {
         boolean changed1 = remove(addressEntry);
         boolean changed2 = add(new AddressEntry(addressEntry.getKeyPair(), AddressEntry.Context.AVAILABLE));
         if (changed1 || changed2)
             persist();
     }
 
-    public AddressEntry swapAvailableToAddressEntryWithOfferId(AddressEntry addressEntry, AddressEntry.Context context, String offerId) {
+    public synchronized AddressEntry swapAvailableToAddressEntryWithOfferId(AddressEntry addressEntry, AddressEntry.Context context, String offerId) {
         boolean changed1 = remove(addressEntry);
         final AddressEntry newAddressEntry = new AddressEntry(addressEntry.getKeyPair(), context, offerId);
         boolean changed2 = add(newAddressEntry);
@@ -162,4 +187,67 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     public Stream<AddressEntry> stream() {
         return list.stream();
     }
+
+    public synchronized Optional<AddressEntry> findAddressEntry(String offerId, AddressEntry.Context context) {
+        return getFromIndex(entriesByOfferId, offerId).stream()
+                .filter(e -> context == e.getContext())
+                .findAny();
+    }
+
+    public synchronized Optional<AddressEntry> findAddressEntryByAddress(String address, AddressEntry.Context context) {
+        return getFromIndex(entriesByAddress, address).stream()
+                .filter(e -> context == e.getContext())
+                .findAny();
+    }
+
+    // Returns a copy so the caller can iterate while entries get swapped
+    public synchronized List<AddressEntry> getAddressEntries(AddressEntry.Context context) {
+        return new ArrayList<>(getFromIndex(entriesByContext, context));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void rebuildIndexes() {
+        entriesByOfferId.clear();
+        entriesByContext.clear();
+        entriesByAddress.clear();
+        if (list != null)
+            list.forEach(this::addToIndexes);
+    }
+
+    private void addToIndexes(AddressEntry addressEntry) {
+        if (addressEntry.getOfferId() != null)
+            entriesByOfferId.computeIfAbsent(addressEntry.getOfferId(), e -> new ArrayList<>(2)).add(addressEntry);
+        entriesByContext.computeIfAbsent(addressEntry.getContext(), e -> new ArrayList<>()).add(addressEntry);
+        // Entries read from disk have no address before the key got set at onWalletReady
+        String address = addressEntry.getAddressString();
+        if (address != null)
+            entriesByAddress.computeIfAbsent(address, e -> new ArrayList<>(1)).add(addressEntry);
+    }
+
+    private void removeFromIndexes(AddressEntry addressEntry) {
+        removeFromIndex(entriesByOfferId, addressEntry.getOfferId(), addressEntry);
+        removeFromIndex(entriesByContext, addressEntry.getContext(), addressEntry);
+        removeFromIndex(entriesByAddress, addressEntry.getAddressString(), addressEntry);
+    }
+
+    private static <K> void removeFromIndex(Map<K, List<AddressEntry>> index, @Nullable K key, AddressEntry addressEntry) {
+        if (key == null)
+            return;
+
+        List<AddressEntry> entries = index.get(key);
+        if (entries != null) {
+            entries.remove(addressEntry);
+            if (entries.isEmpty())
+                index.remove(key);
+        }
+    }
+
+    private static <K> List<AddressEntry> getFromIndex(Map<K, List<AddressEntry>> index, K key) {
+        List<AddressEntry> entries = index.get(key);
+        return entries != null ? entries : Collections.emptyList();
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.wallet.Wallet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index from address to the not dead wallet transactions which have an output or a connected output of an input to
+ * that address, and to the number of outputs to that address. It gets built from the wallet at the first query and
+ * is kept up to date from the wallet events. At a reorg, if a transaction becomes dead or if the wallet instance
+ * changed we rebuild it at the next query.
+ */
+@Slf4j
+class AddressTxIndex {
+    private final Map<Address, Set<Transaction>> txsByAddress = new HashMap<>();
+    private final Map<Address, Integer> numOutputsByAddress = new HashMap<>();
+    private final Set<Sha256Hash> indexedTxIds = new HashSet<>();
+    private Wallet indexedWallet;
+    private boolean valid;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized List<Transaction> getTransactions(Wallet wallet, Address address) {
+        buildIfInvalid(wallet);
+        Set<Transaction> transactions = txsByAddress.get(address);
+        return transactions != null ? new ArrayList<>(transactions) : Collections.emptyList();
+    }
+
+    synchronized int getNumOutputs(Wallet wallet, Address address) {
+        buildIfInvalid(wallet);
+        return numOutputsByAddress.getOrDefault(address, 0);
+    }
+
+    // Inputs might get connected after we have indexed the tx, so we add the addresses of already indexed txs again
+    synchronized void onTransaction(Transaction tx) {
+        if (!valid)
+            return;
+
+        if (indexedTxIds.contains(tx.getHash()))
+            addToAddresses(tx);
+        else
+            add(tx);
+    }
+
+    synchronized void invalidate() {
+        valid = false;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void buildIfInvalid(Wallet wallet) {
+        if (valid && indexedWallet == wallet)
+            return;
+
+        long ts = System.currentTimeMillis();
+        txsByAddress.clear();
+        numOutputsByAddress.clear();
+        indexedTxIds.clear();
+        Set<Transaction> transactions = wallet.getTransactions(false);
+        transactions.forEach(this::add);
+        indexedWallet = wallet;
+        valid = true;
+        log.debug("Building address index for {} transactions took {} ms", transactions.size(), System.currentTimeMillis() - ts);
+    }
+
+    private void add(Transaction tx) {
+        indexedTxIds.add(tx.getHash());
+        for (TransactionOutput output : tx.getOutputs()) {
+            Address address = WalletService.getAddressFromOutput(output);
+            if (address != null)
+                numOutputsByAddress.merge(address, 1, Integer::sum);
+        }
+        addToAddresses(tx);
+    }
+
+    // Adds the tx to all addresses it has an output to or spends from
+    private void addToAddresses(Transaction tx) {
+        for (TransactionOutput output : getOutputsWithConnectedOutputs(tx)) {
+            Address address = WalletService.getAddressFromOutput(output);
+            if (address != null)
+                txsByAddress.computeIfAbsent(address, e -> new LinkedHashSet<>()).add(tx);
+        }
+    }
+
+    private static List<TransactionOutput> getOutputsWithConnectedOutputs(Transaction tx) {
+        List<TransactionOutput> outputs = new ArrayList<>(tx.getOutputs());
+        for (TransactionInput input : tx.getInputs()) {
+            TransactionOutput connectedOutput = input.getConnectedOutput();
+            if (connectedOutput != null)
+                outputs.add(connectedOutput);
+        }
+        return outputs;
+    }
+}
@@ -30,6 +30,9 @@ import bisq.core.dao.state.blockchain.TxOutputKey;
 import bisq.core.provider.fee.FeeService;
 import bisq.core.user.Preferences;
 
+import bisq.common.Timer;
+import bisq.common.UserThread;
+
 import org.bitcoinj.core.Address;
 import org.bitcoinj.core.AddressFormatException;
 import org.bitcoinj.core.BlockChain;
@@ -60,12 +63,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.bitcoinj.core.TransactionConfidence.ConfidenceType.BUILDING;
@@ -73,6 +79,8 @@ import static org.bitcoinj.core.TransactionConfidence.ConfidenceType.PENDING;
 
 @Slf4j
 public class BsqWalletService extends WalletService implements BsqStateListener {
+    private static final long UPDATE_BSQ_WALLET_TRANSACTIONS_DELAY_MS = 100;
+
     private final BsqCoinSelector bsqCoinSelector;
     private final NonBsqCoinSelector nonBsqCoinSelector;
     private final BsqStateService bsqStateService;
@@ -93,6 +101,11 @@ public class BsqWalletService extends WalletService implements BsqStateListener
     @Getter
     private Coin unlockingBondsBalance = Coin.ZERO;
 
+    private Set<String> confirmedTxIdSet = new HashSet<>();
+    private boolean bsqStateChanged = true;
+    @Nullable
+    private Timer updateBsqWalletTransactionsTimer;
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -184,6 +197,7 @@ public class BsqWalletService extends WalletService implements BsqStateListener
 
     @Override
     public void onParseTxsComplete(Block block) {
+        bsqStateChanged = true;
         if (isWalletReady())
             updateBsqWalletTransactions();
     }
@@ -210,74 +224,100 @@ public class BsqWalletService extends WalletService implements BsqStateListener
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void updateBsqBalance() {
-        unverifiedBalance = Coin.valueOf(
-                getTransactions(false).stream()
-                        .filter(tx -> tx.getConfidence().getConfidenceType() == PENDING)
-                        .mapToLong(tx -> {
-                            // Sum up outputs into BSQ wallet and subtract the inputs using lockup or unlocking
-                            // outputs since those inputs will be accounted for in lockupBondsBalance and
-                            // unlockingBondsBalance
-                            long outputs = tx.getOutputs().stream()
-                                    .filter(out -> out.isMine(wallet))
-                                    .mapToLong(out -> out.getValue().value)
-                                    .sum();
-                            // Account for spending of locked connectedOutputs
-                            long lockedInputs = tx.getInputs().stream()
-                                    .filter(in -> {
-                                        TransactionOutput connectedOutput = in.getConnectedOutput();
-                                        if (connectedOutput != null) {
-                                            Transaction parentTransaction = connectedOutput.getParentTransaction();
-                                            // TODO SQ
-                                            if (parentTransaction != null/* &&
-                                                    parentTransaction.getConfidence().getConfidenceType() == BUILDING*/) {
-                                                TxOutputKey key = new TxOutputKey(parentTransaction.getHashAsString(),
-                                                        connectedOutput.getIndex());
-
-                                                return (connectedOutput.isMine(wallet)
-                                                        && (bsqStateService.isLockupOutput(key)
-                                                        || bsqStateService.isUnlockingOutput(key)));
-                                            }
-                                        }
-                                        return false;
-                                    })
-                                    .mapToLong(in -> in != null ? in.getValue().value : 0)
-                                    .sum();
-                            return outputs - lockedInputs;
-                        })
-                        .sum()
-        );
-        Set<String> confirmedTxIdSet = getTransactions(false).stream()
-                .filter(tx -> tx.getConfidence().getConfidenceType() == BUILDING)
-                .map(Transaction::getHashAsString)
-                .collect(Collectors.toSet());
-
-        lockedForVotingBalance = Coin.valueOf(bsqStateService.getUnspentBlindVoteStakeTxOutputs().stream()
-                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
-                .mapToLong(TxOutput::getValue)
-                .sum());
-        lockupBondsBalance = Coin.valueOf(bsqStateService.getLockupTxOutputs().stream()
-                .filter(txOutput -> bsqStateService.isUnspent(txOutput.getKey()))
-                /*.filter(txOutput -> !bsqStateService.isSpentByUnlockTx(txOutput))*/ // TODO SQ
-                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
-                .mapToLong(TxOutput::getValue)
-                .sum());
-
-        unlockingBondsBalance = Coin.valueOf(bsqStateService.getUnspentUnlockingTxOutputsStream()
-                .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
-                .mapToLong(TxOutput::getValue)
-                .sum());
-
-        availableBalance = bsqCoinSelector.select(NetworkParameters.MAX_MONEY,
-                wallet.calculateAllSpendCandidates()).valueGathered;
+        long unverified = 0;
+        Set<String> confirmedTxIdSet = new HashSet<>();
+        for (Transaction tx : getTransactions(false)) {
+            TransactionConfidence.ConfidenceType confidenceType = tx.getConfidence().getConfidenceType();
+            if (confidenceType == PENDING)
+                unverified += getUnverifiedValue(tx);
+            else if (confidenceType == BUILDING)
+                confirmedTxIdSet.add(tx.getHashAsString());
+        }
+        Coin unverifiedBalance = Coin.valueOf(unverified);
+
+        // The bond and voting balances require scans over the BSQ state, so we only recalculate them if the BSQ
+        // state or our confirmed transactions have changed.
+        Coin lockedForVotingBalance = this.lockedForVotingBalance;
+        Coin lockupBondsBalance = this.lockupBondsBalance;
+        Coin unlockingBondsBalance = this.unlockingBondsBalance;
+        if (bsqStateChanged || !confirmedTxIdSet.equals(this.confirmedTxIdSet)) {
+            bsqStateChanged = false;
+            this.confirmedTxIdSet = confirmedTxIdSet;
+
+            lockedForVotingBalance = Coin.valueOf(bsqStateService.getUnspentBlindVoteStakeTxOutputs().stream()
+                    .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
+                    .mapToLong(TxOutput::getValue)
+                    .sum());
+            lockupBondsBalance = Coin.valueOf(bsqStateService.getLockupTxOutputs().stream()
+                    .filter(txOutput -> bsqStateService.isUnspent(txOutput.getKey()))
+                    /*.filter(txOutput -> !bsqStateService.isSpentByUnlockTx(txOutput))*/ // TODO SQ
+                    .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
+                    .mapToLong(TxOutput::getValue)
+                    .sum());
+
+            unlockingBondsBalance = Coin.valueOf(bsqStateService.getUnspentUnlockingTxOutputsStream()
+                    .filter(txOutput -> confirmedTxIdSet.contains(txOutput.getTxId()))
+                    .mapToLong(TxOutput::getValue)
+                    .sum());
+        }
 
+        List<TransactionOutput> spendCandidates = wallet.calculateAllSpendCandidates();
+        Coin availableBalance = bsqCoinSelector.select(NetworkParameters.MAX_MONEY, spendCandidates).valueGathered;
         if (availableBalance.isNegative())
             availableBalance = Coin.ZERO;
 
-        availableNonBsqBalance = nonBsqCoinSelector.select(NetworkParameters.MAX_MONEY,
-                wallet.calculateAllSpendCandidates()).valueGathered;
+        Coin availableNonBsqBalance = nonBsqCoinSelector.select(NetworkParameters.MAX_MONEY, spendCandidates).valueGathered;
+
+        boolean changed = !availableBalance.equals(this.availableBalance) ||
+                !availableNonBsqBalance.equals(this.availableNonBsqBalance) ||
+                !unverifiedBalance.equals(this.unverifiedBalance) ||
+                !lockedForVotingBalance.equals(this.lockedForVotingBalance) ||
+                !lockupBondsBalance.equals(this.lockupBondsBalance) ||
+                !unlockingBondsBalance.equals(this.unlockingBondsBalance);
+
+        this.availableBalance = availableBalance;
+        this.availableNonBsqBalance = availableNonBsqBalance;
+        this.unverifiedBalance = unverifiedBalance;
+        this.lockedForVotingBalance = lockedForVotingBalance;
+        this.lockupBondsBalance = lockupBondsBalance;
+        this.unlockingBondsBalance = unlockingBondsBalance;
+
+        if (changed) {
+            bsqBalanceListeners.forEach(e -> e.onUpdateBalances(this.availableBalance, this.availableNonBsqBalance,
+                    this.unverifiedBalance, this.lockedForVotingBalance, this.lockupBondsBalance, this.unlockingBondsBalance));
+        }
+    }
 
-        bsqBalanceListeners.forEach(e -> e.onUpdateBalances(availableBalance, availableNonBsqBalance, unverifiedBalance,
-                lockedForVotingBalance, lockupBondsBalance, unlockingBondsBalance));
+    // Sum up outputs into BSQ wallet and subtract the inputs using lockup or unlocking
+    // outputs since those inputs will be accounted for in lockupBondsBalance and
+    // unlockingBondsBalance
+    private long getUnverifiedValue(Transaction tx) {
+        long outputs = tx.getOutputs().stream()
+                .filter(out -> out.isMine(wallet))
+                .mapToLong(out -> out.getValue().value)
+                .sum();
+        // Account for spending of locked connectedOutputs
+        long lockedInputs = tx.getInputs().stream()
+                .filter(in -> {
+                    TransactionOutput connectedOutput = in.getConnectedOutput();
+                    if (connectedOutput != null) {
+                        Transaction parentTransaction = connectedOutput.getParentTransaction();
+                        // TODO SQ
+                        if (parentTransaction != null/* &&
+                                parentTransaction.getConfidence().getConfidenceType() == BUILDING*/) {
+                            TxOutputKey key = new TxOutputKey(parentTransaction.getHashAsString(),
+                                    connectedOutput.getIndex());
+
+                            return (connectedOutput.isMine(wallet)
+                                    && (bsqStateService.isLockupOutput(key)
+                                    || bsqStateService.isUnlockingOutput(key)));
+                        }
+                    }
+                    return false;
+                })
+                .mapToLong(in -> in != null ? in.getValue().value : 0)
+                .sum();
+        return outputs - lockedInputs;
     }
 
     public void addBsqBalanceListener(BsqBalanceListener listener) {
@@ -297,10 +337,17 @@ public class BsqWalletService extends WalletService implements BsqStateListener
         return walletTransactions;
     }
 
+    // Wallet events come in bursts (e.g. a confidence change for each of our transactions at a new block), so we
+    // update only once after a short delay.
     private void updateBsqWalletTransactions() {
-        walletTransactions.setAll(getTransactions(false));
-        // walletTransactions.setAll(getBsqWalletTransactions());
-        updateBsqBalance();
+        if (updateBsqWalletTransactionsTimer == null) {
+            updateBsqWalletTransactionsTimer = UserThread.runAfter(() -> {
+                updateBsqWalletTransactionsTimer = null;
+                walletTransactions.setAll(getTransactions(false));
+                // walletTransactions.setAll(getBsqWalletTransactions());
+                updateBsqBalance();
+            }, UPDATE_BSQ_WALLET_TRANSACTIONS_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
     }
 
     private Set<Transaction> getBsqWalletTransactions() {
@@ -533,23 +533,16 @@ public class BtcWalletService extends WalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public Optional<AddressEntry> getAddressEntry(String offerId, @SuppressWarnings("SameParameterValue") AddressEntry.Context context) {
-        return getAddressEntryListAsImmutableList().stream()
-                .filter(e -> offerId.equals(e.getOfferId()))
-                .filter(e -> context == e.getContext())
-                .findAny();
+        return addressEntryList.findAddressEntry(offerId, context);
     }
 
     public AddressEntry getOrCreateAddressEntry(String offerId, AddressEntry.Context context) {
-        Optional<AddressEntry> addressEntry = getAddressEntryListAsImmutableList().stream()
-                .filter(e -> offerId.equals(e.getOfferId()))
-                .filter(e -> context == e.getContext())
-                .findAny();
+        Optional<AddressEntry> addressEntry = addressEntryList.findAddressEntry(offerId, context);
         if (addressEntry.isPresent()) {
             return addressEntry.get();
         } else {
             // We try to use available and not yet used entries
-            Optional<AddressEntry> emptyAvailableAddressEntry = getAddressEntryListAsImmutableList().stream()
-                    .filter(e -> AddressEntry.Context.AVAILABLE == e.getContext())
+            Optional<AddressEntry> emptyAvailableAddressEntry = addressEntryList.getAddressEntries(AddressEntry.Context.AVAILABLE).stream()
                     .filter(e -> isAddressUnused(e.getAddress()))
                     .findAny();
             if (emptyAvailableAddressEntry.isPresent()) {
@@ -564,16 +557,13 @@ public class BtcWalletService extends WalletService {
 
     public AddressEntry getArbitratorAddressEntry() {
         AddressEntry.Context context = AddressEntry.Context.ARBITRATOR;
-        Optional<AddressEntry> addressEntry = getAddressEntryListAsImmutableList().stream()
-                .filter(e -> context == e.getContext())
-                .findAny();
+        Optional<AddressEntry> addressEntry = addressEntryList.getAddressEntries(context).stream().findAny();
         return getOrCreateAddressEntry(context, addressEntry);
     }
 
     public AddressEntry getFreshAddressEntry() {
         AddressEntry.Context context = AddressEntry.Context.AVAILABLE;
-        Optional<AddressEntry> addressEntry = getAddressEntryListAsImmutableList().stream()
-                .filter(e -> context == e.getContext())
+        Optional<AddressEntry> addressEntry = addressEntryList.getAddressEntries(context).stream()
                 .filter(e -> isAddressUnused(e.getAddress()))
                 .findAny();
         return getOrCreateAddressEntry(context, addressEntry);
@@ -590,36 +580,27 @@ public class BtcWalletService extends WalletService {
     }
 
     private Optional<AddressEntry> findAddressEntry(String address, AddressEntry.Context context) {
-        return getAddressEntryListAsImmutableList().stream()
-                .filter(e -> address.equals(e.getAddressString()))
-                .filter(e -> context == e.getContext())
-                .findAny();
+        return addressEntryList.findAddressEntryByAddress(address, context);
     }
 
     public List<AddressEntry> getAvailableAddressEntries() {
-        return getAddressEntryListAsImmutableList().stream()
-                .filter(addressEntry -> AddressEntry.Context.AVAILABLE == addressEntry.getContext())
-                .collect(Collectors.toList());
+        return addressEntryList.getAddressEntries(AddressEntry.Context.AVAILABLE);
     }
 
     public List<AddressEntry> getAddressEntriesForOpenOffer() {
-        return getAddressEntryListAsImmutableList().stream()
-                .filter(addressEntry -> AddressEntry.Context.OFFER_FUNDING == addressEntry.getContext() ||
-                        AddressEntry.Context.RESERVED_FOR_TRADE == addressEntry.getContext())
-                .collect(Collectors.toList());
+        List<AddressEntry> list = addressEntryList.getAddressEntries(AddressEntry.Context.OFFER_FUNDING);
+        list.addAll(addressEntryList.getAddressEntries(AddressEntry.Context.RESERVED_FOR_TRADE));
+        return list;
     }
 
     public List<AddressEntry> getAddressEntriesForTrade() {
-        return getAddressEntryListAsImmutableList().stream()
-                .filter(addressEntry -> AddressEntry.Context.MULTI_SIG == addressEntry.getContext() ||
-                        AddressEntry.Context.TRADE_PAYOUT == addressEntry.getContext())
-                .collect(Collectors.toList());
+        List<AddressEntry> list = addressEntryList.getAddressEntries(AddressEntry.Context.MULTI_SIG);
+        list.addAll(addressEntryList.getAddressEntries(AddressEntry.Context.TRADE_PAYOUT));
+        return list;
     }
 
     public List<AddressEntry> getAddressEntries(AddressEntry.Context context) {
-        return getAddressEntryListAsImmutableList().stream()
-                .filter(addressEntry -> context == addressEntry.getContext())
-                .collect(Collectors.toList());
+        return addressEntryList.getAddressEntries(context);
     }
 
     public List<AddressEntry> getFundedAvailableAddressEntries() {
@@ -633,15 +614,12 @@ public class BtcWalletService extends WalletService {
     }
 
     public void swapTradeEntryToAvailableEntry(String offerId, AddressEntry.Context context) {
-        Optional<AddressEntry> addressEntryOptional = getAddressEntryListAsImmutableList().stream()
-                .filter(e -> offerId.equals(e.getOfferId()))
-                .filter(e -> context == e.getContext())
-                .findAny();
+        Optional<AddressEntry> addressEntryOptional = addressEntryList.findAddressEntry(offerId, context);
         addressEntryOptional.ifPresent(e -> {
             log.info("swap addressEntry with address {} and offerId {} from context {} to available",
                     e.getAddressString(), e.getOfferId(), context);
+            // swapToAvailable persists the list
             addressEntryList.swapToAvailable(e);
-            saveAddressEntryList();
         });
     }
 
@@ -27,6 +27,7 @@ import bisq.core.btc.exceptions.TransactionVerificationException;
 import bisq.core.btc.exceptions.WalletException;
 import bisq.core.locale.Res;
 
+import bisq.common.UserThread;
 import bisq.common.app.Log;
 
 import org.bitcoinj.core.Address;
@@ -59,6 +60,9 @@ import org.spongycastle.crypto.params.KeyParameter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -115,6 +119,7 @@ public class TradeWalletService {
     private static final Logger log = LoggerFactory.getLogger(TradeWalletService.class);
 
     private final WalletsSetup walletsSetup;
+    private final TxVerificationService txVerificationService;
     private final NetworkParameters params;
 
     @Nullable
@@ -130,8 +135,9 @@ public class TradeWalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     @Inject
-    public TradeWalletService(WalletsSetup walletsSetup) {
+    public TradeWalletService(WalletsSetup walletsSetup, TxVerificationService txVerificationService) {
         this.walletsSetup = walletsSetup;
+        this.txVerificationService = txVerificationService;
         this.params = BisqEnvironment.getParameters();
         walletsSetup.addSetupCompletedHandler(() -> {
             walletConfig = walletsSetup.getWalletConfig();
@@ -214,7 +220,7 @@ public class TradeWalletService {
             wallet.completeTx(sendRequest);
             WalletService.printTx("tradingFeeTx", tradingFeeTx);
 
-            broadcastTx(tradingFeeTx, callback);
+            broadcastTx(tradingFeeTx, callback, TxBroadcaster.Priority.LOW);
 
             return tradingFeeTx;
         } catch (Throwable t) {
@@ -448,23 +454,24 @@ public class TradeWalletService {
      * @param buyerPubKey               The public key of the buyer.
      * @param sellerPubKey              The public key of the seller.
      * @param arbitratorPubKey          The public key of the arbitrator.
-     * @return A data container holding the serialized transaction and the maker raw inputs
+     * @return A future of the data container holding the serialized transaction and the maker raw inputs. It is
+     * completed at the UserThread after the input scripts have been verified.
      * @throws SigningException
      * @throws TransactionVerificationException
      * @throws WalletException
      */
-    public PreparedDepositTxAndMakerInputs makerCreatesAndSignsDepositTx(boolean makerIsBuyer,
-                                                                         byte[] contractHash,
-                                                                         Coin makerInputAmount,
-                                                                         Coin msOutputAmount,
-                                                                         List<RawTransactionInput> takerRawTransactionInputs,
-                                                                         long takerChangeOutputValue,
-                                                                         @Nullable String takerChangeAddressString,
-                                                                         Address makerAddress,
-                                                                         Address makerChangeAddress,
-                                                                         byte[] buyerPubKey,
-                                                                         byte[] sellerPubKey,
-                                                                         byte[] arbitratorPubKey)
+    public CompletableFuture<PreparedDepositTxAndMakerInputs> makerCreatesAndSignsDepositTx(boolean makerIsBuyer,
+                                                                                            byte[] contractHash,
+                                                                                            Coin makerInputAmount,
+                                                                                            Coin msOutputAmount,
+                                                                                            List<RawTransactionInput> takerRawTransactionInputs,
+                                                                                            long takerChangeOutputValue,
+                                                                                            @Nullable String takerChangeAddressString,
+                                                                                            Address makerAddress,
+                                                                                            Address makerChangeAddress,
+                                                                                            byte[] buyerPubKey,
+                                                                                            byte[] sellerPubKey,
+                                                                                            byte[] arbitratorPubKey)
             throws SigningException, TransactionVerificationException, WalletException, AddressFormatException {
         log.debug("makerCreatesAndSignsDepositTx called");
         log.debug("makerIsBuyer " + makerIsBuyer);
@@ -572,14 +579,15 @@ public class TradeWalletService {
         for (int i = start; i < end; i++) {
             TransactionInput input = preparedDepositTx.getInput(i);
             signInput(preparedDepositTx, input, i);
-            WalletService.checkScriptSig(preparedDepositTx, input, i);
         }
 
-        WalletService.printTx("prepared depositTx", preparedDepositTx);
+        return whenScriptSigsVerified(preparedDepositTx, start, end, () -> {
+            WalletService.printTx("prepared depositTx", preparedDepositTx);
 
-        WalletService.verifyTransaction(preparedDepositTx);
+            WalletService.verifyTransaction(preparedDepositTx);
 
-        return new PreparedDepositTxAndMakerInputs(makerRawTransactionInputs, preparedDepositTx.bitcoinSerialize());
+            return new PreparedDepositTxAndMakerInputs(makerRawTransactionInputs, preparedDepositTx.bitcoinSerialize());
+        });
     }
 
     /**
@@ -594,19 +602,21 @@ public class TradeWalletService {
      * @param sellerPubKey              The public key of the seller.
      * @param arbitratorPubKey          The public key of the arbitrator.
      * @param callback                  Callback when transaction is broadcasted.
+     * @return A future of the deposit transaction. It is completed at the UserThread after the input scripts have
+     * been verified and the broadcast has been started.
      * @throws SigningException
      * @throws TransactionVerificationException
      * @throws WalletException
      */
-    public Transaction takerSignsAndPublishesDepositTx(boolean takerIsSeller,
-                                                       byte[] contractHash,
-                                                       byte[] makersDepositTxSerialized,
-                                                       List<RawTransactionInput> buyerInputs,
-                                                       List<RawTransactionInput> sellerInputs,
-                                                       byte[] buyerPubKey,
-                                                       byte[] sellerPubKey,
-                                                       byte[] arbitratorPubKey,
-                                                       TxBroadcaster.Callback callback) throws SigningException, TransactionVerificationException,
+    public CompletableFuture<Transaction> takerSignsAndPublishesDepositTx(boolean takerIsSeller,
+                                                                          byte[] contractHash,
+                                                                          byte[] makersDepositTxSerialized,
+                                                                          List<RawTransactionInput> buyerInputs,
+                                                                          List<RawTransactionInput> sellerInputs,
+                                                                          byte[] buyerPubKey,
+                                                                          byte[] sellerPubKey,
+                                                                          byte[] arbitratorPubKey,
+                                                                          TxBroadcaster.Callback callback) throws SigningException, TransactionVerificationException,
             WalletException {
         Transaction makersDepositTx = new Transaction(params, makersDepositTxSerialized);
 
@@ -671,17 +681,18 @@ public class TradeWalletService {
         for (int i = start; i < end; i++) {
             TransactionInput input = depositTx.getInput(i);
             signInput(depositTx, input, i);
-            WalletService.checkScriptSig(depositTx, input, i);
         }
 
-        WalletService.printTx("depositTx", depositTx);
+        return whenScriptSigsVerified(depositTx, start, end, () -> {
+            WalletService.printTx("depositTx", depositTx);
 
-        WalletService.verifyTransaction(depositTx);
-        WalletService.checkWalletConsistency(wallet);
+            WalletService.verifyTransaction(depositTx);
+            WalletService.checkWalletConsistency(wallet);
 
-        broadcastTx(depositTx, callback);
+            broadcastTx(depositTx, callback);
 
-        return depositTx;
+            return depositTx;
+        });
     }
 
 
@@ -1070,14 +1081,19 @@ public class TradeWalletService {
     // Broadcast tx
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Deposit and payout txs are broadcast before other txs
     public void broadcastTx(Transaction tx, TxBroadcaster.Callback callback) {
+        broadcastTx(tx, callback, TxBroadcaster.Priority.HIGH);
+    }
+
+    public void broadcastTx(Transaction tx, TxBroadcaster.Callback callback, TxBroadcaster.Priority priority) {
         checkNotNull(walletConfig);
-        TxBroadcaster.broadcastTx(wallet, walletConfig.peerGroup(), tx, callback);
+        TxBroadcaster.broadcastTx(wallet, walletConfig.peerGroup(), tx, callback, priority);
     }
 
     public void broadcastTx(Transaction tx, TxBroadcaster.Callback callback, int timeoutInSec) {
         checkNotNull(walletConfig);
-        TxBroadcaster.broadcastTx(wallet, walletConfig.peerGroup(), tx, callback, timeoutInSec);
+        TxBroadcaster.broadcastTx(wallet, walletConfig.peerGroup(), tx, callback, TxBroadcaster.Priority.HIGH, timeoutInSec);
     }
 
 
@@ -1144,6 +1160,28 @@ public class TradeWalletService {
     // Private methods
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // The input scripts get verified at the threads of the TxVerificationService. We don't wait for them but continue
+    // at the UserThread, as the wallet must only be used from there.
+    private <T> CompletableFuture<T> whenScriptSigsVerified(Transaction transaction, int from, int to,
+                                                           Callable<T> continuation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        txVerificationService.checkScriptSigs(transaction, from, to).whenComplete((ignore, throwable) ->
+                UserThread.execute(() -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ?
+                                throwable.getCause() : throwable);
+                        return;
+                    }
+
+                    try {
+                        future.complete(continuation.call());
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                }));
+        return future;
+    }
+
     @NotNull
     private RawTransactionInput getRawInputFromTransactionInput(@NotNull TransactionInput input) {
         checkNotNull(input.getConnectedOutput(), "input.getConnectedOutput() must not be null");
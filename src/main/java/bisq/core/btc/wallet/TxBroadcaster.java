@@ -24,11 +24,19 @@ import org.bitcoinj.core.PeerGroup;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.wallet.Wallet;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LongSummaryStatistics;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -85,72 +93,264 @@ public class TxBroadcaster {
         void onFailure(TxBroadcastException exception);
     }
 
+    // Trade txs are broadcast before DAO txs and those before trade fee txs
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private enum State {
+        QUEUED,
+        BROADCASTING,
+        RETRY_SCHEDULED,
+        // Timed out. The last broadcast at bitcoinj continues but it does not hold a slot anymore.
+        DETACHED,
+        COMPLETED
+    }
+
+    private static class Broadcast {
+        private final Wallet wallet;
+        private final PeerGroup peerGroup;
+        private final Transaction tx;
+        private final String txId;
+        private final Callback callback;
+        private final Priority priority;
+        private final long sequenceNumber;
+        private final long submitTime = System.currentTimeMillis();
+        private State state = State.QUEUED;
+        private int attempts;
+        private boolean timedOut;
+        @Nullable
+        private Timer timeoutTimer;
+
+        Broadcast(Wallet wallet, PeerGroup peerGroup, Transaction tx, Callback callback, Priority priority, long sequenceNumber) {
+            this.wallet = wallet;
+            this.peerGroup = peerGroup;
+            this.tx = tx;
+            this.txId = tx.getHashAsString();
+            this.callback = callback;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+
     private static final int DEFAULT_BROADCAST_TIMEOUT = 20;
-    private static Map<String, Timer> broadcastTimerMap = new HashMap<>();
+    public static final int DEFAULT_MAX_CONCURRENT_BROADCASTS = 4;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_SEC = 5;
+    private static final BiFunction<Runnable, Long, Timer> DEFAULT_TIMER_FACTORY =
+            (runnable, delayInMs) -> UserThread.runAfter(runnable, delayInMs, TimeUnit.MILLISECONDS);
+
+    // All state is accessed from the UserThread. Callbacks from bitcoinj are mapped to the UserThread.
+    private static final PriorityQueue<Broadcast> queue = new PriorityQueue<>(Comparator
+            .comparing((Broadcast broadcast) -> broadcast.priority)
+            .thenComparingLong(broadcast -> broadcast.sequenceNumber));
+    private static final Map<String, Broadcast> broadcastByTxId = new HashMap<>();
+    private static final Map<Priority, LongSummaryStatistics> latencyByPriority = new EnumMap<>(Priority.class);
+    private static int maxConcurrentBroadcasts = DEFAULT_MAX_CONCURRENT_BROADCASTS;
+    private static int numBroadcasting;
+    private static long sequenceNumber;
+    // Creates the timers for the timeouts and retries with a delay in ms
+    private static BiFunction<Runnable, Long, Timer> timerFactory = DEFAULT_TIMER_FACTORY;
+
+    public static void setMaxConcurrentBroadcasts(int maxConcurrentBroadcasts) {
+        TxBroadcaster.maxConcurrentBroadcasts = Math.max(1, maxConcurrentBroadcasts);
+    }
 
     public static void broadcastTx(Wallet wallet, PeerGroup peerGroup, Transaction localTx, Callback callback) {
-        broadcastTx(wallet, peerGroup, localTx, callback, DEFAULT_BROADCAST_TIMEOUT);
+        broadcastTx(wallet, peerGroup, localTx, callback, Priority.NORMAL, DEFAULT_BROADCAST_TIMEOUT);
     }
 
     public static void broadcastTx(Wallet wallet, PeerGroup peerGroup, Transaction tx, Callback callback, int delayInSec) {
-        Timer timeoutTimer;
+        broadcastTx(wallet, peerGroup, tx, callback, Priority.NORMAL, delayInSec);
+    }
+
+    public static void broadcastTx(Wallet wallet, PeerGroup peerGroup, Transaction tx, Callback callback, Priority priority) {
+        broadcastTx(wallet, peerGroup, tx, callback, priority, DEFAULT_BROADCAST_TIMEOUT);
+    }
+
+    /**
+     * Queues the tx for broadcast. At most maxConcurrentBroadcasts txs are broadcast at the same time, the others wait
+     * ordered by priority. If the broadcast fails we retry it with increasing delays. The timeout counts from the time
+     * the tx was queued. After a timeout the callback handles the tx as described at Callback.onTimeout. The broadcast
+     * at bitcoinj continues (or gets started if the tx was still waiting) but does not count against the limit anymore,
+     * so a hanging broadcast does not block the queue, and the tx can be broadcast again.
+     */
+    public static void broadcastTx(Wallet wallet, PeerGroup peerGroup, Transaction tx, Callback callback, Priority priority,
+                                   int delayInSec) {
         final String txId = tx.getHashAsString();
-        if (!broadcastTimerMap.containsKey(txId)) {
-            timeoutTimer = UserThread.runAfter(() -> {
-                log.warn("Broadcast of tx {} not completed after {} sec.", txId, delayInSec);
-                stopAndRemoveTimer(txId);
-                UserThread.execute(() -> callback.onTimeout(new TxBroadcastTimeoutException(tx, delayInSec, wallet)));
-            }, delayInSec);
-
-            broadcastTimerMap.put(txId, timeoutTimer);
-        } else {
+        if (broadcastByTxId.containsKey(txId)) {
             // Would be due a wrong way how to use the API (calling 2 times a broadcast with same tx).
-            stopAndRemoveTimer(txId);
             UserThread.execute(() -> callback.onFailure(new TxBroadcastException("We got broadcastTx called with a tx " +
-                    "which has an open timeoutTimer. txId=" + txId, txId)));
+                    "which is already getting broadcast. txId=" + txId, txId)));
+            return;
         }
 
-        Futures.addCallback(peerGroup.broadcastTransaction(tx).future(), new FutureCallback<Transaction>() {
+        Broadcast broadcast = new Broadcast(wallet, peerGroup, tx, callback, priority, sequenceNumber++);
+        broadcast.timeoutTimer = timerFactory.apply(() -> onTimeout(broadcast, delayInSec), TimeUnit.SECONDS.toMillis(delayInSec));
+        broadcastByTxId.put(txId, broadcast);
+        queue.add(broadcast);
+        if (numBroadcasting >= maxConcurrentBroadcasts)
+            log.info("Tx {} is queued for broadcast. Queued txs: {}", txId, queue.size());
+
+        startBroadcasts();
+    }
+
+    // Number of txs waiting for a free broadcast slot
+    public static int getNumQueuedTxs() {
+        return queue.size();
+    }
+
+    // Number of txs which are queued, broadcasting or waiting for a retry
+    public static int getNumPendingTxs() {
+        return broadcastByTxId.size();
+    }
+
+    /**
+     * @return Statistics of the time in ms from queuing a tx until peers have confirmed the broadcast
+     */
+    public static LongSummaryStatistics getBroadcastLatencyStatistics(Priority priority) {
+        LongSummaryStatistics result = new LongSummaryStatistics();
+        Optional.ofNullable(latencyByPriority.get(priority)).ifPresent(result::combine);
+        return result;
+    }
+
+    @VisibleForTesting
+    static void setTimerFactory(@Nullable BiFunction<Runnable, Long, Timer> timerFactory) {
+        TxBroadcaster.timerFactory = timerFactory != null ? timerFactory : DEFAULT_TIMER_FACTORY;
+    }
+
+    // Drops all pending broadcasts without calling their callbacks
+    @VisibleForTesting
+    static void reset() {
+        broadcastByTxId.values().forEach(broadcast -> {
+            if (broadcast.timeoutTimer != null)
+                broadcast.timeoutTimer.stop();
+            broadcast.state = State.COMPLETED;
+        });
+        queue.clear();
+        broadcastByTxId.clear();
+        latencyByPriority.clear();
+        numBroadcasting = 0;
+        maxConcurrentBroadcasts = DEFAULT_MAX_CONCURRENT_BROADCASTS;
+    }
+
+    private static void startBroadcasts() {
+        while (numBroadcasting < maxConcurrentBroadcasts && !queue.isEmpty())
+            startBroadcast(queue.poll());
+    }
+
+    private static void startBroadcast(Broadcast broadcast) {
+        broadcast.state = State.BROADCASTING;
+        numBroadcasting++;
+        broadcastAtPeerGroup(broadcast);
+    }
+
+    private static void broadcastAtPeerGroup(Broadcast broadcast) {
+        broadcast.attempts++;
+        Futures.addCallback(broadcast.peerGroup.broadcastTransaction(broadcast.tx).future(), new FutureCallback<Transaction>() {
             @Override
             public void onSuccess(@Nullable Transaction result) {
-                if (result != null) {
-                    if (txId.equals(result.getHashAsString())) {
-                        // We expect that there is still a timeout in our map, otherwise the timeout got triggered
-                        if (broadcastTimerMap.containsKey(txId)) {
-                            wallet.maybeCommitTx(tx);
-                            stopAndRemoveTimer(txId);
-                            // At regtest we get called immediately back but we want to make sure that the handler is not called
-                            // before the caller is finished.
-                            UserThread.execute(() -> callback.onSuccess(tx));
-                        } else {
-                            stopAndRemoveTimer(txId);
-                            log.warn("We got an onSuccess callback for a broadcast which already triggered the timeout.", txId);
-                        }
-                    } else {
-                        stopAndRemoveTimer(txId);
-                        UserThread.execute(() -> callback.onTxMalleability(new TxMalleabilityException(tx, result)));
-                    }
-                } else {
-                    stopAndRemoveTimer(txId);
-                    UserThread.execute(() -> callback.onFailure(new TxBroadcastException("Transaction returned from the " +
-                            "broadcastTransaction call back is null.", txId)));
-                }
+                UserThread.execute(() -> onBroadcastSuccess(broadcast, result));
             }
 
             @Override
             public void onFailure(@NotNull Throwable throwable) {
-                stopAndRemoveTimer(txId);
-                UserThread.execute(() -> callback.onFailure(new TxBroadcastException("We got an onFailure from " +
-                        "the peerGroup.broadcastTransaction callback.", throwable)));
+                UserThread.execute(() -> onBroadcastFailure(broadcast, throwable));
             }
         });
     }
 
-    private static void stopAndRemoveTimer(String txId) {
-        Timer timer = broadcastTimerMap.get(txId);
-        if (timer != null)
-            timer.stop();
+    private static void onBroadcastSuccess(Broadcast broadcast, @Nullable Transaction result) {
+        if (broadcast.state == State.COMPLETED)
+            return;
+
+        if (broadcast.state != State.DETACHED)
+            numBroadcasting--;
+        complete(broadcast);
+        String txId = broadcast.txId;
+        if (result != null) {
+            if (txId.equals(result.getHashAsString())) {
+                long latency = System.currentTimeMillis() - broadcast.submitTime;
+                latencyByPriority.computeIfAbsent(broadcast.priority, e -> new LongSummaryStatistics()).accept(latency);
+                log.info("Broadcast of tx {} completed after {} ms and {} attempt(s)", txId, latency, broadcast.attempts);
+                // We expect that the timeout was not triggered, otherwise the callback got handled already
+                if (!broadcast.timedOut) {
+                    broadcast.wallet.maybeCommitTx(broadcast.tx);
+                    broadcast.callback.onSuccess(broadcast.tx);
+                } else {
+                    log.warn("We got an onSuccess callback for a broadcast which already triggered the timeout. txId={}", txId);
+                }
+            } else {
+                broadcast.callback.onTxMalleability(new TxMalleabilityException(broadcast.tx, result));
+            }
+        } else {
+            broadcast.callback.onFailure(new TxBroadcastException("Transaction returned from the " +
+                    "broadcastTransaction call back is null.", txId));
+        }
+        startBroadcasts();
+    }
+
+    private static void onBroadcastFailure(Broadcast broadcast, Throwable throwable) {
+        if (broadcast.state == State.COMPLETED)
+            return;
+
+        boolean detached = broadcast.state == State.DETACHED;
+        if (!detached)
+            numBroadcasting--;
+        // After a timeout we don't retry anymore
+        if (!detached && broadcast.attempts < MAX_ATTEMPTS) {
+            long delay = RETRY_DELAY_SEC << (broadcast.attempts - 1);
+            log.warn("Broadcast of tx {} failed at attempt {}. We retry in {} sec. {}",
+                    broadcast.txId, broadcast.attempts, delay, throwable.toString());
+            broadcast.state = State.RETRY_SCHEDULED;
+            timerFactory.apply(() -> {
+                if (broadcast.state == State.RETRY_SCHEDULED) {
+                    broadcast.state = State.QUEUED;
+                    queue.add(broadcast);
+                    startBroadcasts();
+                }
+            }, TimeUnit.SECONDS.toMillis(delay));
+        } else {
+            complete(broadcast);
+            broadcast.callback.onFailure(new TxBroadcastException("We got an onFailure from " +
+                    "the peerGroup.broadcastTransaction callback.", throwable));
+        }
+        startBroadcasts();
+    }
+
+    private static void onTimeout(Broadcast broadcast, int delayInSec) {
+        if (broadcast.state == State.COMPLETED)
+            return;
+
+        log.warn("Broadcast of tx {} not completed after {} sec. State={}, attempts={}",
+                broadcast.txId, delayInSec, broadcast.state, broadcast.attempts);
+        broadcast.timeoutTimer = null;
+        broadcast.timedOut = true;
+
+        // We free the slot and the tx ID. If the tx was still waiting we start a last broadcast outside of the limit.
+        State state = broadcast.state;
+        broadcast.state = State.DETACHED;
+        broadcastByTxId.remove(broadcast.txId, broadcast);
+        if (state == State.BROADCASTING) {
+            numBroadcasting--;
+        } else if (state == State.QUEUED || state == State.RETRY_SCHEDULED) {
+            queue.remove(broadcast);
+            broadcastAtPeerGroup(broadcast);
+        }
 
-        broadcastTimerMap.remove(txId);
+        broadcast.callback.onTimeout(new TxBroadcastTimeoutException(broadcast.tx, delayInSec, broadcast.wallet));
+        startBroadcasts();
+    }
+
+    private static void complete(Broadcast broadcast) {
+        broadcast.state = State.COMPLETED;
+        if (broadcast.timeoutTimer != null) {
+            broadcast.timeoutTimer.stop();
+            broadcast.timeoutTimer = null;
+        }
+        // After a timeout the tx ID might be used by a new broadcast of the same tx
+        broadcastByTxId.remove(broadcast.txId, broadcast);
     }
 }
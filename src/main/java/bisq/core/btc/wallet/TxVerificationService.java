@@ -0,0 +1,159 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.btc.exceptions.TransactionVerificationException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.script.Script;
+
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Verifies the input scripts of a transaction in parallel at a dedicated thread pool. Transactions with many inputs
+ * (e.g. a deposit tx funded from many outputs) are verified in a fraction of the time it takes to check the inputs one
+ * after the other.
+ * <p>
+ * Inputs which have been verified successfully are cached by tx ID, input index and the hash of the connected
+ * scriptPubKey. The tx ID commits to all scriptSigs (we don't use segwit), so a cache hit means we have checked
+ * exactly that script before.
+ */
+@Slf4j
+public class TxVerificationService {
+    private static final int MAX_CACHE_SIZE = 1000;
+
+    private final ExecutorService executor;
+    private final Map<InputKey, Boolean> verifiedInputs = new LinkedHashMap<InputKey, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<InputKey, Boolean> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Inject
+    public TxVerificationService() {
+        int numThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        executor = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat("TxVerification-%d").setDaemon(true).build());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Checks the scripts of the inputs in the range [from, to) in parallel without blocking the caller. The future
+     * fails with a TransactionVerificationException if any of the scripts is not valid.
+     */
+    public CompletableFuture<Void> checkScriptSigs(Transaction transaction, int from, int to) {
+        // We prepare the lazily parsed scripts and the serialized tx at the calling thread, so the worker threads
+        // only read the transaction.
+        Sha256Hash txId = transaction.getHash();
+        transaction.bitcoinSerialize();
+        Context context = Context.get();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int inputIndex = i;
+            TransactionInput input = transaction.getInput(inputIndex);
+            TransactionOutput connectedOutput = input.getConnectedOutput();
+            if (connectedOutput == null) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                future.completeExceptionally(new TransactionVerificationException(
+                        "input.getConnectedOutput() must not be null. inputIndex=" + inputIndex));
+                futures.add(future);
+                continue;
+            }
+
+            Script scriptSig = input.getScriptSig();
+            Script scriptPubKey = connectedOutput.getScriptPubKey();
+            InputKey key = new InputKey(txId, inputIndex, Sha256Hash.of(scriptPubKey.getProgram()));
+            if (isVerified(key))
+                continue;
+
+            futures.add(CompletableFuture.runAsync(() -> {
+                Context.propagate(context);
+                try {
+                    checkNotNull(scriptSig, "scriptSig must not be null");
+                    scriptSig.correctlySpends(transaction, inputIndex, scriptPubKey, Script.ALL_VERIFY_FLAGS);
+                } catch (Throwable t) {
+                    log.error("Script verification of input {} of tx {} failed. {}", inputIndex, txId, t.toString());
+                    throw new CompletionException(new TransactionVerificationException(t));
+                }
+                setVerified(key);
+            }, executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean isVerified(InputKey key) {
+        synchronized (verifiedInputs) {
+            return verifiedInputs.containsKey(key);
+        }
+    }
+
+    private void setVerified(InputKey key) {
+        synchronized (verifiedInputs) {
+            verifiedInputs.put(key, Boolean.TRUE);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class InputKey {
+        private final Sha256Hash txId;
+        private final int inputIndex;
+        private final Sha256Hash scriptPubKeyHash;
+
+        InputKey(Sha256Hash txId, int inputIndex, Sha256Hash scriptPubKeyHash) {
+            this.txId = txId;
+            this.inputIndex = inputIndex;
+            this.scriptPubKeyHash = scriptPubKeyHash;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import bisq.core.btc.listeners.TxConfidenceListener;
 import bisq.core.provider.fee.FeeService;
 import bisq.core.user.Preferences;
 
+import bisq.common.UserThread;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
 
@@ -72,8 +73,12 @@ import javafx.beans.property.SimpleIntegerProperty;
 import org.spongycastle.crypto.params.KeyParameter;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.stream.Collectors;
 
@@ -98,9 +103,13 @@ public abstract class WalletService {
     protected final NetworkParameters params;
     @SuppressWarnings("deprecation")
     protected final WalletEventListener walletEventListener = new BisqWalletListener();
-    protected final CopyOnWriteArraySet<AddressConfidenceListener> addressConfidenceListeners = new CopyOnWriteArraySet<>();
-    protected final CopyOnWriteArraySet<TxConfidenceListener> txConfidenceListeners = new CopyOnWriteArraySet<>();
+    // Confidence listeners are kept by address and txId so that a confidence change only reaches the interested ones
+    private final Map<Address, Set<AddressConfidenceListener>> addressConfidenceListeners = new ConcurrentHashMap<>();
+    private final Map<String, Set<TxConfidenceListener>> txConfidenceListeners = new ConcurrentHashMap<>();
     protected final CopyOnWriteArraySet<BalanceListener> balanceListeners = new CopyOnWriteArraySet<>();
+    private final AddressTxIndex addressTxIndex = new AddressTxIndex();
+    // Txs with a confidence change which are not dispatched to the confidence listeners yet
+    private final Map<Sha256Hash, Transaction> pendingConfidenceChanges = new LinkedHashMap<>();
     protected Wallet wallet;
     protected KeyParameter aesKey;
     @Getter
@@ -166,19 +175,29 @@ public abstract class WalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void addAddressConfidenceListener(AddressConfidenceListener listener) {
-        addressConfidenceListeners.add(listener);
+        if (listener.getAddress() != null)
+            addressConfidenceListeners.computeIfAbsent(listener.getAddress(), e -> new CopyOnWriteArraySet<>()).add(listener);
     }
 
     public void removeAddressConfidenceListener(AddressConfidenceListener listener) {
-        addressConfidenceListeners.remove(listener);
+        if (listener.getAddress() != null)
+            addressConfidenceListeners.computeIfPresent(listener.getAddress(), (address, listeners) -> {
+                listeners.remove(listener);
+                return listeners.isEmpty() ? null : listeners;
+            });
     }
 
     public void addTxConfidenceListener(TxConfidenceListener listener) {
-        txConfidenceListeners.add(listener);
+        if (listener.getTxID() != null)
+            txConfidenceListeners.computeIfAbsent(listener.getTxID(), e -> new CopyOnWriteArraySet<>()).add(listener);
     }
 
     public void removeTxConfidenceListener(TxConfidenceListener listener) {
-        txConfidenceListeners.remove(listener);
+        if (listener.getTxID() != null)
+            txConfidenceListeners.computeIfPresent(listener.getTxID(), (txId, listeners) -> {
+                listeners.remove(listener);
+                return listeners.isEmpty() ? null : listeners;
+            });
     }
 
     public void addBalanceListener(BalanceListener listener) {
@@ -324,7 +343,11 @@ public abstract class WalletService {
 
 
     public void broadcastTx(Transaction tx, TxBroadcaster.Callback callback) {
-        TxBroadcaster.broadcastTx(wallet, walletsSetup.getPeerGroup(), tx, callback);
+        broadcastTx(tx, callback, TxBroadcaster.Priority.NORMAL);
+    }
+
+    public void broadcastTx(Transaction tx, TxBroadcaster.Callback callback, TxBroadcaster.Priority priority) {
+        TxBroadcaster.broadcastTx(wallet, walletsSetup.getPeerGroup(), tx, callback, priority);
     }
 
 
@@ -335,24 +358,27 @@ public abstract class WalletService {
     @Nullable
     public TransactionConfidence getConfidenceForAddress(Address address) {
         List<TransactionConfidence> transactionConfidenceList = new ArrayList<>();
-        if (wallet != null) {
-            Set<Transaction> transactions = wallet.getTransactions(false);
-            if (transactions != null) {
-                transactionConfidenceList.addAll(transactions.stream().map(tx ->
-                        getTransactionConfidence(tx, address)).collect(Collectors.toList()));
-            }
+        if (wallet != null && address != null) {
+            transactionConfidenceList.addAll(addressTxIndex.getTransactions(wallet, address).stream()
+                    .map(tx -> getTransactionConfidence(tx, address))
+                    .collect(Collectors.toList()));
         }
         return getMostRecentConfidence(transactionConfidenceList);
     }
 
     @Nullable
     public TransactionConfidence getConfidenceForTxId(String txId) {
-        if (wallet != null) {
-            Set<Transaction> transactions = wallet.getTransactions(false);
-            for (Transaction tx : transactions) {
-                if (tx.getHashAsString().equals(txId))
-                    return tx.getConfidence();
+        if (wallet != null && txId != null) {
+            Transaction tx;
+            try {
+                tx = wallet.getTransaction(Sha256Hash.wrap(txId));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid txId {}", txId);
+                return null;
             }
+            // Like wallet.getTransactions(false) we ignore dead txs
+            if (tx != null && tx.getConfidence().getConfidenceType() != TransactionConfidence.ConfidenceType.DEAD)
+                return tx.getConfidence();
         }
         return null;
     }
@@ -452,16 +478,7 @@ public abstract class WalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public int getNumTxOutputsForAddress(Address address) {
-        List<TransactionOutput> transactionOutputs = new ArrayList<>();
-        wallet.getTransactions(false).forEach(t -> transactionOutputs.addAll(t.getOutputs()));
-        int outputs = 0;
-        for (TransactionOutput output : transactionOutputs) {
-            if (isOutputScriptConvertibleToAddress(output) &&
-                    address != null &&
-                    address.equals(getAddressFromOutput(output)))
-                outputs++;
-        }
-        return outputs;
+        return wallet != null && address != null ? addressTxIndex.getNumOutputs(wallet, address) : 0;
     }
 
     public boolean isAddressUnused(Address address) {
@@ -676,6 +693,38 @@ public abstract class WalletService {
     }
 
 
+    private void dispatchConfidenceChanges() {
+        List<Transaction> transactions;
+        synchronized (pendingConfidenceChanges) {
+            transactions = new ArrayList<>(pendingConfidenceChanges.values());
+            pendingConfidenceChanges.clear();
+        }
+
+        for (Transaction tx : transactions) {
+            Set<TxConfidenceListener> txListeners = txConfidenceListeners.get(tx.getHashAsString());
+            if (txListeners != null)
+                txListeners.forEach(listener -> listener.onTransactionConfidenceChanged(tx.getConfidence()));
+
+            if (addressConfidenceListeners.isEmpty())
+                continue;
+
+            Set<Address> addresses = new HashSet<>();
+            getOutputsWithConnectedOutputs(tx).forEach(output -> {
+                Address address = getAddressFromOutput(output);
+                if (address != null)
+                    addresses.add(address);
+            });
+            for (Address address : addresses) {
+                Set<AddressConfidenceListener> addressListeners = addressConfidenceListeners.get(address);
+                if (addressListeners != null) {
+                    TransactionConfidence confidence = getTransactionConfidence(tx, address);
+                    addressListeners.forEach(listener -> listener.onTransactionConfidenceChanged(confidence));
+                }
+            }
+        }
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // bisqWalletEventListener
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -684,35 +733,38 @@ public abstract class WalletService {
     public class BisqWalletListener extends AbstractWalletEventListener {
         @Override
         public void onCoinsReceived(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            addressTxIndex.onTransaction(tx);
             notifyBalanceListeners(tx);
         }
 
         @Override
         public void onCoinsSent(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            addressTxIndex.onTransaction(tx);
             notifyBalanceListeners(tx);
         }
 
         @Override
         public void onReorganize(Wallet wallet) {
             log.warn("onReorganize ");
+            addressTxIndex.invalidate();
         }
 
         @Override
         public void onTransactionConfidenceChanged(Wallet wallet, Transaction tx) {
-            for (AddressConfidenceListener addressConfidenceListener : addressConfidenceListeners) {
-                List<TransactionConfidence> transactionConfidenceList = new ArrayList<>();
-                transactionConfidenceList.add(getTransactionConfidence(tx, addressConfidenceListener.getAddress()));
-
-                TransactionConfidence transactionConfidence = getMostRecentConfidence(transactionConfidenceList);
-                addressConfidenceListener.onTransactionConfidenceChanged(transactionConfidence);
+            if (tx.getConfidence().getConfidenceType() == TransactionConfidence.ConfidenceType.DEAD)
+                addressTxIndex.invalidate();
+            else
+                addressTxIndex.onTransaction(tx);
+
+            // At a new block we get a confidence change for each wallet tx. We collect them and dispatch them once
+            // after the pending wallet events got processed.
+            boolean dispatchScheduled;
+            synchronized (pendingConfidenceChanges) {
+                dispatchScheduled = !pendingConfidenceChanges.isEmpty();
+                pendingConfidenceChanges.put(tx.getHash(), tx);
             }
-            txConfidenceListeners.stream()
-                    .filter(txConfidenceListener -> tx != null &&
-                            tx.getHashAsString() != null &&
-                            txConfidenceListener != null &&
-                            tx.getHashAsString().equals(txConfidenceListener.getTxID()))
-                    .forEach(txConfidenceListener ->
-                            txConfidenceListener.onTransactionConfidenceChanged(tx.getConfidence()));
+            if (!dispatchScheduled)
+                UserThread.execute(WalletService.this::dispatchConfidenceChanges);
         }
 
         void notifyBalanceListeners(Transaction tx) {
@@ -143,6 +143,7 @@ public class WalletsSetup {
                         @Named(BtcOptionKeys.WALLET_DIR) File appDir,
                         @Named(BtcOptionKeys.USE_ALL_PROVIDED_NODES) String useAllProvidedNodes,
                         @Named(BtcOptionKeys.NUM_CONNECTIONS_FOR_BTC) String numConnectionForBtc,
+                        @Named(BtcOptionKeys.MAX_CONCURRENT_TX_BROADCASTS) String maxConcurrentTxBroadcasts,
                         @Named(BtcOptionKeys.SOCKS5_DISCOVER_MODE) String socks5DiscoverModeString) {
         this.regTestHost = regTestHost;
         this.addressEntryList = addressEntryList;
@@ -153,6 +154,7 @@ public class WalletsSetup {
         this.numConnectionForBtc = numConnectionForBtc != null ? Integer.parseInt(numConnectionForBtc) : DEFAULT_CONNECTIONS;
         this.useAllProvidedNodes = "true".equals(useAllProvidedNodes);
         this.userAgent = userAgent;
+        TxBroadcaster.setMaxConcurrentBroadcasts(evaluateMaxConcurrentTxBroadcasts(maxConcurrentTxBroadcasts));
 
         this.socks5DiscoverMode = evaluateMode(socks5DiscoverModeString);
 
@@ -288,6 +290,18 @@ public class WalletsSetup {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     @VisibleForTesting
+    private int evaluateMaxConcurrentTxBroadcasts(@Nullable String maxConcurrentTxBroadcasts) {
+        if (maxConcurrentTxBroadcasts == null)
+            return TxBroadcaster.DEFAULT_MAX_CONCURRENT_BROADCASTS;
+
+        try {
+            return Integer.parseInt(maxConcurrentTxBroadcasts);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for {}: {}", BtcOptionKeys.MAX_CONCURRENT_TX_BROADCASTS, maxConcurrentTxBroadcasts);
+            return TxBroadcaster.DEFAULT_MAX_CONCURRENT_BROADCASTS;
+        }
+    }
+
     private int evaluateMode(String socks5DiscoverModeString) {
         String[] socks5DiscoverModes = StringUtils.deleteWhitespace(socks5DiscoverModeString).split(",");
         int mode = 0;
@@ -440,8 +454,7 @@ public class WalletsSetup {
     }
 
     public Set<Address> getAddressesByContext(@SuppressWarnings("SameParameterValue") AddressEntry.Context context) {
-        return ImmutableList.copyOf(addressEntryList.getList()).stream()
-                .filter(addressEntry -> addressEntry.getContext() == context)
+        return addressEntryList.getAddressEntries(context).stream()
                 .map(AddressEntry::getAddress)
                 .collect(Collectors.toSet());
     }
@@ -0,0 +1,156 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.filter;
+
+import bisq.core.payment.payload.PaymentAccountPayload;
+
+import bisq.network.p2p.NodeAddress;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Lookup tables created once from a received Filter, so the checks for offers and trade messages are hash lookups
+ * instead of scans over the filter lists.
+ * <p>
+ * The banned payment accounts are grouped by payment method ID, getter name and value. The getters are resolved once
+ * per payload class to a MethodHandle and cached, so we don't use reflection at each check.
+ */
+@Slf4j
+@Immutable
+final class CompiledFilter {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final ClassValue<Map<String, Optional<MethodHandle>>> GETTERS_BY_CLASS = new ClassValue<Map<String, Optional<MethodHandle>>>() {
+        @Override
+        protected Map<String, Optional<MethodHandle>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final ImmutableSet<String> bannedOfferIds;
+    private final ImmutableSet<String> bannedNodeAddresses;
+    private final ImmutableSet<String> bannedCurrencies;
+    private final ImmutableSet<String> bannedPaymentMethods;
+    // paymentMethodId -> getMethodName -> value -> PaymentAccountFilter
+    private final ImmutableMap<String, ImmutableMap<String, ImmutableMap<String, PaymentAccountFilter>>> bannedPaymentAccounts;
+
+    CompiledFilter(Filter filter) {
+        bannedOfferIds = toSet(filter.getBannedOfferIds());
+        bannedNodeAddresses = toSet(filter.getBannedNodeAddress());
+        bannedCurrencies = toSet(filter.getBannedCurrencies());
+        bannedPaymentMethods = toSet(filter.getBannedPaymentMethods());
+
+        Map<String, Map<String, Map<String, PaymentAccountFilter>>> map = new LinkedHashMap<>();
+        if (filter.getBannedPaymentAccounts() != null) {
+            // As in the list based check the first matching filter wins
+            filter.getBannedPaymentAccounts().forEach(e -> map.computeIfAbsent(e.getPaymentMethodId(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(e.getGetMethodName(), k -> new LinkedHashMap<>())
+                    .putIfAbsent(e.getValue(), e));
+        }
+        ImmutableMap.Builder<String, ImmutableMap<String, ImmutableMap<String, PaymentAccountFilter>>> builder = ImmutableMap.builder();
+        map.forEach((paymentMethodId, filtersByGetter) -> {
+            ImmutableMap.Builder<String, ImmutableMap<String, PaymentAccountFilter>> getterBuilder = ImmutableMap.builder();
+            filtersByGetter.forEach((getMethodName, filtersByValue) -> getterBuilder.put(getMethodName, ImmutableMap.copyOf(filtersByValue)));
+            builder.put(paymentMethodId, getterBuilder.build());
+        });
+        bannedPaymentAccounts = builder.build();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    boolean isOfferIdBanned(String offerId) {
+        return offerId != null && bannedOfferIds.contains(offerId);
+    }
+
+    boolean isNodeAddressBanned(NodeAddress nodeAddress) {
+        return nodeAddress != null && bannedNodeAddresses.contains(nodeAddress.getFullAddress());
+    }
+
+    boolean isCurrencyBanned(String currencyCode) {
+        return currencyCode != null && bannedCurrencies.contains(currencyCode);
+    }
+
+    boolean isPaymentMethodBanned(String paymentMethodId) {
+        return paymentMethodId != null && bannedPaymentMethods.contains(paymentMethodId);
+    }
+
+    /**
+     * @return The filter matching the payment account data or empty if the account is not banned.
+     */
+    Optional<PaymentAccountFilter> findBannedPaymentAccount(PaymentAccountPayload paymentAccountPayload) {
+        ImmutableMap<String, ImmutableMap<String, PaymentAccountFilter>> filtersByGetter =
+                bannedPaymentAccounts.get(paymentAccountPayload.getPaymentMethodId());
+        if (filtersByGetter == null)
+            return Optional.empty();
+
+        for (Map.Entry<String, ImmutableMap<String, PaymentAccountFilter>> entry : filtersByGetter.entrySet()) {
+            Optional<MethodHandle> getter = getGetter(paymentAccountPayload.getClass(), entry.getKey());
+            if (!getter.isPresent())
+                continue;
+
+            try {
+                Object value = getter.get().invokeExact((Object) paymentAccountPayload);
+                PaymentAccountFilter paymentAccountFilter = value instanceof String ? entry.getValue().get(value) : null;
+                if (paymentAccountFilter != null)
+                    return Optional.of(paymentAccountFilter);
+            } catch (Throwable t) {
+                log.error("Calling {} at {} failed. {}", entry.getKey(), paymentAccountPayload.getClass().getSimpleName(), t.toString());
+            }
+        }
+        return Optional.empty();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static ImmutableSet<String> toSet(@Nullable Collection<String> collection) {
+        return collection != null ? ImmutableSet.copyOf(collection) : ImmutableSet.of();
+    }
+
+    private static Optional<MethodHandle> getGetter(Class<?> type, String getMethodName) {
+        return GETTERS_BY_CLASS.get(type).computeIfAbsent(getMethodName, name -> {
+            try {
+                MethodHandle methodHandle = MethodHandles.publicLookup().unreflect(type.getMethod(name));
+                return Optional.of(methodHandle.asType(GETTER_TYPE));
+            } catch (Throwable t) {
+                log.error("Could not resolve {} at {}. {}", name, type.getSimpleName(), t.toString());
+                return Optional.empty();
+            }
+        });
+    }
+}
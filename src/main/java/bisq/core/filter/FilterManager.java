@@ -58,8 +58,6 @@ import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
-import java.lang.reflect.Method;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -91,6 +89,9 @@ public class FilterManager {
     private final ProvidersRepository providersRepository;
     private boolean ignoreDevMsg;
     private final ObjectProperty<Filter> filterProperty = new SimpleObjectProperty<>();
+    // Created once per received filter so the checks are hash lookups
+    @Nullable
+    private volatile CompiledFilter compiledFilter;
     private final List<Listener> listeners = new CopyOnWriteArrayList<>();
 
     private final String pubKeyAsHex;
@@ -120,6 +121,9 @@ public class FilterManager {
         pubKeyAsHex = useDevPrivilegeKeys ?
                 DevEnv.DEV_PRIVILEGE_PUB_KEY :
                 "022ac7b7766b0aedff82962522c2c14fb8d1961dabef6e5cfd10edc679456a32f1";
+
+        filterProperty.addListener((observable, oldValue, newValue) ->
+                compiledFilter = newValue != null ? new CompiledFilter(newValue) : null);
     }
 
     public void onAllServicesInitialized() {
@@ -324,51 +328,33 @@ public class FilterManager {
     }
 
     public boolean isCurrencyBanned(String currencyCode) {
-        return getFilter() != null &&
-                getFilter().getBannedCurrencies() != null &&
-                getFilter().getBannedCurrencies().stream()
-                        .anyMatch(e -> e.equals(currencyCode));
+        CompiledFilter compiledFilter = this.compiledFilter;
+        return compiledFilter != null && compiledFilter.isCurrencyBanned(currencyCode);
     }
 
     public boolean isPaymentMethodBanned(PaymentMethod paymentMethod) {
-        return getFilter() != null &&
-                getFilter().getBannedPaymentMethods() != null &&
-                getFilter().getBannedPaymentMethods().stream()
-                        .anyMatch(e -> e.equals(paymentMethod.getId()));
+        CompiledFilter compiledFilter = this.compiledFilter;
+        return compiledFilter != null && compiledFilter.isPaymentMethodBanned(paymentMethod.getId());
     }
 
     public boolean isOfferIdBanned(String offerId) {
-        return getFilter() != null &&
-                getFilter().getBannedOfferIds().stream()
-                        .anyMatch(e -> e.equals(offerId));
+        CompiledFilter compiledFilter = this.compiledFilter;
+        return compiledFilter != null && compiledFilter.isOfferIdBanned(offerId);
     }
 
     public boolean isNodeAddressBanned(NodeAddress nodeAddress) {
-        return getFilter() != null &&
-                getFilter().getBannedNodeAddress().stream()
-                        .anyMatch(e -> e.equals(nodeAddress.getFullAddress()));
+        CompiledFilter compiledFilter = this.compiledFilter;
+        return compiledFilter != null && compiledFilter.isNodeAddressBanned(nodeAddress);
     }
 
     public boolean isPeersPaymentAccountDataAreBanned(PaymentAccountPayload paymentAccountPayload,
                                                       PaymentAccountFilter[] appliedPaymentAccountFilter) {
-        return getFilter() != null &&
-                getFilter().getBannedPaymentAccounts().stream()
-                        .anyMatch(paymentAccountFilter -> {
-                            final boolean samePaymentMethodId = paymentAccountFilter.getPaymentMethodId().equals(
-                                    paymentAccountPayload.getPaymentMethodId());
-                            if (samePaymentMethodId) {
-                                try {
-                                    Method method = paymentAccountPayload.getClass().getMethod(paymentAccountFilter.getGetMethodName());
-                                    String result = (String) method.invoke(paymentAccountPayload);
-                                    appliedPaymentAccountFilter[0] = paymentAccountFilter;
-                                    return result.equals(paymentAccountFilter.getValue());
-                                } catch (Throwable e) {
-                                    log.error(e.getMessage());
-                                    return false;
-                                }
-                            } else {
-                                return false;
-                            }
-                        });
+        CompiledFilter compiledFilter = this.compiledFilter;
+        if (compiledFilter == null)
+            return false;
+
+        Optional<PaymentAccountFilter> paymentAccountFilter = compiledFilter.findBannedPaymentAccount(paymentAccountPayload);
+        paymentAccountFilter.ifPresent(e -> appliedPaymentAccountFilter[0] = e);
+        return paymentAccountFilter.isPresent();
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.locale;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Immutable lookup tables for all supported fiat and crypto currencies, created once from the sorted currency lists
+ * of CurrencyUtil. Besides the lookup by code it assigns a small integer ID to each currency. The IDs depend on the
+ * set of supported currencies and are only stable during the lifetime of the application, so they must not be used
+ * in data we send over the network.
+ */
+@Immutable
+public final class CurrencyRegistry {
+    public static final int UNKNOWN_ID = -1;
+
+    private final ImmutableMap<String, FiatCurrency> fiatCurrencyByCode;
+    private final ImmutableMap<String, CryptoCurrency> cryptoCurrencyByCode;
+    private final ImmutableMap<String, Integer> idByCode;
+    private final ImmutableList<TradeCurrency> tradeCurrencyById;
+
+    CurrencyRegistry(List<FiatCurrency> fiatCurrencies, List<CryptoCurrency> cryptoCurrencies) {
+        Map<String, FiatCurrency> fiatMap = new HashMap<>();
+        fiatCurrencies.forEach(e -> fiatMap.putIfAbsent(e.getCode(), e));
+        fiatCurrencyByCode = ImmutableMap.copyOf(fiatMap);
+
+        Map<String, CryptoCurrency> cryptoMap = new HashMap<>();
+        cryptoCurrencies.forEach(e -> cryptoMap.putIfAbsent(e.getCode(), e));
+        cryptoCurrencyByCode = ImmutableMap.copyOf(cryptoMap);
+
+        Map<String, Integer> idMap = new HashMap<>();
+        List<TradeCurrency> list = new ArrayList<>();
+        List<TradeCurrency> allCurrencies = new ArrayList<>(fiatCurrencies);
+        allCurrencies.addAll(cryptoCurrencies);
+        allCurrencies.forEach(e -> {
+            if (!idMap.containsKey(e.getCode())) {
+                idMap.put(e.getCode(), list.size());
+                list.add(e);
+            }
+        });
+        idByCode = ImmutableMap.copyOf(idMap);
+        tradeCurrencyById = ImmutableList.copyOf(list);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public Optional<FiatCurrency> getFiatCurrency(String currencyCode) {
+        return currencyCode != null ? Optional.ofNullable(fiatCurrencyByCode.get(currencyCode)) : Optional.empty();
+    }
+
+    public Optional<CryptoCurrency> getCryptoCurrency(String currencyCode) {
+        return currencyCode != null ? Optional.ofNullable(cryptoCurrencyByCode.get(currencyCode)) : Optional.empty();
+    }
+
+    public boolean isCryptoCurrency(String currencyCode) {
+        return currencyCode != null && cryptoCurrencyByCode.containsKey(currencyCode);
+    }
+
+    public boolean isSupportedFiatCurrency(String currencyCode) {
+        return currencyCode != null && fiatCurrencyByCode.containsKey(currencyCode);
+    }
+
+    public int getId(String currencyCode) {
+        Integer id = currencyCode != null ? idByCode.get(currencyCode) : null;
+        return id != null ? id : UNKNOWN_ID;
+    }
+
+    public Optional<TradeCurrency> getTradeCurrency(int id) {
+        return id >= 0 && id < tradeCurrencyById.size() ? Optional.of(tradeCurrencyById.get(id)) : Optional.empty();
+    }
+
+    public int size() {
+        return tradeCurrencyById.size();
+    }
+}
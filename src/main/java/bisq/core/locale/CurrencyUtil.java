@@ -40,11 +40,14 @@ import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
 public class CurrencyUtil {
 
     public static void setup() {
         setBaseCurrencyCode(BisqEnvironment.getBaseCurrencyNetwork().getCurrencyCode());
+        currencyRegistry = new CurrencyRegistry(getAllSortedFiatCurrencies(), getAllSortedCryptoCurrencies());
     }
 
     private static final AssetRegistry assetRegistry = new AssetRegistry();
@@ -52,6 +55,8 @@ public class CurrencyUtil {
     private static String baseCurrencyCode = "BTC";
     private static List<FiatCurrency> allSortedFiatCurrencies;
     private static List<CryptoCurrency> allSortedCryptoCurrencies;
+    @Nullable
+    private static volatile CurrencyRegistry currencyRegistry;
 
     public static void setBaseCurrencyCode(String baseCurrencyCode) {
         CurrencyUtil.baseCurrencyCode = baseCurrencyCode;
@@ -73,6 +78,15 @@ public class CurrencyUtil {
         return list;
     }
 
+    // Lookups are used in hot paths (offers, trade statistics, formatters) so we use the precomputed maps of the
+    // registry instead of streaming the sorted lists.
+    public static CurrencyRegistry getCurrencyRegistry() {
+        // Is created at setup but tests might not call setup
+        if (currencyRegistry == null)
+            currencyRegistry = new CurrencyRegistry(getAllSortedFiatCurrencies(), getAllSortedCryptoCurrencies());
+        return currencyRegistry;
+    }
+
     public static List<FiatCurrency> getMainFiatCurrencies() {
         TradeCurrency defaultTradeCurrency = getDefaultTradeCurrency();
         List<FiatCurrency> list = new ArrayList<>();
@@ -301,6 +315,13 @@ public class CurrencyUtil {
     }
 
     public static boolean isFiatCurrency(String currencyCode) {
+        CurrencyRegistry registry = getCurrencyRegistry();
+        if (registry.isCryptoCurrency(currencyCode))
+            return false;
+        if (registry.isSupportedFiatCurrency(currencyCode))
+            return true;
+
+        // ISO currencies which are not used by any of our countries are not in the registry
         try {
             return currencyCode != null
                     && !currencyCode.isEmpty()
@@ -312,25 +333,26 @@ public class CurrencyUtil {
     }
 
     public static Optional<FiatCurrency> getFiatCurrency(String currencyCode) {
-        return getAllSortedFiatCurrencies().stream().filter(e -> e.getCode().equals(currencyCode)).findAny();
+        return getCurrencyRegistry().getFiatCurrency(currencyCode);
     }
 
     @SuppressWarnings("WeakerAccess")
     public static boolean isCryptoCurrency(String currencyCode) {
-        return getCryptoCurrency(currencyCode).isPresent();
+        return getCurrencyRegistry().isCryptoCurrency(currencyCode);
     }
 
     public static Optional<CryptoCurrency> getCryptoCurrency(String currencyCode) {
-        return getAllSortedCryptoCurrencies().stream().filter(e -> e.getCode().equals(currencyCode)).findAny();
+        return getCurrencyRegistry().getCryptoCurrency(currencyCode);
     }
 
     public static Optional<TradeCurrency> getTradeCurrency(String currencyCode) {
-        Optional<FiatCurrency> fiatCurrencyOptional = getFiatCurrency(currencyCode);
-        if (isFiatCurrency(currencyCode) && fiatCurrencyOptional.isPresent())
+        CurrencyRegistry registry = getCurrencyRegistry();
+        Optional<FiatCurrency> fiatCurrencyOptional = registry.getFiatCurrency(currencyCode);
+        if (fiatCurrencyOptional.isPresent() && !registry.isCryptoCurrency(currencyCode))
             return Optional.of(fiatCurrencyOptional.get());
 
-        Optional<CryptoCurrency> cryptoCurrencyOptional = getCryptoCurrency(currencyCode);
-        if (isCryptoCurrency(currencyCode) && cryptoCurrencyOptional.isPresent())
+        Optional<CryptoCurrency> cryptoCurrencyOptional = registry.getCryptoCurrency(currencyCode);
+        if (cryptoCurrencyOptional.isPresent())
             return Optional.of(cryptoCurrencyOptional.get());
 
         return Optional.empty();
@@ -346,8 +368,9 @@ public class CurrencyUtil {
 
 
     public static String getNameByCode(String currencyCode) {
-        if (isCryptoCurrency(currencyCode))
-            return getCryptoCurrency(currencyCode).get().getName();
+        Optional<CryptoCurrency> cryptoCurrencyOptional = getCryptoCurrency(currencyCode);
+        if (cryptoCurrencyOptional.isPresent())
+            return cryptoCurrencyOptional.get().getName();
 
         try {
             return Currency.getInstance(currencyCode).getDisplayName();
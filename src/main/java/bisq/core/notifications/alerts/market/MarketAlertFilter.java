@@ -25,18 +25,27 @@ import bisq.common.proto.persistable.PersistablePayload;
 import io.bisq.generated.protobuffer.PB;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Value
+@EqualsAndHashCode(exclude = {"alertIdSet"})
 public class MarketAlertFilter implements PersistablePayload {
     private PaymentAccount paymentAccount;
     private int triggerValue;
     private boolean isBuyOffer;
     private List<String> alertIds;
+    // The list of alertIds grows with each alert, we use a set for the lookup
+    @Getter(AccessLevel.NONE)
+    private Set<String> alertIdSet;
 
 
     public MarketAlertFilter(PaymentAccount paymentAccount, int triggerValue, boolean isBuyOffer) {
@@ -60,6 +69,7 @@ public class MarketAlertFilter implements PersistablePayload {
         this.triggerValue = triggerValue;
         this.isBuyOffer = isBuyOffer;
         this.alertIds = alertIds;
+        this.alertIdSet = new HashSet<>(alertIds);
     }
 
     @Override
@@ -87,12 +97,12 @@ public class MarketAlertFilter implements PersistablePayload {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void addAlertId(String alertId) {
-        if (notContainsAlertId(alertId))
+        if (alertIdSet.add(alertId))
             alertIds.add(alertId);
     }
 
     public boolean notContainsAlertId(String alertId) {
-        return !alertIds.contains(alertId);
+        return !alertIdSet.contains(alertId);
     }
 
     @Override
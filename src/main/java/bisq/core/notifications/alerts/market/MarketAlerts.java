@@ -39,7 +39,12 @@ import org.bitcoinj.utils.Fiat;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import lombok.extern.slf4j.Slf4j;
@@ -52,6 +57,7 @@ public class MarketAlerts {
     private final PriceFeedService priceFeedService;
     private final KeyRing keyRing;
     private final BSFormatter formatter;
+    private final Map<String, List<MarketAlertFilter>> filtersByMarketKey = new HashMap<>();
 
     @Inject
     public MarketAlerts(OfferBookService offerBookService, MobileNotificationService mobileNotificationService,
@@ -80,16 +86,25 @@ public class MarketAlerts {
             public void onRemoved(Offer offer) {
             }
         });
-        applyFilterOnAllOffers();
+        updateFilterIndex();
+        offerBookService.getOffers().forEach(this::onOfferAdded);
     }
 
     public void addMarketAlertFilter(MarketAlertFilter filter) {
         user.addMarketAlertFilter(filter);
-        applyFilterOnAllOffers();
+        updateFilterIndex();
+
+        // Other filters have been applied already, so we only need to check the offers for the new filter
+        String marketKey = getMarketKey(filter.getPaymentAccount().getPaymentMethod().getId(), filter.isBuyOffer());
+        List<MarketAlertFilter> filters = Collections.singletonList(filter);
+        offerBookService.getOffers().stream()
+                .filter(offer -> marketKey.equals(getMarketKey(offer)))
+                .forEach(offer -> applyFilters(offer, filters));
     }
 
     public void removeMarketAlertFilter(MarketAlertFilter filter) {
         user.removeMarketAlertFilter(filter);
+        updateFilterIndex();
     }
 
     public List<MarketAlertFilter> getMarketAlertFilters() {
@@ -101,8 +116,24 @@ public class MarketAlerts {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private void applyFilterOnAllOffers() {
-        offerBookService.getOffers().forEach(this::onOfferAdded);
+    // Filters match on the payment method and the direction of the offer. We index them by that market key, sorted by
+    // the trigger value (highest first), so that an offer requires only one lookup and we can stop at the first filter
+    // which does not trigger.
+    private void updateFilterIndex() {
+        filtersByMarketKey.clear();
+        user.getMarketAlertFilters().forEach(filter -> {
+            String marketKey = getMarketKey(filter.getPaymentAccount().getPaymentMethod().getId(), filter.isBuyOffer());
+            filtersByMarketKey.computeIfAbsent(marketKey, key -> new ArrayList<>()).add(filter);
+        });
+        filtersByMarketKey.values().forEach(list -> list.sort(Comparator.comparingInt(MarketAlertFilter::getTriggerValue).reversed()));
+    }
+
+    private static String getMarketKey(String paymentMethodId, boolean isBuyOffer) {
+        return paymentMethodId + "|" + isBuyOffer;
+    }
+
+    private static String getMarketKey(Offer offer) {
+        return getMarketKey(offer.getPaymentMethod().getId(), offer.getDirection() == OfferPayload.Direction.BUY);
     }
 
     // We combine the offer ID and the price (either as % price or as fixed price) to get also updates for edited offers
@@ -115,93 +146,105 @@ public class MarketAlerts {
     }
 
     private void onOfferAdded(Offer offer) {
+        List<MarketAlertFilter> filters = filtersByMarketKey.get(getMarketKey(offer));
+        if (filters != null)
+            applyFilters(offer, filters);
+    }
+
+    // The filters must be sorted by trigger value, highest first
+    private void applyFilters(Offer offer, List<MarketAlertFilter> filters) {
+        if (filters.isEmpty() || offer.isMyOffer(keyRing))
+            return;
+
         String currencyCode = offer.getCurrencyCode();
         MarketPrice marketPrice = priceFeedService.getMarketPrice(currencyCode);
         Price offerPrice = offer.getPrice();
-        if (marketPrice != null && offerPrice != null) {
-            boolean isSellOffer = offer.getDirection() == OfferPayload.Direction.SELL;
-            String shortOfferId = offer.getShortId();
-            boolean isFiatCurrency = CurrencyUtil.isFiatCurrency(currencyCode);
-            String alertId = getAlertId(offer);
-            user.getMarketAlertFilters().stream()
-                    .filter(marketAlertFilter -> !offer.isMyOffer(keyRing))
-                    .filter(marketAlertFilter -> offer.getPaymentMethod().equals(marketAlertFilter.getPaymentAccount().getPaymentMethod()))
-                    .filter(marketAlertFilter -> marketAlertFilter.notContainsAlertId(alertId))
-                    .forEach(marketAlertFilter -> {
-                        int triggerValue = marketAlertFilter.getTriggerValue();
-                        boolean isTriggerForBuyOffer = marketAlertFilter.isBuyOffer();
-                        double marketPriceAsDouble1 = marketPrice.getPrice();
-                        int precision = CurrencyUtil.isCryptoCurrency(currencyCode) ?
-                                Altcoin.SMALLEST_UNIT_EXPONENT :
-                                Fiat.SMALLEST_UNIT_EXPONENT;
-                        double marketPriceAsDouble = MathUtils.scaleUpByPowerOf10(marketPriceAsDouble1, precision);
-                        double offerPriceValue = offerPrice.getValue();
-                        double ratio = offerPriceValue / marketPriceAsDouble;
-                        ratio = 1 - ratio;
-                        if (isFiatCurrency && isSellOffer)
-                            ratio *= -1;
-                        else if (!isFiatCurrency && !isSellOffer)
-                            ratio *= -1;
-
-                        ratio = ratio * 10000;
-                        boolean triggered = ratio <= triggerValue;
-                        if (!triggered)
-                            return;
-
-                        boolean isTriggerForBuyOfferAndTriggered = !isSellOffer && isTriggerForBuyOffer;
-                        boolean isTriggerForSellOfferAndTriggered = isSellOffer && !isTriggerForBuyOffer;
-                        if (isTriggerForBuyOfferAndTriggered || isTriggerForSellOfferAndTriggered) {
-                            String direction = isSellOffer ? Res.get("shared.sell") : Res.get("shared.buy");
-                            String marketDir;
-                            if (isFiatCurrency) {
-                                if (isSellOffer) {
-                                    marketDir = ratio > 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                } else {
-                                    marketDir = ratio < 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                }
-                            } else {
-                                if (isSellOffer) {
-                                    marketDir = ratio < 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                } else {
-                                    marketDir = ratio > 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                }
-                            }
-
-                            ratio = Math.abs(ratio);
-                            String msg = Res.get("account.notifications.marketAlert.message.msg",
-                                    direction,
-                                    formatter.getCurrencyPair(currencyCode),
-                                    formatter.formatPrice(offerPrice),
-                                    formatter.formatToPercentWithSymbol(ratio / 10000d),
-                                    marketDir,
-                                    Res.get(offer.getPaymentMethod().getId()),
-                                    shortOfferId);
-                            MobileMessage message = new MobileMessage(Res.get("account.notifications.marketAlert.message.title"),
-                                    msg,
-                                    shortOfferId,
-                                    MobileMessageType.MARKET);
-                            try {
-                                boolean success = mobileNotificationService.sendMessage(message);
-                                if (success) {
-                                    // In case we have disabled alerts we do not get a success msg back and we do not
-                                    // persist the offer
-                                    marketAlertFilter.addAlertId(alertId);
-                                    user.persist();
-                                }
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
-                        }
-                    });
+        if (marketPrice == null || offerPrice == null)
+            return;
+
+        // The distance to the market price does not depend on the filter, so we calculate it only once per offer
+        boolean isSellOffer = offer.getDirection() == OfferPayload.Direction.SELL;
+        boolean isFiatCurrency = CurrencyUtil.isFiatCurrency(currencyCode);
+        int precision = CurrencyUtil.isCryptoCurrency(currencyCode) ?
+                Altcoin.SMALLEST_UNIT_EXPONENT :
+                Fiat.SMALLEST_UNIT_EXPONENT;
+        double marketPriceAsDouble = MathUtils.scaleUpByPowerOf10(marketPrice.getPrice(), precision);
+        double offerPriceValue = offerPrice.getValue();
+        double ratio = offerPriceValue / marketPriceAsDouble;
+        ratio = 1 - ratio;
+        if (isFiatCurrency && isSellOffer)
+            ratio *= -1;
+        else if (!isFiatCurrency && !isSellOffer)
+            ratio *= -1;
+
+        ratio = ratio * 10000;
+
+        String alertId = null;
+        MobileMessage message = null;
+        for (MarketAlertFilter marketAlertFilter : filters) {
+            boolean triggered = ratio <= marketAlertFilter.getTriggerValue();
+            if (!triggered)
+                break;
+
+            if (alertId == null)
+                alertId = getAlertId(offer);
+            if (!marketAlertFilter.notContainsAlertId(alertId))
+                continue;
+
+            if (message == null)
+                message = getMessage(offer, offerPrice, ratio, isSellOffer, isFiatCurrency);
+            try {
+                boolean success = mobileNotificationService.sendMessage(message);
+                if (success) {
+                    // In case we have disabled alerts we do not get a success msg back and we do not
+                    // persist the offer
+                    marketAlertFilter.addAlertId(alertId);
+                    user.persist();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private MobileMessage getMessage(Offer offer, Price offerPrice, double ratio, boolean isSellOffer, boolean isFiatCurrency) {
+        String direction = isSellOffer ? Res.get("shared.sell") : Res.get("shared.buy");
+        String marketDir;
+        if (isFiatCurrency) {
+            if (isSellOffer) {
+                marketDir = ratio > 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            } else {
+                marketDir = ratio < 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            }
+        } else {
+            if (isSellOffer) {
+                marketDir = ratio < 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            } else {
+                marketDir = ratio > 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            }
         }
+
+        String shortOfferId = offer.getShortId();
+        String msg = Res.get("account.notifications.marketAlert.message.msg",
+                direction,
+                formatter.getCurrencyPair(offer.getCurrencyCode()),
+                formatter.formatPrice(offerPrice),
+                formatter.formatToPercentWithSymbol(Math.abs(ratio) / 10000d),
+                marketDir,
+                Res.get(offer.getPaymentMethod().getId()),
+                shortOfferId);
+        return new MobileMessage(Res.get("account.notifications.marketAlert.message.title"),
+                msg,
+                shortOfferId,
+                MobileMessageType.MARKET);
     }
 
     public static MobileMessage getTestMsg() {
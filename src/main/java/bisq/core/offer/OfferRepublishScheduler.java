@@ -0,0 +1,307 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Spreads the republish and refresh operations of our open offers over time with a token bucket, so we don't need a
+ * timer per offer and stay below the throttle limits of the network. A republish (full offer) costs more tokens than
+ * a refresh (only TTL data). Requests for an offer which is already queued get coalesced and a republish supersedes
+ * a refresh. Failed operations are retried per offer with an increasing delay instead of restarting the whole wave.
+ * <p>
+ * The P2P network has no message for refreshing multiple offers at once, so each offer still results in its own
+ * add or refresh operation, but all of them are driven by a single timer.
+ * Must be used from the UserThread.
+ */
+@Slf4j
+public class OfferRepublishScheduler {
+    // Former delay between republish was 700 ms and between refresh 300 ms
+    private static final double TOKENS_PER_SEC = 10 / 3d;
+    private static final double MAX_TOKENS = 3;
+    private static final double REFRESH_COST = 1;
+    private static final double REPUBLISH_COST = 7 / 3d;
+    private static final long RETRY_DELAY_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final long MAX_RETRY_DELAY_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static class Task {
+        private final OpenOffer openOffer;
+        private boolean republish;
+        private int numFailures;
+        private long notBefore;
+
+        private Task(OpenOffer openOffer, boolean republish) {
+            this.openOffer = openOffer;
+            this.republish = republish;
+        }
+    }
+
+    private final OfferBookService offerBookService;
+    private final Predicate<OpenOffer> isActive;
+    private final Consumer<OpenOffer> republishedHandler;
+    private final LongSupplier clock;
+    // Creates a timer for a runnable and a delay in ms
+    private final BiFunction<Runnable, Long, Timer> timerFactory;
+
+    // Keeps insertion order so offers get processed in the order they have been requested
+    private final Map<String, Task> pendingTasks = new LinkedHashMap<>();
+    private double tokens = MAX_TOKENS;
+    private long lastRefill;
+    @Nullable
+    private Timer timer;
+    private long nextTick;
+    private long waveStart;
+    private int numOperationsInWave;
+
+    @Getter
+    private long numRepublished;
+    @Getter
+    private long numRefreshed;
+    @Getter
+    private long numFailed;
+    @Getter
+    private long numRetries;
+    // Operations per second of the last completed wave
+    @Getter
+    private double lastThroughput;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    OfferRepublishScheduler(OfferBookService offerBookService,
+                            Predicate<OpenOffer> isActive,
+                            Consumer<OpenOffer> republishedHandler) {
+        this(offerBookService, isActive, republishedHandler, System::currentTimeMillis,
+                (runnable, delay) -> UserThread.runAfter(runnable, delay, TimeUnit.MILLISECONDS));
+    }
+
+    @VisibleForTesting
+    OfferRepublishScheduler(OfferBookService offerBookService,
+                            Predicate<OpenOffer> isActive,
+                            Consumer<OpenOffer> republishedHandler,
+                            LongSupplier clock,
+                            BiFunction<Runnable, Long, Timer> timerFactory) {
+        this.offerBookService = offerBookService;
+        this.isActive = isActive;
+        this.republishedHandler = republishedHandler;
+        this.clock = clock;
+        this.timerFactory = timerFactory;
+        lastRefill = clock.getAsLong();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void republish(Collection<OpenOffer> openOffers) {
+        openOffers.forEach(openOffer -> {
+            Task task = pendingTasks.get(openOffer.getId());
+            if (task == null || task.openOffer != openOffer) {
+                pendingTasks.put(openOffer.getId(), new Task(openOffer, true));
+            } else {
+                task.republish = true;
+                // A new republish request does not need to wait for a retry
+                task.notBefore = 0;
+            }
+        });
+        scheduleTick();
+    }
+
+    public void refresh(Collection<OpenOffer> openOffers) {
+        openOffers.forEach(openOffer -> {
+            Task task = pendingTasks.get(openOffer.getId());
+            if (task == null || task.openOffer != openOffer)
+                pendingTasks.put(openOffer.getId(), new Task(openOffer, false));
+        });
+        scheduleTick();
+    }
+
+    public void clear() {
+        pendingTasks.clear();
+        stopTimer();
+    }
+
+    public int getBacklog() {
+        return pendingTasks.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void tick() {
+        timer = null;
+        long now = clock.getAsLong();
+        tokens = Math.min(MAX_TOKENS, tokens + (now - lastRefill) * TOKENS_PER_SEC / 1000);
+        lastRefill = now;
+
+        // The result handlers might get called synchronously and add retries, so we execute after iterating
+        List<Task> tasksToExecute = new ArrayList<>();
+        Iterator<Task> iterator = pendingTasks.values().iterator();
+        while (iterator.hasNext()) {
+            Task task = iterator.next();
+            if (task.notBefore > now)
+                continue;
+
+            if (!isActive.test(task.openOffer)) {
+                iterator.remove();
+                continue;
+            }
+
+            double cost = getCost(task);
+            if (tokens < cost)
+                break;
+
+            tokens -= cost;
+            iterator.remove();
+            tasksToExecute.add(task);
+        }
+        tasksToExecute.forEach(this::execute);
+
+        if (pendingTasks.isEmpty() && numOperationsInWave > 0) {
+            long duration = Math.max(1, now - waveStart);
+            lastThroughput = numOperationsInWave * 1000d / duration;
+            log.info("Republished/refreshed {} offers in {} sec. numFailed={}",
+                    numOperationsInWave, duration / 1000d, numFailed);
+            numOperationsInWave = 0;
+        }
+
+        scheduleTick();
+    }
+
+    private void execute(Task task) {
+        if (numOperationsInWave == 0)
+            waveStart = clock.getAsLong();
+        numOperationsInWave++;
+
+        OpenOffer openOffer = task.openOffer;
+        if (task.republish) {
+            offerBookService.addOffer(openOffer.getOffer(),
+                    () -> {
+                        numRepublished++;
+                        republishedHandler.accept(openOffer);
+                    },
+                    errorMessage -> {
+                        log.error("Add offer to P2P network failed. " + errorMessage);
+                        onFault(task);
+                    });
+        } else {
+            offerBookService.refreshTTL(openOffer.getOffer().getOfferPayload(),
+                    () -> {
+                        numRefreshed++;
+                        log.debug("Successful refreshed TTL for offer");
+                    },
+                    errorMessage -> {
+                        log.warn(errorMessage);
+                        // If the refresh failed our offer might not be in the network anymore, so we republish it
+                        task.republish = true;
+                        onFault(task);
+                    });
+        }
+    }
+
+    private void onFault(Task task) {
+        numFailed++;
+        String offerId = task.openOffer.getId();
+        if (!isActive.test(task.openOffer) || pendingTasks.containsKey(offerId))
+            return;
+
+        task.numFailures++;
+        long delay = Math.min(MAX_RETRY_DELAY_MS, RETRY_DELAY_MS << Math.min(task.numFailures - 1, 10));
+        task.notBefore = clock.getAsLong() + delay;
+        pendingTasks.put(offerId, task);
+        numRetries++;
+        log.info("We retry to {} offer {} in {} sec.", task.republish ? "republish" : "refresh", offerId, delay / 1000);
+        scheduleTick();
+    }
+
+    private static double getCost(Task task) {
+        return task.republish ? REPUBLISH_COST : REFRESH_COST;
+    }
+
+    private void scheduleTick() {
+        if (pendingTasks.isEmpty()) {
+            stopTimer();
+            return;
+        }
+
+        long now = clock.getAsLong();
+        long tick = Long.MAX_VALUE;
+        for (Task task : pendingTasks.values()) {
+            if (task.notBefore <= now) {
+                // Time until we have enough tokens for the first task which is ready
+                double missingTokens = Math.max(0, getCost(task) - tokens);
+                tick = Math.min(tick, now + (long) Math.ceil(missingTokens * 1000 / TOKENS_PER_SEC));
+                break;
+            }
+            tick = Math.min(tick, task.notBefore);
+        }
+
+        if (timer != null) {
+            if (nextTick <= tick)
+                return;
+            stopTimer();
+        }
+
+        nextTick = tick;
+        timer = timerFactory.apply(this::tick, Math.max(1, tick - now));
+    }
+
+    private void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+            timer = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OfferRepublishScheduler{" +
+                "\n     backlog=" + pendingTasks.size() +
+                ",\n     numRepublished=" + numRepublished +
+                ",\n     numRefreshed=" + numRefreshed +
+                ",\n     numFailed=" + numFailed +
+                ",\n     numRetries=" + numRetries +
+                ",\n     lastThroughput=" + lastThroughput +
+                "\n}";
+    }
+}
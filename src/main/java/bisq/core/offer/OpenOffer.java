@@ -50,8 +50,9 @@ public final class OpenOffer implements Tradable {
 
     @Getter
     private final Offer offer;
+    // Read from the threads handling the OfferAvailabilityRequests
     @Getter
-    private State state;
+    private volatile State state;
 
     transient private Storage<TradableList<OpenOffer>> storage;
 
@@ -110,7 +111,7 @@ public final class OpenOffer implements Tradable {
         this.storage = storage;
     }
 
-    public void setState(State state) {
+    public synchronized void setState(State state) {
         log.trace("setState" + state);
         boolean changed = this.state != state;
         this.state = state;
@@ -124,6 +125,20 @@ public final class OpenOffer implements Tradable {
             stopTimeout();
     }
 
+    /**
+     * Sets the state to update only if the current state is expected, so that of two takers requesting the same offer
+     * at the same time only one can reserve it.
+     *
+     * @return true if the state was changed
+     */
+    public synchronized boolean compareAndSetState(State expected, State update) {
+        if (state != expected)
+            return false;
+
+        setState(update);
+        return true;
+    }
+
     public boolean isDeactivated() {
         return state == State.DEACTIVATED;
     }
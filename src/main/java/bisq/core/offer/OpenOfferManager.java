@@ -17,6 +17,7 @@
 
 package bisq.core.offer;
 
+import bisq.core.arbitration.Arbitrator;
 import bisq.core.btc.wallet.BsqWalletService;
 import bisq.core.btc.wallet.BtcWalletService;
 import bisq.core.btc.wallet.TradeWalletService;
@@ -55,21 +56,30 @@ import bisq.common.proto.persistable.PersistedDataHost;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
 import bisq.common.storage.Storage;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.bitcoinj.core.Coin;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -89,6 +99,12 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     private static final long REPUBLISH_AGAIN_AT_STARTUP_DELAY_SEC = 30;
     private static final long REPUBLISH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(30);
     private static final long REFRESH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+    // OfferAvailabilityRequests are handled at a small bounded pool so a maker with a popular offer does not block the
+    // UserThread. If the queue is full we reject new requests instead of letting the latency grow.
+    @VisibleForTesting
+    static final int AVAILABILITY_THREADS = 4;
+    @VisibleForTesting
+    static final int AVAILABILITY_QUEUE_CAPACITY = 200;
 
     private final KeyRing keyRing;
     private final User user;
@@ -102,7 +118,13 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     private final Preferences preferences;
     private final Storage<TradableList<OpenOffer>> openOfferTradableListStorage;
     private final Map<String, OpenOffer> offersToBeEdited = new HashMap<>();
-    private boolean stopped;
+    private final OfferRepublishScheduler republishScheduler;
+    private final ThreadPoolExecutor availabilityExecutor;
+    private volatile boolean stopped;
+    // Immutable snapshots for the availability threads. They get rebuilt at the UserThread if the ignore list in the
+    // preferences or the accepted arbitrators change.
+    private volatile Set<String> ignoredTraderHostNames = Collections.emptySet();
+    private volatile Set<NodeAddress> acceptedArbitratorAddresses = Collections.emptySet();
     private Timer periodicRepublishOffersTimer, periodicRefreshOffersTimer, retryRepublishOffersTimer;
     private TradableList<OpenOffer> openOffers;
 
@@ -137,6 +159,24 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         this.preferences = preferences;
 
         openOfferTradableListStorage = new Storage<>(storageDir, persistenceProtoResolver);
+        availabilityExecutor = new ThreadPoolExecutor(AVAILABILITY_THREADS, AVAILABILITY_THREADS,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(AVAILABILITY_QUEUE_CAPACITY),
+                new ThreadFactoryBuilder().setNameFormat("OfferAvailability-%d").setDaemon(true).build());
+        // Threads are only kept while we get requests
+        availabilityExecutor.allowCoreThreadTimeOut(true);
+        republishScheduler = new OfferRepublishScheduler(offerBookService,
+                openOffer -> !stopped && openOffers.contains(openOffer) && !openOffer.isDeactivated(),
+                openOffer -> {
+                    if (!stopped) {
+                        log.debug("Successful added offer to P2P network");
+                        // Refresh means we send only the dat needed to refresh the TTL (hash, signature and sequence no.)
+                        if (periodicRefreshOffersTimer == null)
+                            startPeriodicRefreshOffersTimer();
+                    } else {
+                        log.debug("We have stopped already. We ignore that offerBookService.republishOffers.onSuccess call.");
+                    }
+                });
 
         // In case the app did get killed the shutDown from the modules is not called, so we use a shutdown hook
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -151,6 +191,11 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     }
 
     public void onAllServicesInitialized() {
+        preferences.getIgnoreTradersListAsObservable().addListener((ListChangeListener<String>) c -> updateIgnoredTraders());
+        user.getAcceptedArbitratorsAsObservable().addListener((ListChangeListener<Arbitrator>) c -> updateAcceptedArbitrators());
+        updateIgnoredTraders();
+        updateAcceptedArbitrators();
+
         p2PService.addDecryptedDirectMessageListener(this);
 
         if (p2PService.isBootstrapped()) {
@@ -167,6 +212,16 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         cleanUpAddressEntries();
     }
 
+    private void updateIgnoredTraders() {
+        ignoredTraderHostNames = ImmutableSet.copyOf(preferences.getIgnoreTradersListAsObservable());
+    }
+
+    private void updateAcceptedArbitrators() {
+        acceptedArbitratorAddresses = ImmutableSet.copyOf(user.getAcceptedArbitratorsAsObservable().stream()
+                .map(Arbitrator::getNodeAddress)
+                .collect(Collectors.toList()));
+    }
+
     private void cleanUpAddressEntries() {
         Set<String> openTradesIdSet = openOffers.getList().stream().map(OpenOffer::getId).collect(Collectors.toSet());
         btcWalletService.getAddressEntriesForOpenOffer().stream()
@@ -190,6 +245,9 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         stopPeriodicRefreshOffersTimer();
         stopPeriodicRepublishOffersTimer();
         stopRetryRepublishOffersTimer();
+        republishScheduler.clear();
+        // Pending requests would only get rejected as we have stopped
+        availabilityExecutor.shutdownNow();
 
         log.debug("remove all open offers at shutDown");
         // we remove own offers from offerbook when we go offline
@@ -233,7 +291,21 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         // A basic sig check is in done also at decryption time
         NetworkEnvelope networkEnvelope = decryptedMessageWithPubKey.getNetworkEnvelope();
         if (networkEnvelope instanceof OfferAvailabilityRequest) {
-            handleOfferAvailabilityRequest((OfferAvailabilityRequest) networkEnvelope, peerNodeAddress);
+            OfferAvailabilityRequest request = (OfferAvailabilityRequest) networkEnvelope;
+            try {
+                availabilityExecutor.execute(() -> handleOfferAvailabilityRequest(request, peerNodeAddress));
+            } catch (RejectedExecutionException e) {
+                if (stopped) {
+                    sendAckMessage(request, peerNodeAddress, false,
+                            "We have stopped already. We ignore that handleOfferAvailabilityRequest call.");
+                    return;
+                }
+
+                // If too many takers are waiting we reply at once instead of letting the queue grow
+                log.warn("Too many pending OfferAvailabilityRequests. We reject the request from {} with offerId {}",
+                        peerNodeAddress, request.getOfferId());
+                sendOfferAvailabilityResponse(request, peerNodeAddress, AvailabilityResult.UNKNOWN_FAILURE);
+            }
         } else if (networkEnvelope instanceof AckMessage) {
             AckMessage ackMessage = (AckMessage) networkEnvelope;
             if (ackMessage.getSourceType() == AckMessageSourceType.OFFER_MESSAGE) {
@@ -288,6 +360,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         stopPeriodicRefreshOffersTimer();
         stopPeriodicRepublishOffersTimer();
         stopRetryRepublishOffersTimer();
+        republishScheduler.clear();
 
         restart();
     }
@@ -488,8 +561,11 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         });
     }
 
-    public void reserveOpenOffer(OpenOffer openOffer) {
-        openOffer.setState(OpenOffer.State.RESERVED);
+    /**
+     * @return false if the offer was not available (e.g. it got reserved by another taker already)
+     */
+    public boolean reserveOpenOffer(OpenOffer openOffer) {
+        return openOffer.compareAndSetState(OpenOffer.State.AVAILABLE, OpenOffer.State.RESERVED);
     }
 
 
@@ -506,7 +582,12 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     }
 
     public Optional<OpenOffer> getOpenOfferById(String offerId) {
-        return openOffers.stream().filter(e -> e.getId().equals(offerId)).findFirst();
+        return openOffers.getTradableById(offerId);
+    }
+
+    // Exposes the backlog and throughput of the republish and refresh operations
+    public OfferRepublishScheduler getRepublishScheduler() {
+        return republishScheduler;
     }
 
 
@@ -514,24 +595,23 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     // OfferPayload Availability
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Called at one of the availabilityExecutor threads. We only read state here which is safe to access
+    // concurrently and send the response and ack messages from the UserThread.
     private void handleOfferAvailabilityRequest(OfferAvailabilityRequest request, NodeAddress peer) {
         log.info("Received OfferAvailabilityRequest from {} with offerId {} and uid {}",
                 peer, request.getOfferId(), request.getUid());
 
-        boolean result = false;
-        String errorMessage = null;
-
         if (!p2PService.isBootstrapped()) {
-            errorMessage = "We got a handleOfferAvailabilityRequest but we have not bootstrapped yet.";
+            String errorMessage = "We got a handleOfferAvailabilityRequest but we have not bootstrapped yet.";
             log.info(errorMessage);
-            sendAckMessage(request, peer, false, errorMessage);
+            UserThread.execute(() -> sendAckMessage(request, peer, false, errorMessage));
             return;
         }
 
         if (stopped) {
-            errorMessage = "We have stopped already. We ignore that handleOfferAvailabilityRequest call.";
+            String errorMessage = "We have stopped already. We ignore that handleOfferAvailabilityRequest call.";
             log.debug(errorMessage);
-            sendAckMessage(request, peer, false, errorMessage);
+            UserThread.execute(() -> sendAckMessage(request, peer, false, errorMessage));
             return;
         }
 
@@ -539,53 +619,65 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
             Validator.nonEmptyStringOf(request.offerId);
             checkNotNull(request.getPubKeyRing());
         } catch (Throwable t) {
-            errorMessage = "Message validation failed. Error=" + t.toString() + ", Message=" + request.toString();
+            String errorMessage = "Message validation failed. Error=" + t.toString() + ", Message=" + request.toString();
             log.warn(errorMessage);
-            sendAckMessage(request, peer, false, errorMessage);
+            UserThread.execute(() -> sendAckMessage(request, peer, false, errorMessage));
             return;
         }
 
         try {
-            Optional<OpenOffer> openOfferOptional = getOpenOfferById(request.offerId);
-            AvailabilityResult availabilityResult;
-            if (openOfferOptional.isPresent()) {
-                if (openOfferOptional.get().getState() == OpenOffer.State.AVAILABLE) {
-                    final Offer offer = openOfferOptional.get().getOffer();
-                    if (preferences.getIgnoreTradersList().stream().noneMatch(hostName -> hostName.equals(peer.getHostNameWithoutPostFix()))) {
-                        availabilityResult = AvailabilityResult.AVAILABLE;
-
-                        List<NodeAddress> acceptedArbitrators = user.getAcceptedArbitratorAddresses();
-                        if (acceptedArbitrators != null && !acceptedArbitrators.isEmpty()) {
-                            // Check also tradePrice to avoid failures after taker fee is paid caused by a too big difference
-                            // in trade price between the peers. Also here poor connectivity might cause market price API connection
-                            // losses and therefore an outdated market price.
-                            try {
-                                offer.checkTradePriceTolerance(request.getTakersTradePrice());
-                            } catch (TradePriceOutOfToleranceException e) {
-                                log.warn("Trade price check failed because takers price is outside out tolerance.");
-                                availabilityResult = AvailabilityResult.PRICE_OUT_OF_TOLERANCE;
-                            } catch (MarketPriceNotAvailableException e) {
-                                log.warn(e.getMessage());
-                                availabilityResult = AvailabilityResult.MARKET_PRICE_NOT_AVAILABLE;
-                            } catch (Throwable e) {
-                                log.warn("Trade price check failed. " + e.getMessage());
-                                availabilityResult = AvailabilityResult.UNKNOWN_FAILURE;
-                            }
-                        } else {
-                            log.warn("acceptedArbitrators is null or empty: acceptedArbitrators=" + acceptedArbitrators);
-                            availabilityResult = AvailabilityResult.NO_ARBITRATORS;
-                        }
-                    } else {
-                        availabilityResult = AvailabilityResult.USER_IGNORED;
-                    }
-                } else {
-                    availabilityResult = AvailabilityResult.OFFER_TAKEN;
-                }
-            } else {
-                log.warn("handleOfferAvailabilityRequest: openOffer not found. That should never happen.");
-                availabilityResult = AvailabilityResult.OFFER_TAKEN;
-            }
+            AvailabilityResult availabilityResult = getAvailabilityResult(request, peer);
+            UserThread.execute(() -> sendOfferAvailabilityResponse(request, peer, availabilityResult));
+        } catch (Throwable t) {
+            String errorMessage = "Exception at handleRequestIsOfferAvailableMessage " + t.getMessage();
+            log.error(errorMessage);
+            t.printStackTrace();
+            UserThread.execute(() -> sendAckMessage(request, peer, false, errorMessage));
+        }
+    }
 
+    private AvailabilityResult getAvailabilityResult(OfferAvailabilityRequest request, NodeAddress peer) {
+        Optional<OpenOffer> openOfferOptional = getOpenOfferById(request.offerId);
+        if (!openOfferOptional.isPresent()) {
+            log.warn("handleOfferAvailabilityRequest: openOffer not found. That should never happen.");
+            return AvailabilityResult.OFFER_TAKEN;
+        }
+
+        OpenOffer openOffer = openOfferOptional.get();
+        if (openOffer.getState() != OpenOffer.State.AVAILABLE)
+            return AvailabilityResult.OFFER_TAKEN;
+
+        if (ignoredTraderHostNames.contains(peer.getHostNameWithoutPostFix()))
+            return AvailabilityResult.USER_IGNORED;
+
+        if (acceptedArbitratorAddresses.isEmpty()) {
+            log.warn("acceptedArbitrators is empty");
+            return AvailabilityResult.NO_ARBITRATORS;
+        }
+
+        // Check also tradePrice to avoid failures after taker fee is paid caused by a too big difference
+        // in trade price between the peers. Also here poor connectivity might cause market price API connection
+        // losses and therefore an outdated market price.
+        try {
+            openOffer.getOffer().checkTradePriceTolerance(request.getTakersTradePrice());
+            return AvailabilityResult.AVAILABLE;
+        } catch (TradePriceOutOfToleranceException e) {
+            log.warn("Trade price check failed because takers price is outside out tolerance.");
+            return AvailabilityResult.PRICE_OUT_OF_TOLERANCE;
+        } catch (MarketPriceNotAvailableException e) {
+            log.warn(e.getMessage());
+            return AvailabilityResult.MARKET_PRICE_NOT_AVAILABLE;
+        } catch (Throwable e) {
+            log.warn("Trade price check failed. " + e.getMessage());
+            return AvailabilityResult.UNKNOWN_FAILURE;
+        }
+    }
+
+    private void sendOfferAvailabilityResponse(OfferAvailabilityRequest request, NodeAddress peer,
+                                               AvailabilityResult availabilityResult) {
+        boolean result = false;
+        String errorMessage = null;
+        try {
             OfferAvailabilityResponse offerAvailabilityResponse = new OfferAvailabilityResponse(request.offerId, availabilityResult);
             log.info("Send {} with offerId {} and uid {} to peer {}",
                     offerAvailabilityResponse.getClass().getSimpleName(), offerAvailabilityResponse.getOfferId(),
@@ -658,55 +750,29 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void republishOffers() {
-        int size = openOffers.size();
-        final ArrayList<OpenOffer> openOffersList = new ArrayList<>(openOffers.getList());
-        Log.traceCall("Number of offer for republish: " + size);
+        Log.traceCall("Number of offer for republish: " + openOffers.size());
         if (!stopped) {
             stopPeriodicRefreshOffersTimer();
-            for (int i = 0; i < size; i++) {
-                // we delay to avoid reaching throttle limits
-
-                long delay = 700;
-                final long minDelay = (i + 1) * delay;
-                final long maxDelay = (i + 2) * delay;
-                final OpenOffer openOffer = openOffersList.get(i);
-                UserThread.runAfterRandomDelay(() -> {
-                    if (openOffers.contains(openOffer)) {
-                        String id = openOffer.getId();
-                        if (id != null && !openOffer.isDeactivated())
-                            republishOffer(openOffer);
-                    }
-
-                }, minDelay, maxDelay, TimeUnit.MILLISECONDS);
-            }
+            republishScheduler.republish(getOpenOffersForRepublish());
         } else {
             log.debug("We have stopped already. We ignore that republishOffers call.");
         }
     }
 
     private void republishOffer(OpenOffer openOffer) {
-        offerBookService.addOffer(openOffer.getOffer(),
-                () -> {
-                    if (!stopped) {
-                        log.debug("Successful added offer to P2P network");
-                        // Refresh means we send only the dat needed to refresh the TTL (hash, signature and sequence no.)
-                        if (periodicRefreshOffersTimer == null)
-                            startPeriodicRefreshOffersTimer();
-                    } else {
-                        log.debug("We have stopped already. We ignore that offerBookService.republishOffers.onSuccess call.");
-                    }
-                },
-                errorMessage -> {
-                    if (!stopped) {
-                        log.error("Add offer to P2P network failed. " + errorMessage);
-                        stopRetryRepublishOffersTimer();
-                        retryRepublishOffersTimer = UserThread.runAfter(OpenOfferManager.this::republishOffers,
-                                RETRY_REPUBLISH_DELAY_SEC);
-                    } else {
-                        log.debug("We have stopped already. We ignore that offerBookService.republishOffers.onFault call.");
-                    }
-                });
         openOffer.setStorage(openOfferTradableListStorage);
+        republishScheduler.republish(Collections.singletonList(openOffer));
+    }
+
+    private List<OpenOffer> getOpenOffersForRepublish() {
+        List<OpenOffer> list = new ArrayList<>();
+        openOffers.forEach(openOffer -> {
+            if (openOffer.getId() != null && !openOffer.isDeactivated()) {
+                openOffer.setStorage(openOfferTradableListStorage);
+                list.add(openOffer);
+            }
+        });
+        return list;
     }
 
     private void startPeriodicRepublishOffersTimer() {
@@ -733,25 +799,10 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         if (periodicRefreshOffersTimer == null)
             periodicRefreshOffersTimer = UserThread.runPeriodically(() -> {
                         if (!stopped) {
-                            int size = openOffers.size();
-                            Log.traceCall("Number of offer for refresh: " + size);
-
-                            //we clone our list as openOffers might change during our delayed call
-                            final ArrayList<OpenOffer> openOffersList = new ArrayList<>(openOffers.getList());
-                            for (int i = 0; i < size; i++) {
-                                // we delay to avoid reaching throttle limits
-                                // roughly 4 offers per second
-
-                                long delay = 300;
-                                final long minDelay = (i + 1) * delay;
-                                final long maxDelay = (i + 2) * delay;
-                                final OpenOffer openOffer = openOffersList.get(i);
-                                UserThread.runAfterRandomDelay(() -> {
-                                    // we need to check if in the meantime the offer has been removed
-                                    if (openOffers.contains(openOffer) && !openOffer.isDeactivated())
-                                        refreshOffer(openOffer);
-                                }, minDelay, maxDelay, TimeUnit.MILLISECONDS);
-                            }
+                            Log.traceCall("Number of offer for refresh: " + openOffers.size());
+                            republishScheduler.refresh(openOffers.getList().stream()
+                                    .filter(openOffer -> !openOffer.isDeactivated())
+                                    .collect(Collectors.toList()));
                         } else {
                             log.debug("We have stopped already. We ignore that periodicRefreshOffersTimer.run call.");
                         }
@@ -762,12 +813,6 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
             log.trace("periodicRefreshOffersTimer already stated");
     }
 
-    private void refreshOffer(OpenOffer openOffer) {
-        offerBookService.refreshTTL(openOffer.getOffer().getOfferPayload(),
-                () -> log.debug("Successful refreshed TTL for offer"),
-                log::warn);
-    }
-
     private void restart() {
         log.debug("Restart after connection loss");
         if (retryRepublishOffersTimer == null)
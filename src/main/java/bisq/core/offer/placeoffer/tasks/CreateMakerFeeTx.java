@@ -158,7 +158,7 @@ public class CreateMakerFeeTx extends Task<PlaceOfferModel> {
                                 + exception.getMessage());
                         failed(exception);
                     }
-                });
+                }, TxBroadcaster.Priority.LOW);
             }
         } catch (Throwable t) {
             offer.setErrorMessage("An error occurred.\n" +
@@ -0,0 +1,213 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.payment;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open addressing hash table from the raw 20 byte witness hash to the witness date. The hashes are stored back to
+ * back in one byte array and the dates in a long array, so we don't need a map entry, a ByteArray key and an
+ * AccountAgeWitness object per witness. As the keys are already outputs of a cryptographic hash function we use
+ * their first 4 bytes as hash code and resolve collisions with linear probing.
+ * <p>
+ * Entries are never removed as the underlying data store is append only.
+ * The index is the AccountAgeWitnessStore itself, so it gets written from the UserThread and read from the storage
+ * thread when the store gets persisted. Access is synchronized.
+ */
+@Slf4j
+public final class AccountAgeWitnessIndex implements Iterable<AccountAgeWitness> {
+    public static final int HASH_LENGTH = 20;
+    public static final long NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // We keep the table at most half full so probe sequences stay short
+    private static final int MAX_LOAD_FACTOR_PERCENT = 50;
+
+    private byte[] hashes;
+    private long[] dates;
+    private boolean[] used;
+    private int size;
+
+    public AccountAgeWitnessIndex() {
+        this(0);
+    }
+
+    public AccountAgeWitnessIndex(int expectedSize) {
+        allocate(getCapacity(expectedSize));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds the hash with the date if the hash is not already contained. As in the data store the first witness wins.
+     *
+     * @return true if the hash was added
+     */
+    public synchronized boolean putIfAbsent(byte[] hash, long date) {
+        if (!isValidHash(hash))
+            return false;
+
+        if ((size + 1) * 100L > (long) used.length * MAX_LOAD_FACTOR_PERCENT)
+            resize(used.length * 2);
+
+        int slot = findSlot(hashes, used, hash, 0);
+        if (used[slot])
+            return false;
+
+        insert(slot, hash, 0, date);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return The date of the witness or NOT_FOUND
+     */
+    public synchronized long getDate(byte[] hash) {
+        if (!isValidHash(hash))
+            return NOT_FOUND;
+
+        int slot = findSlot(hashes, used, hash, 0);
+        return used[slot] ? dates[slot] : NOT_FOUND;
+    }
+
+    public boolean contains(byte[] hash) {
+        return getDate(hash) != NOT_FOUND;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the witnesses which have been added before the call. The slots of an array are never changed once
+     * they are used and a resize allocates new arrays, so we only need to copy the used flags.
+     */
+    @Override
+    public synchronized Iterator<AccountAgeWitness> iterator() {
+        byte[] hashes = this.hashes;
+        long[] dates = this.dates;
+        boolean[] used = this.used.clone();
+        return new Iterator<AccountAgeWitness>() {
+            private int slot = nextUsedSlot(used, 0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < used.length;
+            }
+
+            @Override
+            public AccountAgeWitness next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                int start = slot * HASH_LENGTH;
+                byte[] hash = new byte[HASH_LENGTH];
+                System.arraycopy(hashes, start, hash, 0, HASH_LENGTH);
+                AccountAgeWitness accountAgeWitness = new AccountAgeWitness(hash, dates[slot]);
+                slot = nextUsedSlot(used, slot + 1);
+                return accountAgeWitness;
+            }
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static boolean isValidHash(byte[] hash) {
+        return hash != null && hash.length == HASH_LENGTH;
+    }
+
+    private static int nextUsedSlot(boolean[] used, int from) {
+        int slot = from;
+        while (slot < used.length && !used[slot])
+            slot++;
+        return slot;
+    }
+
+    private static int getCapacity(int expectedSize) {
+        long minCapacity = Math.max(INITIAL_CAPACITY, (long) expectedSize * 100 / MAX_LOAD_FACTOR_PERCENT);
+        return Integer.highestOneBit((int) Math.min(minCapacity, 1 << 30) - 1) << 1;
+    }
+
+    private void allocate(int capacity) {
+        hashes = new byte[capacity * HASH_LENGTH];
+        dates = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int hashCode(byte[] source, int offset) {
+        return (source[offset] & 0xff) << 24 |
+                (source[offset + 1] & 0xff) << 16 |
+                (source[offset + 2] & 0xff) << 8 |
+                (source[offset + 3] & 0xff);
+    }
+
+    // Returns the slot which contains the hash or the empty slot where it would be inserted
+    private static int findSlot(byte[] hashes, boolean[] used, byte[] source, int offset) {
+        int mask = used.length - 1;
+        int slot = hashCode(source, offset) & mask;
+        while (used[slot] && !equalsAt(hashes, slot, source, offset))
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private static boolean equalsAt(byte[] hashes, int slot, byte[] source, int offset) {
+        int start = slot * HASH_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (hashes[start + i] != source[offset + i])
+                return false;
+        }
+        return true;
+    }
+
+    private void insert(int slot, byte[] source, int offset, long date) {
+        System.arraycopy(source, offset, hashes, slot * HASH_LENGTH, HASH_LENGTH);
+        dates[slot] = date;
+        used[slot] = true;
+    }
+
+    private void resize(int capacity) {
+        log.debug("Resize AccountAgeWitnessIndex to capacity {}", capacity);
+        byte[] oldHashes = hashes;
+        long[] oldDates = dates;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int offset = i * HASH_LENGTH;
+                insert(findSlot(hashes, used, oldHashes, offset), oldHashes, offset, oldDates[i]);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AccountAgeWitnessIndex{" +
+                "\n     size=" + size +
+                ",\n     capacity=" + used.length +
+                "\n}";
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.payment;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Map view of the AccountAgeWitnessIndex as it is required by the append only data store. Keys and witness objects
+ * are created on access, so the store does not keep an object per witness. Entries cannot be removed.
+ */
+class AccountAgeWitnessMap extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    private final AccountAgeWitnessIndex index;
+
+    AccountAgeWitnessMap(AccountAgeWitnessIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof P2PDataStorage.ByteArray && index.contains(((P2PDataStorage.ByteArray) key).bytes);
+    }
+
+    @Nullable
+    @Override
+    public PersistableNetworkPayload get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray))
+            return null;
+
+        byte[] hash = ((P2PDataStorage.ByteArray) key).bytes;
+        long date = index.getDate(hash);
+        return date != AccountAgeWitnessIndex.NOT_FOUND ? new AccountAgeWitness(hash, date) : null;
+    }
+
+    // As in the data store the first witness wins, so put does not replace an existing entry
+    @Nullable
+    @Override
+    public PersistableNetworkPayload put(P2PDataStorage.ByteArray key, PersistableNetworkPayload value) {
+        return putIfAbsent(key, value);
+    }
+
+    @Nullable
+    @Override
+    public PersistableNetworkPayload putIfAbsent(P2PDataStorage.ByteArray key, PersistableNetworkPayload value) {
+        if (!(value instanceof AccountAgeWitness))
+            throw new IllegalArgumentException("AccountAgeWitnessMap only accepts AccountAgeWitness. value=" + value);
+
+        AccountAgeWitness accountAgeWitness = (AccountAgeWitness) value;
+        byte[] hash = accountAgeWitness.getHash();
+        if (!Arrays.equals(key.bytes, hash))
+            throw new IllegalArgumentException("The key does not match the hash of the witness. value=" + value);
+        if (hash.length != AccountAgeWitnessIndex.HASH_LENGTH)
+            throw new IllegalArgumentException("The hash of the witness has an invalid length. value=" + value);
+
+        if (index.putIfAbsent(hash, accountAgeWitness.getDate()))
+            return null;
+
+        return get(key);
+    }
+
+    @Override
+    public Set<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>>() {
+            @Override
+            public Iterator<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                Iterator<AccountAgeWitness> iterator = index.iterator();
+                return new Iterator<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> next() {
+                        AccountAgeWitness accountAgeWitness = iterator.next();
+                        return new SimpleImmutableEntry<>(new P2PDataStorage.ByteArray(accountAgeWitness.getHash()),
+                                accountAgeWitness);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return index.size();
+            }
+        };
+    }
+}
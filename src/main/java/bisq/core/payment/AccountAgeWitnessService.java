@@ -26,7 +26,6 @@ import bisq.core.user.User;
 
 import bisq.network.p2p.BootstrapListener;
 import bisq.network.p2p.P2PService;
-import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 
 import bisq.common.UserThread;
@@ -39,6 +38,8 @@ import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.util.MathUtils;
 import bisq.common.util.Utilities;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import org.bitcoinj.core.Coin;
 
 import javax.inject.Inject;
@@ -46,6 +47,7 @@ import javax.inject.Inject;
 import java.security.PublicKey;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
@@ -72,8 +74,9 @@ public class AccountAgeWitnessService {
     private final KeyRing keyRing;
     private final P2PService p2PService;
     private final User user;
-
-    private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> accountAgeWitnessMap = new HashMap<>();
+    private final AccountAgeWitnessStorageService accountAgeWitnessStorageService;
+    // Key is the ID of our payment account payload
+    private final Map<String, MyWitnessHash> myWitnessHashCache = new HashMap<>();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -88,6 +91,7 @@ public class AccountAgeWitnessService {
         this.keyRing = keyRing;
         this.p2PService = p2PService;
         this.user = user;
+        this.accountAgeWitnessStorageService = accountAgeWitnessStorageService;
 
         // We need to add that early (before onAllServicesInitialized) as it will be used at startup.
         appendOnlyDataStoreService.addService(accountAgeWitnessStorageService);
@@ -99,17 +103,6 @@ public class AccountAgeWitnessService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void onAllServicesInitialized() {
-        p2PService.getP2PDataStorage().addAppendOnlyDataStoreListener(payload -> {
-            if (payload instanceof AccountAgeWitness)
-                addToMap((AccountAgeWitness) payload);
-        });
-
-        // At startup the P2PDataStorage initializes earlier, otherwise we ge the listener called.
-        p2PService.getP2PDataStorage().getAppendOnlyDataStoreMap().values().forEach(e -> {
-            if (e instanceof AccountAgeWitness)
-                addToMap((AccountAgeWitness) e);
-        });
-
         if (p2PService.isBootstrapped()) {
             republishAllFiatAccounts();
         } else {
@@ -135,10 +128,10 @@ public class AccountAgeWitnessService {
                     });
     }
 
-    private void addToMap(AccountAgeWitness accountAgeWitness) {
-        log.debug("addToMap hash=" + Utilities.bytesAsHexString(accountAgeWitness.getHash()));
-        if (!accountAgeWitnessMap.containsKey(accountAgeWitness.getHashAsByteArray()))
-            accountAgeWitnessMap.put(accountAgeWitness.getHashAsByteArray(), accountAgeWitness);
+    // The AccountAgeWitnessStore holds the witnesses only in that index, so we read directly from it. Received
+    // witnesses are added by the P2PDataStorage.
+    private AccountAgeWitnessIndex getAccountAgeWitnessIndex() {
+        return accountAgeWitnessStorageService.getIndex();
     }
 
 
@@ -148,7 +141,7 @@ public class AccountAgeWitnessService {
 
     public void publishMyAccountAgeWitness(PaymentAccountPayload paymentAccountPayload) {
         AccountAgeWitness accountAgeWitness = getMyWitness(paymentAccountPayload);
-        if (!accountAgeWitnessMap.containsKey(accountAgeWitness.getHashAsByteArray()))
+        if (!getAccountAgeWitnessIndex().contains(accountAgeWitness.getHash()))
             p2PService.addPersistableNetworkPayload(accountAgeWitness, false);
     }
 
@@ -156,29 +149,41 @@ public class AccountAgeWitnessService {
         return Utilities.concatenateByteArrays(paymentAccountPayload.getAgeWitnessInputData(), paymentAccountPayload.getSalt());
     }
 
-    private AccountAgeWitness getNewWitness(PaymentAccountPayload paymentAccountPayload, PubKeyRing pubKeyRing) {
+    private byte[] getWitnessHash(PaymentAccountPayload paymentAccountPayload, PubKeyRing pubKeyRing) {
         byte[] accountInputDataWithSalt = getAccountInputDataWithSalt(paymentAccountPayload);
-        byte[] hash = Hash.getSha256Ripemd160hash(Utilities.concatenateByteArrays(accountInputDataWithSalt,
+        return Hash.getSha256Ripemd160hash(Utilities.concatenateByteArrays(accountInputDataWithSalt,
                 pubKeyRing.getSignaturePubKeyBytes()));
-        return new AccountAgeWitness(hash, new Date().getTime());
     }
 
-    private Optional<AccountAgeWitness> findWitness(PaymentAccountPayload paymentAccountPayload, PubKeyRing pubKeyRing) {
+    // Our own witness hashes are requested repeatedly (e.g. trade limit at create offer), so we cache them per payment
+    // account. We keep the input data to detect if the account data has changed.
+    private byte[] getMyWitnessHashFromCache(PaymentAccountPayload paymentAccountPayload) {
         byte[] accountInputDataWithSalt = getAccountInputDataWithSalt(paymentAccountPayload);
-        byte[] hash = Hash.getSha256Ripemd160hash(Utilities.concatenateByteArrays(accountInputDataWithSalt,
-                pubKeyRing.getSignaturePubKeyBytes()));
+        MyWitnessHash cached = myWitnessHashCache.get(paymentAccountPayload.getId());
+        if (cached != null && Arrays.equals(cached.accountInputDataWithSalt, accountInputDataWithSalt))
+            return cached.hash;
 
-        return getWitnessByHash(hash);
+        byte[] hash = Hash.getSha256Ripemd160hash(Utilities.concatenateByteArrays(accountInputDataWithSalt,
+                keyRing.getPubKeyRing().getSignaturePubKeyBytes()));
+        myWitnessHashCache.put(paymentAccountPayload.getId(), new MyWitnessHash(accountInputDataWithSalt, hash));
+        return hash;
     }
 
-    private Optional<AccountAgeWitness> getWitnessByHash(byte[] hash) {
-        P2PDataStorage.ByteArray hashAsByteArray = new P2PDataStorage.ByteArray(hash);
+    private AccountAgeWitness getNewWitness(PaymentAccountPayload paymentAccountPayload, PubKeyRing pubKeyRing) {
+        return new AccountAgeWitness(getWitnessHash(paymentAccountPayload, pubKeyRing), new Date().getTime());
+    }
 
-        final boolean containsKey = accountAgeWitnessMap.containsKey(hashAsByteArray);
-        if (!containsKey)
-            log.debug("hash not found in accountAgeWitnessMap");
+    private Optional<AccountAgeWitness> findWitness(PaymentAccountPayload paymentAccountPayload, PubKeyRing pubKeyRing) {
+        return getWitnessByHash(getWitnessHash(paymentAccountPayload, pubKeyRing));
+    }
 
-        return accountAgeWitnessMap.containsKey(hashAsByteArray) ? Optional.of(accountAgeWitnessMap.get(hashAsByteArray)) : Optional.<AccountAgeWitness>empty();
+    private Optional<AccountAgeWitness> getWitnessByHash(byte[] hash) {
+        long date = getAccountAgeWitnessIndex().getDate(hash);
+        if (date == AccountAgeWitnessIndex.NOT_FOUND) {
+            log.debug("hash not found in accountAgeWitnessIndex");
+            return Optional.empty();
+        }
+        return Optional.of(new AccountAgeWitness(hash, date));
     }
 
     private Optional<AccountAgeWitness> getWitnessByHashAsHex(String hashAsHex) {
@@ -201,12 +206,20 @@ public class AccountAgeWitnessService {
     }
 
     private long getTradeLimit(Coin maxTradeLimit, String currencyCode, Optional<AccountAgeWitness> accountAgeWitnessOptional, Date now) {
+        return getTradeLimit(maxTradeLimit, currencyCode, accountAgeWitnessOptional
+                .map(accountAgeWitness -> getAccountAge(accountAgeWitness, now)));
+    }
+
+    // If we have no witness for a fiat account we use the limit of the LESS_ONE_MONTH category. Before we failed with
+    // a NoSuchElementException in that case.
+    @VisibleForTesting
+    long getTradeLimit(Coin maxTradeLimit, String currencyCode, Optional<Long> accountAgeOptional) {
         if (CurrencyUtil.isFiatCurrency(currencyCode)) {
             double factor;
 
-            final long accountAge = getAccountAge((accountAgeWitnessOptional.get()), now);
-            AccountAge accountAgeCategory = accountAgeWitnessOptional
-                    .map(accountAgeWitness1 -> getAccountAgeCategory(accountAge))
+            final long accountAge = accountAgeOptional.orElse(0L);
+            AccountAge accountAgeCategory = accountAgeOptional
+                    .map(this::getAccountAgeCategory)
                     .orElse(AccountAge.LESS_ONE_MONTH);
 
             // TODO Fade in by date can be removed after feb 2018
@@ -227,12 +240,12 @@ public class AccountAgeWitnessService {
             }
 
             final long limit = MathUtils.roundDoubleToLong((double) maxTradeLimit.value * factor);
-            log.debug("accountAgeCategory={}, accountAge={}, limit={}, factor={}, accountAgeWitnessHash={}",
+            log.debug("accountAgeCategory={}, accountAge={}, limit={}, factor={}, accountAgePresent={}",
                     accountAgeCategory,
                     accountAge / TimeUnit.DAYS.toMillis(1) + " days",
                     Coin.valueOf(limit).toFriendlyString(),
                     factor,
-                    accountAgeWitnessOptional.map(accountAgeWitness -> Utilities.bytesAsHexString(accountAgeWitness.getHash())).orElse("accountAgeWitnessOptional not present"));
+                    accountAgeOptional.isPresent());
             return limit;
         } else {
             return maxTradeLimit.value;
@@ -245,8 +258,9 @@ public class AccountAgeWitnessService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public AccountAgeWitness getMyWitness(PaymentAccountPayload paymentAccountPayload) {
-        final Optional<AccountAgeWitness> accountAgeWitnessOptional = findWitness(paymentAccountPayload, keyRing.getPubKeyRing());
-        return accountAgeWitnessOptional.orElseGet(() -> getNewWitness(paymentAccountPayload, keyRing.getPubKeyRing()));
+        byte[] hash = getMyWitnessHashFromCache(paymentAccountPayload);
+        final Optional<AccountAgeWitness> accountAgeWitnessOptional = getWitnessByHash(hash);
+        return accountAgeWitnessOptional.orElseGet(() -> new AccountAgeWitness(hash, new Date().getTime()));
     }
 
     private byte[] getMyWitnessHash(PaymentAccountPayload paymentAccountPayload) {
@@ -283,6 +297,52 @@ public class AccountAgeWitnessService {
                 .orElse(-1L);
     }
 
+    /**
+     * Account age of the makers of all given offers in one pass, e.g. for the offer book.
+     *
+     * @return Map with offer ID as key and the account age as value. Account age is -1 if witness data is not found.
+     */
+    public Map<String, Long> getMakersAccountAges(Collection<Offer> offers, Date peersCurrentDate) {
+        Map<String, Long> dateByHashAsHex = new HashMap<>();
+        Map<String, Long> result = new HashMap<>();
+        offers.forEach(offer -> {
+            long witnessDate = getMakersWitnessDate(offer, dateByHashAsHex);
+            result.put(offer.getId(), witnessDate != AccountAgeWitnessIndex.NOT_FOUND ?
+                    peersCurrentDate.getTime() - witnessDate :
+                    -1L);
+        });
+        return result;
+    }
+
+    /**
+     * Trade limits of the makers of all given offers in one pass, e.g. for the offer book.
+     *
+     * @return Map with offer ID as key and the makers trade limit as value.
+     */
+    public Map<String, Long> getMakersTradeLimits(Collection<Offer> offers, Date peersCurrentDate) {
+        Map<String, Long> dateByHashAsHex = new HashMap<>();
+        Map<String, Long> result = new HashMap<>();
+        offers.forEach(offer -> {
+            long witnessDate = getMakersWitnessDate(offer, dateByHashAsHex);
+            Optional<Long> accountAgeOptional = witnessDate != AccountAgeWitnessIndex.NOT_FOUND ?
+                    Optional.of(peersCurrentDate.getTime() - witnessDate) :
+                    Optional.empty();
+            String currencyCode = offer.getCurrencyCode();
+            Coin maxTradeLimit = PaymentMethod.getPaymentMethodById(offer.getOfferPayload().getPaymentMethodId())
+                    .getMaxTradeLimitAsCoin(currencyCode);
+            result.put(offer.getId(), getTradeLimit(maxTradeLimit, currencyCode, accountAgeOptional));
+        });
+        return result;
+    }
+
+    // A maker usually has many offers with the same account, so we decode and look up each hash only once per batch
+    private long getMakersWitnessDate(Offer offer, Map<String, Long> dateByHashAsHex) {
+        return offer.getAccountAgeWitnessHashAsHex()
+                .map(hashAsHex -> dateByHashAsHex.computeIfAbsent(hashAsHex,
+                        hex -> getAccountAgeWitnessIndex().getDate(Utilities.decodeFromHex(hex))))
+                .orElse(AccountAgeWitnessIndex.NOT_FOUND);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Verification
@@ -316,8 +376,7 @@ public class AccountAgeWitnessService {
         if (!verifyPeersCurrentDate(peersCurrentDate, errorMessageHandler))
             return false;
 
-        final byte[] peersAccountInputDataWithSalt = Utilities.concatenateByteArrays(peersPaymentAccountPayload.getAgeWitnessInputData(), peersPaymentAccountPayload.getSalt());
-        byte[] hash = Hash.getSha256Ripemd160hash(Utilities.concatenateByteArrays(peersAccountInputDataWithSalt, peersPubKeyRing.getSignaturePubKeyBytes()));
+        byte[] hash = getWitnessHash(peersPaymentAccountPayload, peersPubKeyRing);
 
         // Check if the hash in the witness data matches the hash derived from the data provided by the peer
         final byte[] peersWitnessHash = peersWitness.getHash();
@@ -418,4 +477,19 @@ public class AccountAgeWitnessService {
         }
         return result;
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // MyWitnessHash
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class MyWitnessHash {
+        private final byte[] accountInputDataWithSalt;
+        private final byte[] hash;
+
+        private MyWitnessHash(byte[] accountInputDataWithSalt, byte[] hash) {
+            this.accountInputDataWithSalt = accountInputDataWithSalt;
+            this.hash = hash;
+        }
+    }
 }
@@ -64,6 +64,11 @@ public class AccountAgeWitnessStorageService extends StoreService<AccountAgeWitn
         return store.getMap();
     }
 
+    // The store gets replaced when it is read from disc, so callers must not keep the index
+    public AccountAgeWitnessIndex getIndex() {
+        return store.getIndex();
+    }
+
     @Override
     public boolean canHandle(PersistableNetworkPayload payload) {
         return payload instanceof AccountAgeWitness;
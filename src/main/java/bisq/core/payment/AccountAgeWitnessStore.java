@@ -26,10 +26,9 @@ import io.bisq.generated.protobuffer.PB;
 
 import com.google.protobuf.Message;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -39,13 +38,25 @@ import lombok.extern.slf4j.Slf4j;
  * We store only the payload in the PB file to save disc space. The hash of the payload can be created anyway and
  * is only used as key in the map. So we have a hybrid data structure which is represented as list in the protobuffer
  * definition and provide a hashMap for the domain access.
+ * <p>
+ * The store grows with each payment account ever published. We keep the witnesses only in the packed
+ * AccountAgeWitnessIndex and provide a map view of it for the append only data store, so we don't keep a map entry,
+ * a key and a witness object per witness. The AccountAgeWitnessService reads from the same index.
  */
 @Slf4j
 public class AccountAgeWitnessStore implements PersistableEnvelope {
     @Getter
-    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new ConcurrentHashMap<>();
+    private final AccountAgeWitnessIndex index;
+    @Getter
+    private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map;
 
     AccountAgeWitnessStore() {
+        this(new AccountAgeWitnessIndex());
+    }
+
+    private AccountAgeWitnessStore(AccountAgeWitnessIndex index) {
+        this.index = index;
+        this.map = new AccountAgeWitnessMap(index);
     }
 
 
@@ -53,8 +64,13 @@ public class AccountAgeWitnessStore implements PersistableEnvelope {
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private AccountAgeWitnessStore(List<AccountAgeWitness> list) {
-        list.forEach(item -> map.put(new P2PDataStorage.ByteArray(item.getHash()), item));
+    private AccountAgeWitnessStore(List<PB.AccountAgeWitness> protoList) {
+        this(new AccountAgeWitnessIndex(protoList.size()));
+        // We add the hash and date directly without creating a witness object
+        protoList.forEach(proto -> {
+            if (!index.putIfAbsent(proto.getHash().toByteArray(), proto.getDate()))
+                log.warn("We got an invalid or duplicated AccountAgeWitness in the store. date={}", proto.getDate());
+        });
     }
 
     public Message toProtoMessage() {
@@ -64,20 +80,16 @@ public class AccountAgeWitnessStore implements PersistableEnvelope {
     }
 
     private PB.AccountAgeWitnessStore.Builder getBuilder() {
-        final List<PB.AccountAgeWitness> protoList = map.values().stream()
-                .map(payload -> (AccountAgeWitness) payload)
-                .map(AccountAgeWitness::toProtoAccountAgeWitness)
-                .collect(Collectors.toList());
+        final List<PB.AccountAgeWitness> protoList = new ArrayList<>(index.size());
+        index.forEach(accountAgeWitness -> protoList.add(accountAgeWitness.toProtoAccountAgeWitness()));
         return PB.AccountAgeWitnessStore.newBuilder().addAllItems(protoList);
     }
 
     public static PersistableEnvelope fromProto(PB.AccountAgeWitnessStore proto) {
-        List<AccountAgeWitness> list = proto.getItemsList().stream()
-                .map(AccountAgeWitness::fromProto).collect(Collectors.toList());
-        return new AccountAgeWitnessStore(list);
+        return new AccountAgeWitnessStore(proto.getItemsList());
     }
 
     public boolean containsKey(P2PDataStorage.ByteArray hash) {
-        return map.containsKey(hash);
+        return index.contains(hash.bytes);
     }
 }
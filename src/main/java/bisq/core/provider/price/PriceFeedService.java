@@ -23,6 +23,7 @@ import bisq.core.monetary.Price;
 import bisq.core.provider.PriceNodeHttpClient;
 import bisq.core.provider.ProvidersRepository;
 import bisq.core.trade.statistics.TradeStatistics2;
+import bisq.core.trade.statistics.TradeStatisticsCandleStore;
 import bisq.core.user.Preferences;
 
 import bisq.network.http.HttpClient;
@@ -49,10 +50,13 @@ import javafx.beans.property.StringProperty;
 import java.time.Instant;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -73,7 +77,9 @@ public class PriceFeedService {
 
     private static final long PERIOD_SEC = 60;
 
-    private final Map<String, MarketPrice> cache = new HashMap<>();
+    // Market based offer prices are also read from the threads handling the OfferAvailabilityRequests
+    private final Map<String, MarketPrice> cache = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, List<Consumer<MarketPrice>>> marketPriceListeners = new HashMap<>();
     private PriceProvider priceProvider;
     @Nullable
     private Consumer<Double> priceConsumer;
@@ -149,11 +155,16 @@ public class PriceFeedService {
 
         baseUrlOfRespondingProvider = null;
 
-        requestAllPrices(priceProvider, () -> {
+        requestAllPrices(priceProvider, changedCurrencyCodes -> {
             baseUrlOfRespondingProvider = priceProvider.getBaseUrl();
 
             // At applyPriceToConsumer we also check if price is not exceeding max. age for price data.
             boolean success = applyPriceToConsumer();
+            // We only notify the listeners if any price has changed or if the price is not valid (e.g. outdated)
+            if (!changedCurrencyCodes.isEmpty() || !success)
+                incrementUpdateCounter();
+            changedCurrencyCodes.forEach(this::notifyMarketPriceListeners);
+
             if (success) {
                 final MarketPrice marketPrice = cache.get(currencyCode);
                 if (marketPrice != null)
@@ -239,14 +250,37 @@ public class PriceFeedService {
         return cache.getOrDefault(currencyCode, null);
     }
 
-    private void setBisqMarketPrice(String currencyCode, Price price) {
-        if (!cache.containsKey(currencyCode) || !cache.get(currencyCode).isExternallyProvidedPrice()) {
-            cache.put(currencyCode, new MarketPrice(currencyCode,
+    /**
+     * The listener gets called on the UserThread only if the price of that currency has changed. Listeners which
+     * are interested in all price updates can use the updateCounterProperty.
+     */
+    public void addMarketPriceListener(String currencyCode, Consumer<MarketPrice> listener) {
+        marketPriceListeners.computeIfAbsent(currencyCode, e -> new ArrayList<>()).add(listener);
+    }
+
+    public void removeMarketPriceListener(String currencyCode, Consumer<MarketPrice> listener) {
+        List<Consumer<MarketPrice>> listeners = marketPriceListeners.get(currencyCode);
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty())
+                marketPriceListeners.remove(currencyCode);
+        }
+    }
+
+    private boolean setBisqMarketPrice(String currencyCode, Price price) {
+        MarketPrice cachedMarketPrice = cache.get(currencyCode);
+        if (cachedMarketPrice == null || !cachedMarketPrice.isExternallyProvidedPrice()) {
+            MarketPrice marketPrice = new MarketPrice(currencyCode,
                     MathUtils.scaleDownByPowerOf10(price.getValue(), CurrencyUtil.isCryptoCurrency(currencyCode) ? 8 : 4),
                     0,
-                    false));
-            updateCounter.set(updateCounter.get() + 1);
+                    false);
+            if (!marketPrice.equals(cachedMarketPrice)) {
+                cache.put(currencyCode, marketPrice);
+                notifyMarketPriceListeners(currencyCode);
+                return true;
+            }
         }
+        return false;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -257,8 +291,10 @@ public class PriceFeedService {
         if (this.currencyCode == null || !this.currencyCode.equals(currencyCode)) {
             this.currencyCode = currencyCode;
             currencyCodeProperty.set(currencyCode);
-            if (priceConsumer != null)
+            if (priceConsumer != null) {
                 applyPriceToConsumer();
+                incrementUpdateCounter();
+            }
         }
     }
 
@@ -299,6 +335,17 @@ public class PriceFeedService {
             return new Date();
     }
 
+    public void applyLatestBisqMarketPrice(TradeStatisticsCandleStore candleStore) {
+        boolean changed = false;
+        for (String currencyCode : candleStore.getCurrencyCodes()) {
+            Optional<Long> latestPrice = candleStore.getLatestPrice(currencyCode);
+            if (latestPrice.isPresent())
+                changed |= setBisqMarketPrice(currencyCode, Price.valueOf(currencyCode, latestPrice.get()));
+        }
+        if (changed)
+            incrementUpdateCounter();
+    }
+
     public void applyLatestBisqMarketPrice(Set<TradeStatistics2> tradeStatisticsSet) {
         // takes about 10 ms for 5000 items
         Map<String, List<TradeStatistics2>> mapByCurrencyCode = new HashMap<>();
@@ -314,13 +361,17 @@ public class PriceFeedService {
             list.add(e);
         });
 
-        mapByCurrencyCode.values().stream()
-                .filter(list -> !list.isEmpty())
-                .forEach(list -> {
-                    list.sort((o1, o2) -> o1.getTradeDate().compareTo(o2.getTradeDate()));
-                    TradeStatistics2 tradeStatistics = list.get(list.size() - 1);
-                    setBisqMarketPrice(tradeStatistics.getCurrencyCode(), tradeStatistics.getTradePrice());
-                });
+        boolean changed = false;
+        for (List<TradeStatistics2> list : mapByCurrencyCode.values()) {
+            if (!list.isEmpty()) {
+                list.sort((o1, o2) -> o1.getTradeDate().compareTo(o2.getTradeDate()));
+                TradeStatistics2 tradeStatistics = list.get(list.size() - 1);
+                changed |= setBisqMarketPrice(tradeStatistics.getCurrencyCode(), tradeStatistics.getTradePrice());
+            }
+        }
+        // As at the other update paths we increment the counter once per update
+        if (changed)
+            incrementUpdateCounter();
     }
 
 
@@ -376,12 +427,38 @@ public class PriceFeedService {
                 faultHandler.handleFault(errorMessage, new PriceRequestException(errorMessage));
         }
 
+        return result;
+    }
+
+    private void incrementUpdateCounter() {
         updateCounter.set(updateCounter.get() + 1);
+    }
 
-        return result;
+    private void notifyMarketPriceListeners(String currencyCode) {
+        List<Consumer<MarketPrice>> listeners = marketPriceListeners.get(currencyCode);
+        if (listeners != null) {
+            MarketPrice marketPrice = cache.get(currencyCode);
+            // Copy as a listener might remove itself
+            new ArrayList<>(listeners).forEach(listener -> listener.accept(marketPrice));
+        }
+    }
+
+    // Returns the currency codes of the prices which have changed. A changed timestamp alone does not count as change,
+    // but a price which became recent again (or outdated) does, as the listeners check if a recent price is available.
+    private Set<String> updateCache(Map<String, MarketPrice> priceMap) {
+        Set<String> changedCurrencyCodes = new HashSet<>();
+        priceMap.forEach((currencyCode, marketPrice) -> {
+            MarketPrice cachedMarketPrice = cache.put(currencyCode, marketPrice);
+            if (cachedMarketPrice == null ||
+                    cachedMarketPrice.getPrice() != marketPrice.getPrice() ||
+                    cachedMarketPrice.isExternallyProvidedPrice() != marketPrice.isExternallyProvidedPrice() ||
+                    cachedMarketPrice.isRecentPriceAvailable() != marketPrice.isRecentPriceAvailable())
+                changedCurrencyCodes.add(currencyCode);
+        });
+        return changedCurrencyCodes;
     }
 
-    private void requestAllPrices(PriceProvider provider, Runnable resultHandler, FaultHandler faultHandler) {
+    private void requestAllPrices(PriceProvider provider, Consumer<Set<String>> resultHandler, FaultHandler faultHandler) {
         Log.traceCall();
         PriceRequest priceRequest = new PriceRequest();
         SettableFuture<Tuple2<Map<String, Long>, Map<String, MarketPrice>>> future = priceRequest.requestAllPrices(provider);
@@ -394,9 +471,7 @@ public class PriceFeedService {
                     epochInSecondAtLastRequest = timeStampMap.get("btcAverageTs");
                     final Map<String, MarketPrice> priceMap = result.second;
 
-                    cache.putAll(priceMap);
-
-                    resultHandler.run();
+                    resultHandler.accept(updateCache(priceMap));
                 });
             }
 
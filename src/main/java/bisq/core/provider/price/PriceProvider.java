@@ -25,18 +25,20 @@ import bisq.common.app.Version;
 import bisq.common.util.MathUtils;
 import bisq.common.util.Tuple2;
 
-import com.google.gson.Gson;
-import com.google.gson.internal.LinkedTreeMap;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
 public class PriceProvider extends HttpClientProvider {
 
@@ -46,34 +48,82 @@ public class PriceProvider extends HttpClientProvider {
     }
 
     public Tuple2<Map<String, Long>, Map<String, MarketPrice>> getAll() throws IOException {
-        Map<String, MarketPrice> marketPriceMap = new HashMap<>();
         String json = httpClient.requestWithGET("getAllMarketPrices", "User-Agent", "bisq/"
                 + Version.VERSION + ", uid:" + httpClient.getUid());
+        return parseAll(new StringReader(json));
+    }
 
-        LinkedTreeMap<String, Object> map = new Gson().<LinkedTreeMap<String, Object>>fromJson(json, LinkedTreeMap.class);
+    // We stream the json so we don't create a Gson tree with boxed values for all the currencies
+    static Tuple2<Map<String, Long>, Map<String, MarketPrice>> parseAll(Reader json) throws IOException {
         Map<String, Long> tsMap = new HashMap<>();
-        tsMap.put("btcAverageTs", ((Double) map.get("btcAverageTs")).longValue());
-        tsMap.put("poloniexTs", ((Double) map.get("poloniexTs")).longValue());
-        tsMap.put("coinmarketcapTs", ((Double) map.get("coinmarketcapTs")).longValue());
-
-        //noinspection unchecked
-        List<LinkedTreeMap<String, Object>> list = (ArrayList<LinkedTreeMap<String, Object>>) map.get("data");
-        list.forEach(treeMap -> {
-            try {
-                final String currencyCode = (String) treeMap.get("currencyCode");
-                final double price = (double) treeMap.get("price");
-                // json uses double for our timestampSec long value...
-                final long timestampSec = MathUtils.doubleToLong((double) treeMap.get("timestampSec"));
-                marketPriceMap.put(currencyCode, new MarketPrice(currencyCode, price, timestampSec, true));
-            } catch (Throwable t) {
-                log.error(t.toString());
-                t.printStackTrace();
+        Map<String, MarketPrice> marketPriceMap = new HashMap<>();
+        try (JsonReader reader = new JsonReader(json)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "btcAverageTs":
+                    case "poloniexTs":
+                    case "coinmarketcapTs":
+                        tsMap.put(name, (long) reader.nextDouble());
+                        break;
+                    case "data":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            MarketPrice marketPrice = parseMarketPrice(reader);
+                            if (marketPrice != null)
+                                marketPriceMap.put(marketPrice.getCurrencyCode(), marketPrice);
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
             }
-
-        });
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Invalid market price data. " + e.toString());
+        }
         return new Tuple2<>(tsMap, marketPriceMap);
     }
 
+    @Nullable
+    private static MarketPrice parseMarketPrice(JsonReader reader) throws IOException {
+        String currencyCode = null;
+        double price = Double.NaN;
+        double timestampSec = Double.NaN;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+
+            switch (name) {
+                case "currencyCode":
+                    currencyCode = reader.nextString();
+                    break;
+                case "price":
+                    price = reader.nextDouble();
+                    break;
+                case "timestampSec":
+                    // json uses double for our timestampSec long value...
+                    timestampSec = reader.nextDouble();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (currencyCode == null || Double.isNaN(price) || Double.isNaN(timestampSec)) {
+            log.error("Invalid market price item. currencyCode={}, price={}, timestampSec={}", currencyCode, price, timestampSec);
+            return null;
+        }
+        return new MarketPrice(currencyCode, price, MathUtils.doubleToLong(timestampSec), true);
+    }
+
     public String getBaseUrl() {
         return httpClient.getBaseUrl();
     }
@@ -74,6 +74,7 @@ import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -342,6 +343,10 @@ public abstract class Trade implements Tradable, Model {
     transient private Storage<? extends TradableList> storage;
     @Getter // to set in constructor so not final but set at init
     transient private BtcWalletService btcWalletService;
+    // Set while the trade is in the pending trades. We persist the trade at the journal instead of the whole list.
+    @Setter(AccessLevel.PACKAGE)
+    @Nullable
+    transient private TradeJournal journal;
 
     transient final private ObjectProperty<State> stateProperty = new SimpleObjectProperty<>(state);
     transient final private ObjectProperty<Phase> statePhaseProperty = new SimpleObjectProperty<>(state.phase);
@@ -577,7 +582,9 @@ public abstract class Trade implements Tradable, Model {
     // Get called from taskRunner after each completed task
     @Override
     public void persist() {
-        if (storage != null)
+        if (journal != null)
+            journal.update(this);
+        else if (storage != null)
             storage.queueUpForSave();
     }
 
@@ -0,0 +1,479 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+import bisq.common.proto.persistable.PersistableEnvelope;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+import bisq.common.util.Utilities;
+
+import io.bisq.generated.protobuffer.PB;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Append only journal for the pending trades. A state change of a trade appends only that trade instead of
+ * rewriting the whole TradableList with all the txs, contracts and process models of the other trades.
+ * <p>
+ * The journal contains records with the full serialized trade or a removal of a trade. When reading it the last
+ * record for a trade wins. If the journal gets larger than twice the size of the last compaction we rewrite it with
+ * one record per trade and also queue up the TradableList for saving, so the PendingTrades file stays a recent
+ * fallback. Writing happens at a single thread executor and a new file gets only visible after an atomic move.
+ * <p>
+ * Apart from adding and removing trades the PendingTrades file is only written at compaction, so it is mostly older
+ * than the journal. At reading we therefore use as much of the journal as we can: A truncated last record from a
+ * crash is ignored, and if a record is corrupted we use the records before it. If the last record of a trade cannot
+ * be parsed we use its previous record or the trade from the PendingTrades file. A trade from the PendingTrades file
+ * without any record in the journal is kept as well, e.g. if it was written by an older version or we crashed before
+ * the journal got flushed. To prevent that a removed trade comes back from an outdated PendingTrades file we keep its
+ * removal record in the journal until we read a PendingTrades file which does not contain the trade anymore.
+ * A copy of a damaged journal is kept in the backup directory. If the journal cannot be read at all we move it to the
+ * backup directory and disable the journal for this session, so the trades get persisted with the PendingTrades file
+ * as before and the unreadable journal does not get overwritten with the older state.
+ * <p>
+ * Not thread safe, it is expected to be used from the UserThread.
+ */
+@Slf4j
+class TradeJournal {
+    public static final String FILE_NAME = "PendingTradesJournal";
+    private static final int VERSION = 1;
+    private static final byte UPDATE = 1;
+    private static final byte REMOVE = 2;
+    // Like the delay of the TradableList storage, so the state changes of a protocol task get written together
+    private static final long FLUSH_DELAY_MS = 50;
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+    private static final String BACKUP_DIR_NAME = "backup_of_corrupted_data";
+
+    private final File storageFile;
+    private final Function<Trade, byte[]> serializer;
+    private final Function<byte[], Trade> parser;
+    private final Runnable snapshotHandler;
+    private final ListeningExecutorService executor = Utilities.getSingleThreadExecutor("TradeJournal");
+    private final Map<String, Trade> tradesById = new LinkedHashMap<>();
+    private final Set<String> pendingUpdates = new LinkedHashSet<>();
+    private final Set<String> pendingRemovals = new LinkedHashSet<>();
+    // Removed trades which might still be in the PendingTrades file. Their removal records are kept at compaction.
+    private final Set<String> removedTradeIds = new LinkedHashSet<>();
+    private boolean enabled = true;
+    private long journalSize;
+    private long compactedSize;
+    @Nullable
+    private Timer flushTimer;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    TradeJournal(File storageDir, PersistenceProtoResolver persistenceProtoResolver, Runnable snapshotHandler) {
+        this(storageDir, TradeJournal::serialize, bytes -> parse(bytes, persistenceProtoResolver), snapshotHandler);
+    }
+
+    @VisibleForTesting
+    TradeJournal(File storageDir, Function<Trade, byte[]> serializer, Function<byte[], Trade> parser,
+                 Runnable snapshotHandler) {
+        this.storageFile = new File(storageDir, FILE_NAME);
+        this.serializer = serializer;
+        this.parser = parser;
+        this.snapshotHandler = snapshotHandler;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads the trades from the journal. Must be called before the journal is used.
+     *
+     * @param fallbackTrades The trades from the PendingTrades file
+     * @return The trades from the journal and the fallbackTrades which are not in the journal, or the fallbackTrades
+     * if there is no journal or it cannot be read at all. In the latter case the journal is disabled.
+     */
+    List<Trade> load(List<Trade> fallbackTrades) {
+        if (!storageFile.exists())
+            return fallbackTrades;
+
+        long ts = System.currentTimeMillis();
+        // We keep the records of a trade since its last removal, newest last. We only parse the ones we need.
+        Map<String, List<byte[]>> recordsById = new LinkedHashMap<>();
+        // Trades whose last record is a removal
+        Set<String> removedIds = new HashSet<>();
+        int numRecords = 0;
+        boolean damaged = false;
+        long fileLength = storageFile.length();
+        try (CountingInputStream countingIn = new CountingInputStream(new BufferedInputStream(new FileInputStream(storageFile)));
+             DataInputStream in = new DataInputStream(countingIn)) {
+            int version;
+            try {
+                version = in.readInt();
+            } catch (IOException e) {
+                return disable(fallbackTrades, "Could not read the header of the trade journal. " + e.toString());
+            }
+            if (version != VERSION)
+                return disable(fallbackTrades, "Unsupported version " + version + " of the trade journal.");
+
+            try {
+                while (true) {
+                    int type = in.read();
+                    if (type == -1)
+                        break;
+
+                    String tradeId = in.readUTF();
+                    if (type == UPDATE) {
+                        int length = in.readInt();
+                        // We cannot tell a corrupted length from a cut off record, so we keep a copy in both cases
+                        if (length < 0 || length > fileLength - countingIn.getCount())
+                            throw new IOException("Invalid record length " + length + " for trade " + tradeId);
+
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        List<byte[]> records = recordsById.remove(tradeId);
+                        if (records == null)
+                            records = new ArrayList<>();
+                        records.add(bytes);
+                        recordsById.put(tradeId, records);
+                        removedIds.remove(tradeId);
+                    } else if (type == REMOVE) {
+                        recordsById.remove(tradeId);
+                        removedIds.add(tradeId);
+                    } else {
+                        throw new IOException("Unknown record type " + type);
+                    }
+                    numRecords++;
+                }
+            } catch (EOFException e) {
+                // The last record was not completely written. It will be dropped at the compaction after reading.
+                log.warn("Trade journal ends with an incomplete record. We ignore it.");
+            } catch (IOException e) {
+                // We cannot find the start of the next record, so we use the records before the corrupted one
+                log.error("Trade journal is corrupted after {} records. We use the records before. {}", numRecords, e.toString());
+                damaged = true;
+            }
+        } catch (IOException e) {
+            return disable(fallbackTrades, "Could not read the trade journal. " + e.toString());
+        }
+
+        Map<String, Trade> fallbackTradesById = new HashMap<>();
+        fallbackTrades.forEach(trade -> fallbackTradesById.put(trade.getId(), trade));
+        List<Trade> trades = new ArrayList<>();
+        for (Map.Entry<String, List<byte[]>> entry : recordsById.entrySet()) {
+            String tradeId = entry.getKey();
+            List<byte[]> records = entry.getValue();
+            Trade trade = null;
+            for (int i = records.size() - 1; i >= 0 && trade == null; i--) {
+                try {
+                    trade = parser.apply(records.get(i));
+                } catch (Throwable t) {
+                    log.error("Could not parse record {} of trade {} from the trade journal. {}", i, tradeId, t.toString());
+                    damaged = true;
+                }
+            }
+            if (trade == null) {
+                trade = fallbackTradesById.get(tradeId);
+                if (trade != null)
+                    log.warn("We use trade {} from the PendingTrades file.", tradeId);
+                else
+                    log.error("Trade {} could not be read from the trade journal and is not in the PendingTrades file.", tradeId);
+            }
+            if (trade != null)
+                trades.add(trade);
+        }
+
+        for (Trade trade : fallbackTrades) {
+            String tradeId = trade.getId();
+            if (removedIds.contains(tradeId)) {
+                // The PendingTrades file was not written since the removal, so we still need the removal record
+                removedTradeIds.add(tradeId);
+            } else if (!recordsById.containsKey(tradeId)) {
+                log.warn("Trade {} is in the PendingTrades file but not in the trade journal. We keep it.", tradeId);
+                trades.add(trade);
+            }
+        }
+
+        // The journal gets compacted after reading, so we keep a copy of the damaged one
+        if (damaged)
+            backup(false);
+
+        log.info("Reading {} trades from {} journal records took {} ms", trades.size(), numRecords, System.currentTimeMillis() - ts);
+        return trades;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void update(Trade trade) {
+        if (!enabled)
+            return;
+
+        tradesById.put(trade.getId(), trade);
+        pendingRemovals.remove(trade.getId());
+        removedTradeIds.remove(trade.getId());
+        pendingUpdates.add(trade.getId());
+        scheduleFlush();
+    }
+
+    void remove(Trade trade) {
+        if (!enabled || tradesById.get(trade.getId()) != trade)
+            return;
+
+        tradesById.remove(trade.getId());
+        pendingUpdates.remove(trade.getId());
+        pendingRemovals.add(trade.getId());
+        removedTradeIds.add(trade.getId());
+        scheduleFlush();
+    }
+
+    /**
+     * Rewrites the journal with one record per trade.
+     */
+    void compact() {
+        if (!enabled)
+            return;
+
+        stopFlushTimer();
+        // We keep the removal records as the snapshot of the PendingTrades file might not get written before a crash.
+        // They are also needed if we fall back to append the records to the old journal.
+        List<Record> records = new ArrayList<>();
+        removedTradeIds.forEach(tradeId -> records.add(Record.remove(tradeId)));
+        tradesById.values().forEach(trade -> records.add(Record.update(trade, serializer)));
+        pendingUpdates.clear();
+        pendingRemovals.clear();
+
+        compactedSize = getSize(records);
+        journalSize = compactedSize;
+        executor.submit(() -> {
+            writeCompacted(records);
+            return null;
+        });
+        snapshotHandler.run();
+    }
+
+    void shutDown() {
+        flush();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS))
+                log.warn("Trade journal was not written completely at shutdown.");
+        } catch (InterruptedException ignore) {
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private List<Trade> disable(List<Trade> fallbackTrades, String errorMessage) {
+        log.error("{} We use the PendingTrades file and disable the trade journal.", errorMessage);
+        enabled = false;
+        backup(true);
+        return fallbackTrades;
+    }
+
+    // Like the Storage we keep corrupted data in a backup directory
+    private void backup(boolean move) {
+        File backupDir = new File(storageFile.getParentFile(), BACKUP_DIR_NAME);
+        File backupFile = new File(backupDir, FILE_NAME + "_at_" + System.currentTimeMillis());
+        try {
+            if (!backupDir.exists() && !backupDir.mkdirs())
+                throw new IOException("Could not create directory " + backupDir);
+
+            if (move)
+                Files.move(storageFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            else
+                Files.copy(storageFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            log.info("Trade journal was backed up to {}", backupFile);
+        } catch (IOException e) {
+            log.error("Could not back up trade journal {}. {}", storageFile, e.toString());
+        }
+    }
+
+    // We wrap the trade in a TradableList so we can use the same proto resolver as the PendingTrades file
+    private static byte[] serialize(Trade trade) {
+        return PB.PersistableEnvelope.newBuilder()
+                .setTradableList(PB.TradableList.newBuilder()
+                        .addTradable((PB.Tradable) trade.toProtoMessage()))
+                .build()
+                .toByteArray();
+    }
+
+    private static Trade parse(byte[] bytes, PersistenceProtoResolver persistenceProtoResolver) {
+        try {
+            PersistableEnvelope envelope = persistenceProtoResolver.fromProto(PB.PersistableEnvelope.parseFrom(bytes));
+            //noinspection unchecked
+            List<Trade> trades = ((TradableList<Trade>) envelope).getList();
+            if (trades.size() != 1)
+                throw new IllegalStateException("Expected one trade in record but got " + trades.size());
+            return trades.get(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushTimer == null)
+            flushTimer = UserThread.runAfter(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopFlushTimer() {
+        if (flushTimer != null) {
+            flushTimer.stop();
+            flushTimer = null;
+        }
+    }
+
+    private void flush() {
+        stopFlushTimer();
+        if (pendingUpdates.isEmpty() && pendingRemovals.isEmpty())
+            return;
+
+        // We serialize at the UserThread as the trades get changed there
+        List<Record> records = new ArrayList<>();
+        pendingRemovals.forEach(tradeId -> records.add(Record.remove(tradeId)));
+        pendingUpdates.forEach(tradeId -> records.add(Record.update(tradesById.get(tradeId), serializer)));
+        pendingUpdates.clear();
+        pendingRemovals.clear();
+
+        journalSize += getSize(records);
+        if (journalSize > Math.max(MIN_COMPACTION_SIZE, 2 * compactedSize)) {
+            compact();
+        } else {
+            executor.submit(() -> {
+                append(records);
+                return null;
+            });
+        }
+    }
+
+    private static long getSize(List<Record> records) {
+        long size = 0;
+        for (Record record : records)
+            size += record.getSize();
+        return size;
+    }
+
+    private void append(List<Record> records) {
+        try {
+            appendRecords(records);
+        } catch (IOException e) {
+            // The journal might end with an incomplete record now, so we rewrite it
+            log.error("Could not append to trade journal {}. We compact it. {}", storageFile, e.toString());
+            UserThread.execute(this::compact);
+        }
+    }
+
+    private void appendRecords(List<Record> records) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(storageFile, true)))) {
+            for (Record record : records)
+                record.writeTo(out);
+        }
+    }
+
+    private void writeCompacted(List<Record> records) {
+        File tempFile = new File(storageFile.getParentFile(), FILE_NAME + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(VERSION);
+                for (Record record : records)
+                    record.writeTo(out);
+            }
+            Files.move(tempFile.toPath(), storageFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // As the last record for a trade wins we can append the records to the old journal instead
+            log.error("Could not write trade journal to {}. We append the records. {}", storageFile, e.toString());
+            try {
+                if (storageFile.exists())
+                    appendRecords(records);
+            } catch (IOException e2) {
+                log.error("Could not append to trade journal {}. {}", storageFile, e2.toString());
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Record
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Record {
+        private final byte type;
+        private final String tradeId;
+        @Nullable
+        private final byte[] bytes;
+
+        static Record update(Trade trade, Function<Trade, byte[]> serializer) {
+            return new Record(UPDATE, trade.getId(), serializer.apply(trade));
+        }
+
+        static Record remove(String tradeId) {
+            return new Record(REMOVE, tradeId, null);
+        }
+
+        private Record(byte type, String tradeId, @Nullable byte[] bytes) {
+            this.type = type;
+            this.tradeId = tradeId;
+            this.bytes = bytes;
+        }
+
+        long getSize() {
+            return 3 + tradeId.length() + (bytes != null ? 4 + bytes.length : 0);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeByte(type);
+            out.writeUTF(tradeId);
+            if (bytes != null) {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -35,6 +35,7 @@ import bisq.core.trade.failed.FailedTradesManager;
 import bisq.core.trade.handlers.TradeResultHandler;
 import bisq.core.trade.messages.PayDepositRequest;
 import bisq.core.trade.messages.TradeMessage;
+import bisq.core.trade.protocol.TradeTaskMetrics;
 import bisq.core.trade.statistics.ReferralIdService;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.user.User;
@@ -81,7 +82,6 @@ import org.spongycastle.crypto.params.KeyParameter;
 import java.io.File;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -117,8 +117,12 @@ public class TradeManager implements PersistedDataHost {
     private final ReferralIdService referralIdService;
     private final AccountAgeWitnessService accountAgeWitnessService;
     private final Clock clock;
+    @Getter
+    private final TradeTaskMetrics tradeTaskMetrics;
 
     private final Storage<TradableList<Trade>> tradableListStorage;
+    private final TradeJournal tradeJournal;
+    private final TradePeriodScheduler tradePeriodScheduler = new TradePeriodScheduler();
     private TradableList<Trade> tradableList;
     private final BooleanProperty pendingTradesInitialized = new SimpleBooleanProperty();
     private List<Trade> tradesForStatistics;
@@ -150,6 +154,7 @@ public class TradeManager implements PersistedDataHost {
                         PersistenceProtoResolver persistenceProtoResolver,
                         AccountAgeWitnessService accountAgeWitnessService,
                         Clock clock,
+                        TradeTaskMetrics tradeTaskMetrics,
                         @Named(Storage.STORAGE_DIR) File storageDir) {
         this.user = user;
         this.keyRing = keyRing;
@@ -166,8 +171,10 @@ public class TradeManager implements PersistedDataHost {
         this.referralIdService = referralIdService;
         this.accountAgeWitnessService = accountAgeWitnessService;
         this.clock = clock;
+        this.tradeTaskMetrics = tradeTaskMetrics;
 
         tradableListStorage = new Storage<>(storageDir, persistenceProtoResolver);
+        tradeJournal = new TradeJournal(storageDir, persistenceProtoResolver, () -> tradableListStorage.queueUpForSave());
 
         p2PService.addDecryptedDirectMessageListener((decryptedMessageWithPubKey, peerNodeAddress) -> {
             NetworkEnvelope networkEnvelope = decryptedMessageWithPubKey.getNetworkEnvelope();
@@ -184,7 +191,7 @@ public class TradeManager implements PersistedDataHost {
             if (networkEnvelope instanceof TradeMessage) {
                 TradeMessage tradeMessage = (TradeMessage) networkEnvelope;
                 String tradeId = tradeMessage.getTradeId();
-                Optional<Trade> tradeOptional = tradableList.stream().filter(e -> e.getId().equals(tradeId)).findAny();
+                Optional<Trade> tradeOptional = tradableList.getTradableById(tradeId);
                 // The mailbox message will be removed inside the tasks after they are processed successfully
                 tradeOptional.ifPresent(trade -> trade.addDecryptedMessageWithPubKey(decryptedMessageWithPubKey));
             } else if (networkEnvelope instanceof AckMessage) {
@@ -206,11 +213,39 @@ public class TradeManager implements PersistedDataHost {
     @Override
     public void readPersisted() {
         tradableList = new TradableList<>(tradableListStorage, "PendingTrades");
+        // The journal contains the more recent state of the trades. If it cannot be read we use the PendingTrades
+        // file and the journal stays disabled, so the trades get persisted as before.
+        List<Trade> trades = tradeJournal.load(new ArrayList<>(tradableList.getList()));
+        tradableList.getList().setAll(trades);
+        boolean useJournal = tradeJournal.isEnabled();
         tradableList.forEach(trade -> {
             trade.setTransientFields(tradableListStorage, btcWalletService);
             Offer offer = trade.getOffer();
             if (offer != null)
                 offer.setPriceFeedService(priceFeedService);
+
+            if (useJournal) {
+                trade.setJournal(tradeJournal);
+                tradeJournal.update(trade);
+            }
+        });
+        if (!useJournal)
+            return;
+
+        // We start with a compacted journal, which also drops an incomplete record from a crash
+        tradeJournal.compact();
+
+        tradableList.getList().addListener((ListChangeListener<Trade>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(trade -> {
+                    trade.setJournal(null);
+                    tradeJournal.remove(trade);
+                });
+                change.getAddedSubList().forEach(trade -> {
+                    trade.setJournal(tradeJournal);
+                    tradeJournal.update(trade);
+                });
+            }
         });
     }
 
@@ -221,6 +256,7 @@ public class TradeManager implements PersistedDataHost {
 
     public void onAllServicesInitialized() {
         Log.traceCall();
+        tradeTaskMetrics.onAllServicesInitialized();
         if (p2PService.isBootstrapped())
             initPendingTrades();
         else
@@ -238,6 +274,9 @@ public class TradeManager implements PersistedDataHost {
     }
 
     public void shutDown() {
+        tradeTaskMetrics.shutDown();
+        tradeJournal.shutDown();
+        tradePeriodScheduler.shutDown();
     }
 
     private void initPendingTrades() {
@@ -312,9 +351,8 @@ public class TradeManager implements PersistedDataHost {
         }
 
         Optional<OpenOffer> openOfferOptional = openOfferManager.getOpenOfferById(payDepositRequest.getTradeId());
-        if (openOfferOptional.isPresent() && openOfferOptional.get().getState() == OpenOffer.State.AVAILABLE) {
+        if (openOfferOptional.isPresent() && openOfferManager.reserveOpenOffer(openOfferOptional.get())) {
             Offer offer = openOfferOptional.get().getOffer();
-            openOfferManager.reserveOpenOffer(openOfferOptional.get());
             Trade trade;
             if (offer.isBuyOffer())
                 trade = new BuyerAsMakerTrade(offer,
@@ -570,7 +608,7 @@ public class TradeManager implements PersistedDataHost {
     }
 
     public Optional<Trade> getTradeById(String tradeId) {
-        return tradableList.stream().filter(e -> e.getId().equals(tradeId)).findFirst();
+        return tradableList.getTradableById(tradeId);
     }
 
     public Stream<AddressEntry> getAddressEntriesForAvailableBalanceStream() {
@@ -607,7 +645,13 @@ public class TradeManager implements PersistedDataHost {
     }
 
     public void applyTradePeriodState() {
-        updateTradePeriodState();
+        tradableList.forEach(tradePeriodScheduler::add);
+        tradableList.getList().addListener((ListChangeListener<Trade>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(tradePeriodScheduler::remove);
+                change.getAddedSubList().forEach(tradePeriodScheduler::add);
+            }
+        });
         clock.addListener(new Clock.Listener() {
             @Override
             public void onSecondTick() {
@@ -615,27 +659,11 @@ public class TradeManager implements PersistedDataHost {
 
             @Override
             public void onMinuteTick() {
-                updateTradePeriodState();
             }
 
             @Override
             public void onMissedSecondTick(long missed) {
-            }
-        });
-    }
-
-    private void updateTradePeriodState() {
-        tradableList.getList().forEach(trade -> {
-            if (!trade.isPayoutPublished()) {
-                Date maxTradePeriodDate = trade.getMaxTradePeriodDate();
-                Date halfTradePeriodDate = trade.getHalfTradePeriodDate();
-                if (maxTradePeriodDate != null && halfTradePeriodDate != null) {
-                    Date now = new Date();
-                    if (now.after(maxTradePeriodDate))
-                        trade.setTradePeriodState(Trade.TradePeriodState.TRADE_PERIOD_OVER);
-                    else if (now.after(halfTradePeriodDate))
-                        trade.setTradePeriodState(Trade.TradePeriodState.SECOND_HALF);
-                }
+                tradePeriodScheduler.onAwake();
             }
         });
     }
@@ -22,8 +22,10 @@ import bisq.core.payment.AccountAgeWitnessService;
 import bisq.core.payment.AccountAgeWitnessStorageService;
 import bisq.core.trade.closed.ClosedTradableManager;
 import bisq.core.trade.failed.FailedTradesManager;
+import bisq.core.trade.protocol.TradeTaskMetrics;
 import bisq.core.trade.statistics.ReferralIdService;
 import bisq.core.trade.statistics.TradeStatistics2StorageService;
+import bisq.core.trade.statistics.TradeStatisticsCandleStore;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 
 import bisq.common.app.AppModule;
@@ -43,13 +45,16 @@ public class TradeModule extends AppModule {
     @Override
     protected void configure() {
         bind(TradeManager.class).in(Singleton.class);
+        bind(TradeTaskMetrics.class).in(Singleton.class);
         bind(TradeStatisticsManager.class).in(Singleton.class);
         bind(TradeStatistics2StorageService.class).in(Singleton.class);
+        bind(TradeStatisticsCandleStore.class).in(Singleton.class);
         bind(ClosedTradableManager.class).in(Singleton.class);
         bind(FailedTradesManager.class).in(Singleton.class);
         bind(AccountAgeWitnessService.class).in(Singleton.class);
         bind(ReferralIdService.class).in(Singleton.class);
         bind(AccountAgeWitnessStorageService.class).in(Singleton.class);
         bindConstant().annotatedWith(named(AppOptionKeys.DUMP_STATISTICS)).to(environment.getRequiredProperty(AppOptionKeys.DUMP_STATISTICS));
+        bindConstant().annotatedWith(named(AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL)).to(environment.getRequiredProperty(AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL));
     }
 }
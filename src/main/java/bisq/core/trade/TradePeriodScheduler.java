@@ -0,0 +1,186 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import javafx.beans.value.ChangeListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Updates the TradePeriodState of the pending trades when they reach the half or the end of their trade period.
+ * The trades are kept in a priority queue ordered by the date of their next transition and we only run a timer for
+ * the earliest one, so we don't need to check all trades periodically.
+ * <p>
+ * The trade period starts when the deposit tx got confirmed. Until then the dates move with the current time, so we
+ * calculate them again when they are reached or when the state of the trade changes.
+ */
+class TradePeriodScheduler {
+    private static final class Entry {
+        private final Trade trade;
+        private final long date;
+
+        Entry(Trade trade, long date) {
+            this.trade = trade;
+            this.date = date;
+        }
+    }
+
+    private final LongSupplier clock;
+    // Creates a timer for a runnable and a delay in ms
+    private final BiFunction<Runnable, Long, Timer> timerFactory;
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e.date));
+    // The current entry of each trade. Entries in the queue which are not in that map anymore are outdated.
+    private final Map<String, Entry> entryByTradeId = new HashMap<>();
+    private final Map<String, ChangeListener<Trade.State>> stateListenerByTradeId = new HashMap<>();
+    @Nullable
+    private Timer timer;
+    private long timerDate = Long.MAX_VALUE;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    TradePeriodScheduler() {
+        this(System::currentTimeMillis, (runnable, delay) -> UserThread.runAfter(runnable, delay, TimeUnit.MILLISECONDS));
+    }
+
+    @VisibleForTesting
+    TradePeriodScheduler(LongSupplier clock, BiFunction<Runnable, Long, Timer> timerFactory) {
+        this.clock = clock;
+        this.timerFactory = timerFactory;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void add(Trade trade) {
+        if (stateListenerByTradeId.containsKey(trade.getId()))
+            return;
+
+        ChangeListener<Trade.State> stateListener = (observable, oldValue, newValue) -> update(trade);
+        trade.stateProperty().addListener(stateListener);
+        stateListenerByTradeId.put(trade.getId(), stateListener);
+        update(trade);
+    }
+
+    void remove(Trade trade) {
+        ChangeListener<Trade.State> stateListener = stateListenerByTradeId.remove(trade.getId());
+        if (stateListener != null)
+            trade.stateProperty().removeListener(stateListener);
+        entryByTradeId.remove(trade.getId());
+
+        // Outdated entries would keep the trade in memory until their date is reached
+        queue.removeIf(entry -> entry.trade == trade);
+        if (queue.isEmpty())
+            stopTimer();
+    }
+
+    // Timers might be delayed if the computer was in standby, so we check when we got woken up.
+    void onAwake() {
+        processDueEntries();
+    }
+
+    void shutDown() {
+        stopTimer();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void update(Trade trade) {
+        entryByTradeId.remove(trade.getId());
+        if (trade.isPayoutPublished())
+            return;
+
+        long maxTradePeriodDate = trade.getMaxTradePeriodDate().getTime();
+        long halfTradePeriodDate = trade.getHalfTradePeriodDate().getTime();
+        long now = clock.getAsLong();
+        if (now > maxTradePeriodDate) {
+            trade.setTradePeriodState(Trade.TradePeriodState.TRADE_PERIOD_OVER);
+        } else if (now > halfTradePeriodDate) {
+            trade.setTradePeriodState(Trade.TradePeriodState.SECOND_HALF);
+            schedule(trade, maxTradePeriodDate);
+        } else {
+            schedule(trade, halfTradePeriodDate);
+        }
+    }
+
+    private void schedule(Trade trade, long date) {
+        Entry entry = new Entry(trade, date);
+        entryByTradeId.put(trade.getId(), entry);
+        queue.add(entry);
+        if (date < timerDate)
+            startTimer(date);
+    }
+
+    private void processDueEntries() {
+        stopTimer();
+        long now = clock.getAsLong();
+        while (!queue.isEmpty() && queue.peek().date < now) {
+            Entry entry = queue.poll();
+            String tradeId = entry.trade.getId();
+            if (entryByTradeId.get(tradeId) == entry) {
+                entryByTradeId.remove(tradeId);
+                update(entry.trade);
+            }
+        }
+
+        // We drop outdated entries so that the timer is set for a trade we still track
+        while (!queue.isEmpty() && entryByTradeId.get(queue.peek().trade.getId()) != queue.peek())
+            queue.poll();
+
+        if (!queue.isEmpty())
+            startTimer(queue.peek().date);
+        else
+            stopTimer();
+    }
+
+    private void startTimer(long date) {
+        stopTimer();
+        timerDate = date;
+        // We add 1 ms as a transition happens only after the date has passed
+        long delay = Math.max(0, date - clock.getAsLong()) + 1;
+        timer = timerFactory.apply(this::processDueEntries, delay);
+    }
+
+    private void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+            timer = null;
+        }
+        timerDate = Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.protocol;
+
+import bisq.core.app.AppOptionKeys;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collects the duration of each TradeTask per trade type (which defines protocol and role, e.g. BuyerAsMakerTrade)
+ * and task class. The duration is the time from the creation of the task by the TradeTaskRunner until it completed
+ * or failed, so it includes waiting for network or wallet callbacks.
+ * <p>
+ * Durations are kept in a histogram with fixed buckets so we don't need to store the samples. If the
+ * tradeTaskMetricsLogInterval option is set we log the slowest tasks at that interval.
+ */
+@Slf4j
+public class TradeTaskMetrics {
+    // Upper bounds of the histogram buckets in ms. The last bucket contains all durations above the last bound.
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10_000,
+            20_000, 50_000, 120_000};
+    private static final int NUM_TASKS_IN_SUMMARY = 10;
+
+    private final long logIntervalSec;
+    private final Map<String, Stats> statsByKey = new HashMap<>();
+    @Nullable
+    private Timer logTimer;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Inject
+    public TradeTaskMetrics(@Named(AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL) String logIntervalSec) {
+        long interval;
+        try {
+            interval = Long.parseLong(logIntervalSec);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for {}: {}", AppOptionKeys.TRADE_TASK_METRICS_LOG_INTERVAL, logIntervalSec);
+            interval = 0;
+        }
+        this.logIntervalSec = interval;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void onAllServicesInitialized() {
+        if (logIntervalSec > 0 && logTimer == null)
+            logTimer = UserThread.runPeriodically(() -> log.info(getSummary(NUM_TASKS_IN_SUMMARY)), logIntervalSec, TimeUnit.SECONDS);
+    }
+
+    public void shutDown() {
+        if (logTimer != null) {
+            logTimer.stop();
+            logTimer = null;
+        }
+    }
+
+    public synchronized void record(String tradeType, String taskName, long durationNanos, boolean success) {
+        statsByKey.computeIfAbsent(tradeType + "/" + taskName, key -> new Stats(tradeType, taskName))
+                .add(TimeUnit.NANOSECONDS.toMillis(durationNanos), success);
+    }
+
+    /**
+     * @return Copies of the stats of all tasks sorted by their total duration, the slowest first.
+     */
+    public synchronized List<Stats> getStats() {
+        List<Stats> list = new ArrayList<>();
+        statsByKey.values().forEach(stats -> list.add(stats.copy()));
+        list.sort(Comparator.comparingLong(Stats::getTotalMs).reversed());
+        return list;
+    }
+
+    public String getSummary(int maxTasks) {
+        List<Stats> list = getStats();
+        StringBuilder sb = new StringBuilder("Trade task metrics (slowest ").append(Math.min(maxTasks, list.size()))
+                .append(" of ").append(list.size()).append(" tasks by total time):");
+        list.stream().limit(maxTasks).forEach(stats -> sb.append("\n    ").append(stats));
+        return sb.toString();
+    }
+
+    public synchronized void reset() {
+        statsByKey.clear();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Stats
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Getter
+    public static final class Stats {
+        private final String tradeType;
+        private final String taskName;
+        private final long[] bucketCounts;
+        private long count;
+        private long numFailed;
+        private long totalMs;
+        private long maxMs;
+
+        private Stats(String tradeType, String taskName) {
+            this(tradeType, taskName, new long[BUCKET_BOUNDS_MS.length + 1]);
+        }
+
+        private Stats(String tradeType, String taskName, long[] bucketCounts) {
+            this.tradeType = tradeType;
+            this.taskName = taskName;
+            this.bucketCounts = bucketCounts;
+        }
+
+        private void add(long durationMs, boolean success) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && durationMs > BUCKET_BOUNDS_MS[bucket])
+                bucket++;
+            bucketCounts[bucket]++;
+            count++;
+            if (!success)
+                numFailed++;
+            totalMs += durationMs;
+            maxMs = Math.max(maxMs, durationMs);
+        }
+
+        private Stats copy() {
+            Stats copy = new Stats(tradeType, taskName, bucketCounts.clone());
+            copy.count = count;
+            copy.numFailed = numFailed;
+            copy.totalMs = totalMs;
+            copy.maxMs = maxMs;
+            return copy;
+        }
+
+        public long getMeanMs() {
+            return count > 0 ? totalMs / count : 0;
+        }
+
+        /**
+         * @param percentile Value between 0 and 100
+         * @return The upper bound of the bucket which contains the percentile, or the max duration if it is in the
+         * last bucket.
+         */
+        public long getPercentileMs(double percentile) {
+            if (count == 0)
+                return 0;
+
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long sum = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                sum += bucketCounts[i];
+                if (sum >= rank)
+                    return Math.min(BUCKET_BOUNDS_MS[i], maxMs);
+            }
+            return maxMs;
+        }
+
+        @Override
+        public String toString() {
+            return tradeType + "/" + taskName +
+                    ": count=" + count +
+                    ", failed=" + numFailed +
+                    ", total=" + totalMs + " ms" +
+                    ", mean=" + getMeanMs() + " ms" +
+                    ", p50<=" + getPercentileMs(50) + " ms" +
+                    ", p99<=" + getPercentileMs(99) + " ms" +
+                    ", max=" + maxMs + " ms";
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package bisq.core.trade.protocol.tasks;
 
 import bisq.core.trade.Trade;
+import bisq.core.trade.TradeManager;
 import bisq.core.trade.protocol.ProcessModel;
 
 import bisq.common.taskrunner.Task;
@@ -29,6 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 public abstract class TradeTask extends Task<Trade> {
     protected final ProcessModel processModel;
     protected final Trade trade;
+    private final long startTime = System.nanoTime();
 
     protected TradeTask(TaskRunner taskHandler, Trade trade) {
         super(taskHandler, trade);
@@ -37,14 +39,22 @@ public abstract class TradeTask extends Task<Trade> {
         processModel = trade.getProcessModel();
     }
 
+    @Override
+    protected void complete() {
+        recordDuration(true);
+        super.complete();
+    }
+
     @Override
     protected void failed() {
+        recordDuration(false);
         trade.setErrorMessage(errorMessage);
         super.failed();
     }
 
     @Override
     protected void failed(String message) {
+        recordDuration(false);
         appendToErrorMessage(message);
         trade.setErrorMessage(errorMessage);
         super.failed();
@@ -53,8 +63,16 @@ public abstract class TradeTask extends Task<Trade> {
     @Override
     protected void failed(Throwable t) {
         t.printStackTrace();
+        recordDuration(false);
         appendExceptionToErrorMessage(t);
         trade.setErrorMessage(errorMessage);
         super.failed();
     }
+
+    private void recordDuration(boolean success) {
+        TradeManager tradeManager = processModel.getTradeManager();
+        if (tradeManager != null)
+            tradeManager.getTradeTaskMetrics().record(trade.getClass().getSimpleName(), getClass().getSimpleName(),
+                    System.nanoTime() - startTime, success);
+    }
 }
@@ -79,7 +79,7 @@ public class BuyerAsTakerSignAndPublishDepositTx extends TradeTask {
             checkArgument(Arrays.equals(buyerMultiSigPubKey, buyerMultiSigAddressEntry.getPubKey()),
                     "buyerMultiSigPubKey from AddressEntry must match the one from the trade data. trade id =" + id);
 
-            Transaction depositTx = processModel.getTradeWalletService().takerSignsAndPublishesDepositTx(
+            processModel.getTradeWalletService().takerSignsAndPublishesDepositTx(
                     false,
                     contractHash,
                     processModel.getPreparedDepositTx(),
@@ -116,12 +116,22 @@ public class BuyerAsTakerSignAndPublishDepositTx extends TradeTask {
                                 log.warn("We got the onFailure callback called after the timeout has been triggered a complete().");
                             }
                         }
+                    })
+                    .whenComplete((depositTx, throwable) -> {
+                        // Called at the UserThread after the input scripts have been verified and the broadcast
+                        // has been started
+                        if (throwable != null) {
+                            failed(throwable);
+                            return;
+                        }
+
+                        if (trade.getDepositTx() == null) {
+                            // We set the deposit tx in case we get the onFailure called. We cannot set it in the
+                            // onFailure callback as the tx is returned by the future of the method call where the
+                            // callback is used as an argument.
+                            trade.setDepositTx(depositTx);
+                        }
                     });
-            if (trade.getDepositTx() == null) {
-                // We set the deposit tx in case we get the onFailure called. We cannot set it in the onFailure
-                // callback as the tx is returned by the method call where the callback is  used as an argument.
-                trade.setDepositTx(depositTx);
-            }
         } catch (Throwable t) {
             failed(t);
         }
@@ -18,7 +18,6 @@
 package bisq.core.trade.protocol.tasks.seller_as_maker;
 
 import bisq.core.btc.AddressEntry;
-import bisq.core.btc.data.PreparedDepositTxAndMakerInputs;
 import bisq.core.btc.data.RawTransactionInput;
 import bisq.core.btc.wallet.BtcWalletService;
 import bisq.core.offer.Offer;
@@ -93,7 +92,7 @@ public class SellerAsMakerCreatesAndSignsDepositTx extends TradeTask {
 
             final byte[] arbitratorBtcPubKey = trade.getArbitratorBtcPubKey();
 
-            PreparedDepositTxAndMakerInputs result = processModel.getTradeWalletService().makerCreatesAndSignsDepositTx(
+            processModel.getTradeWalletService().makerCreatesAndSignsDepositTx(
                     makerIsBuyer,
                     contractHash,
                     makerInputAmount,
@@ -105,12 +104,19 @@ public class SellerAsMakerCreatesAndSignsDepositTx extends TradeTask {
                     makerChangeAddress,
                     buyerPubKey,
                     sellerPubKey,
-                    arbitratorBtcPubKey);
-
-            processModel.setPreparedDepositTx(result.depositTransaction);
-            processModel.setRawTransactionInputs(result.rawMakerInputs);
-
-            complete();
+                    arbitratorBtcPubKey)
+                    .whenComplete((result, throwable) -> {
+                        // Called at the UserThread after the input scripts have been verified
+                        if (throwable != null) {
+                            failed(throwable);
+                            return;
+                        }
+
+                        processModel.setPreparedDepositTx(result.depositTransaction);
+                        processModel.setRawTransactionInputs(result.rawMakerInputs);
+
+                        complete();
+                    });
         } catch (Throwable t) {
             failed(t);
         }
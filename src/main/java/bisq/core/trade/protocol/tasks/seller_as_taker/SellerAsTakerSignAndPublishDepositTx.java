@@ -80,7 +80,7 @@ public class SellerAsTakerSignAndPublishDepositTx extends TradeTask {
 
             TradingPeer tradingPeer = processModel.getTradingPeer();
 
-            Transaction depositTx = processModel.getTradeWalletService().takerSignsAndPublishesDepositTx(
+            processModel.getTradeWalletService().takerSignsAndPublishesDepositTx(
                     true,
                     contractHash,
                     processModel.getPreparedDepositTx(),
@@ -117,12 +117,25 @@ public class SellerAsTakerSignAndPublishDepositTx extends TradeTask {
                                 log.warn("We got the onFailure callback called after the timeout has been triggered a complete().");
                             }
                         }
+                    })
+                    .whenComplete((depositTx, throwable) -> {
+                        // Called at the UserThread after the input scripts have been verified and the broadcast
+                        // has been started
+                        if (throwable != null) {
+                            final Contract contract = trade.getContract();
+                            if (contract != null)
+                                contract.printDiff(processModel.getTradingPeer().getContractAsJson());
+                            failed(throwable);
+                            return;
+                        }
+
+                        if (trade.getDepositTx() == null) {
+                            // We set the deposit tx in case we get the onFailure called. We cannot set it in the
+                            // onFailure callback as the tx is returned by the future of the method call where the
+                            // callback is used as an argument.
+                            trade.setDepositTx(depositTx);
+                        }
                     });
-            if (trade.getDepositTx() == null) {
-                // We set the deposit tx in case we get the onFailure called. We cannot set it in the onFailure
-                // callback as the tx is returned by the method call where the callback is  used as an argument.
-                trade.setDepositTx(depositTx);
-            }
         } catch (Throwable t) {
             final Contract contract = trade.getContract();
             if (contract != null)
@@ -161,7 +161,7 @@ public class CreateTakerFeeTx extends TradeTask {
                             log.warn("We got the onFailure callback called after the timeout has been triggered a complete().");
                         }
                     }
-                });
+                }, TxBroadcaster.Priority.LOW);
             }
         } catch (Throwable t) {
             failed(t);
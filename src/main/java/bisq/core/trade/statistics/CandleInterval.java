@@ -0,0 +1,59 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time buckets used by the TradeStatisticsCandleStore. All buckets are aligned in UTC, weeks start on Monday.
+ */
+public enum CandleInterval {
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH;
+
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    public long getBucketStart(long date) {
+        switch (this) {
+            case HOUR:
+                return Math.floorDiv(date, HOUR_MS) * HOUR_MS;
+            case DAY:
+                return Math.floorDiv(date, DAY_MS) * DAY_MS;
+            case WEEK:
+                // 1970-01-01 was a Thursday, so we shift by 3 days to get Monday as first day of the week
+                long epochDay = Math.floorDiv(date, DAY_MS);
+                return (epochDay - Math.floorMod(epochDay + 3, 7)) * DAY_MS;
+            case MONTH:
+                return ZonedDateTime.ofInstant(Instant.ofEpochMilli(date), ZoneOffset.UTC)
+                        .withDayOfMonth(1)
+                        .truncatedTo(ChronoUnit.DAYS)
+                        .toInstant()
+                        .toEpochMilli();
+            default:
+                throw new IllegalStateException("Unhandled CandleInterval " + this);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+/**
+ * OHLCV candles of one currency for one CandleInterval. The candles are kept sorted by bucket start in primitive
+ * columns so range queries are array slices. Trades can arrive out of order (e.g. from the P2P network), so we keep
+ * the date of the first and last trade per bucket to decide which price is the open and the close.
+ * Not thread safe, it is expected to be used from the UserThread.
+ */
+public final class CandleSeries {
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Getter
+    private final String currencyCode;
+    @Getter
+    private final CandleInterval interval;
+    private int size;
+    private long[] bucketStart;
+    private long[] open;
+    private long[] high;
+    private long[] low;
+    private long[] close;
+    private long[] amount;
+    private long[] volume;
+    private long[] numTrades;
+    private long[] openDate;
+    private long[] closeDate;
+
+    public CandleSeries(String currencyCode, CandleInterval interval) {
+        this(currencyCode, interval, 0, INITIAL_CAPACITY);
+    }
+
+    private CandleSeries(String currencyCode, CandleInterval interval, int size, int capacity) {
+        this.currencyCode = currencyCode;
+        this.interval = interval;
+        this.size = size;
+        bucketStart = new long[capacity];
+        open = new long[capacity];
+        high = new long[capacity];
+        low = new long[capacity];
+        close = new long[capacity];
+        amount = new long[capacity];
+        volume = new long[capacity];
+        numTrades = new long[capacity];
+        openDate = new long[capacity];
+        closeDate = new long[capacity];
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void add(long tradeDate, long price, long tradeAmount, long tradeVolume) {
+        long start = interval.getBucketStart(tradeDate);
+        int index;
+        // Most trades arrive in chronological order so we check the last bucket before doing a binary search
+        if (size > 0 && bucketStart[size - 1] == start) {
+            index = size - 1;
+        } else if (size == 0 || bucketStart[size - 1] < start) {
+            index = insertBucket(size, start);
+        } else {
+            index = Arrays.binarySearch(bucketStart, 0, size, start);
+            if (index < 0)
+                index = insertBucket(-(index + 1), start);
+        }
+
+        if (numTrades[index] == 0) {
+            open[index] = price;
+            high[index] = price;
+            low[index] = price;
+            close[index] = price;
+            openDate[index] = tradeDate;
+            closeDate[index] = tradeDate;
+        } else {
+            high[index] = Math.max(high[index], price);
+            low[index] = Math.min(low[index], price);
+            if (tradeDate < openDate[index]) {
+                open[index] = price;
+                openDate[index] = tradeDate;
+            }
+            if (tradeDate >= closeDate[index]) {
+                close[index] = price;
+                closeDate[index] = tradeDate;
+            }
+        }
+        amount[index] += tradeAmount;
+        volume[index] += tradeVolume;
+        numTrades[index]++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Index of the first bucket starting at or after date. Returns size() if there is no such bucket.
+     */
+    public int ceilingIndex(long date) {
+        int index = Arrays.binarySearch(bucketStart, 0, size, interval.getBucketStart(date));
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    /**
+     * @return A copy of the candles with bucket start in the range [from, to).
+     */
+    public CandleSeries subSeries(long from, long to) {
+        int fromIndex = ceilingIndex(from);
+        int toIndex = Arrays.binarySearch(bucketStart, 0, size, to);
+        toIndex = toIndex >= 0 ? toIndex : -(toIndex + 1);
+        return copyOfRange(fromIndex, Math.max(fromIndex, toIndex));
+    }
+
+    public CandleSeries copy() {
+        return copyOfRange(0, size);
+    }
+
+    public long getLatestClose() {
+        return close[checkIndex(size - 1)];
+    }
+
+    public long getBucketStart(int index) {
+        return bucketStart[checkIndex(index)];
+    }
+
+    public long getOpen(int index) {
+        return open[checkIndex(index)];
+    }
+
+    public long getHigh(int index) {
+        return high[checkIndex(index)];
+    }
+
+    public long getLow(int index) {
+        return low[checkIndex(index)];
+    }
+
+    public long getClose(int index) {
+        return close[checkIndex(index)];
+    }
+
+    // Sum of trade amounts in BTC (satoshi)
+    public long getAmount(int index) {
+        return amount[checkIndex(index)];
+    }
+
+    // Sum of trade volumes in the smallest unit of the currency
+    public long getVolume(int index) {
+        return volume[checkIndex(index)];
+    }
+
+    public long getNumTrades(int index) {
+        return numTrades[checkIndex(index)];
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Serialisation
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(currencyCode);
+        out.writeByte(interval.ordinal());
+        out.writeInt(size);
+        for (long[] column : getColumns()) {
+            for (int i = 0; i < size; i++)
+                out.writeLong(column[i]);
+        }
+    }
+
+    static CandleSeries readFrom(DataInputStream in) throws IOException {
+        String currencyCode = in.readUTF();
+        int ordinal = in.readByte();
+        if (ordinal < 0 || ordinal >= CandleInterval.values().length)
+            throw new IOException("Invalid interval ordinal " + ordinal);
+        int size = in.readInt();
+        if (size < 0)
+            throw new IOException("Invalid size " + size);
+
+        CandleSeries series = new CandleSeries(currencyCode, CandleInterval.values()[ordinal], size, Math.max(size, INITIAL_CAPACITY));
+        for (long[] column : series.getColumns()) {
+            for (int i = 0; i < size; i++)
+                column[i] = in.readLong();
+        }
+        return series;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private long[][] getColumns() {
+        return new long[][]{bucketStart, open, high, low, close, amount, volume, numTrades, openDate, closeDate};
+    }
+
+    private int insertBucket(int index, long start) {
+        if (size == bucketStart.length)
+            grow();
+
+        long[][] columns = getColumns();
+        if (index < size) {
+            for (long[] column : columns)
+                System.arraycopy(column, index, column, index + 1, size - index);
+        }
+        for (long[] column : columns)
+            column[index] = 0;
+
+        bucketStart[index] = start;
+        size++;
+        return index;
+    }
+
+    private void grow() {
+        int capacity = bucketStart.length * 2;
+        bucketStart = Arrays.copyOf(bucketStart, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        amount = Arrays.copyOf(amount, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+        numTrades = Arrays.copyOf(numTrades, capacity);
+        openDate = Arrays.copyOf(openDate, capacity);
+        closeDate = Arrays.copyOf(closeDate, capacity);
+    }
+
+    private CandleSeries copyOfRange(int from, int to) {
+        int length = to - from;
+        CandleSeries copy = new CandleSeries(currencyCode, interval, length, Math.max(length, INITIAL_CAPACITY));
+        long[][] sourceColumns = getColumns();
+        long[][] targetColumns = copy.getColumns();
+        for (int i = 0; i < sourceColumns.length; i++)
+            System.arraycopy(sourceColumns[i], from, targetColumns[i], 0, length);
+        return copy;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        return index;
+    }
+}
@@ -38,6 +38,9 @@ import io.bisq.generated.protobuffer.PB;
 
 import com.google.protobuf.ByteString;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 import org.bitcoinj.core.Coin;
 import org.bitcoinj.utils.ExchangeRate;
 import org.bitcoinj.utils.Fiat;
@@ -45,6 +48,7 @@ import org.bitcoinj.utils.Fiat;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -52,6 +56,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import lombok.Value;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
@@ -65,6 +70,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Slf4j
 @Value
 public final class TradeStatistics2 implements LazyProcessedPayload, PersistableNetworkPayload, PersistableEnvelope, CapabilityRequiringPayload {
+    // We have a very small set of distinct currency codes and payment method IDs but 100k+ objects, so we share the
+    // string instances instead of keeping a copy per object as we get it from the protobuf parser.
+    private static final Interner<String> STRING_INTERNER = Interners.newWeakInterner();
+
     private final OfferPayload.Direction direction;
     private final String baseCurrency;
     private final String counterCurrency;
@@ -82,8 +91,13 @@ public final class TradeStatistics2 implements LazyProcessedPayload, Persistable
     private final long tradeDate;
     private final String depositTxId;
 
-    // hash get set in constructor from json of all the other data fields (with hash = null).
-    private final byte[] hash;
+    // Hash is created lazily from json of all the other data fields (hash itself is excluded) and cached.
+    // For payloads loaded from disc or received from the network we use the hash from the protobuf message and
+    // do not recreate it. Use isHashValid to check if the hash matches the data.
+    @JsonExclude
+    @NonFinal
+    @Nullable
+    private byte[] hash;
     // PB field signature_pub_key_bytes not used anymore from v0.6 on
 
     // Should be only used in emergency case if we need to add data but do not want to break backward compatibility
@@ -137,9 +151,9 @@ public final class TradeStatistics2 implements LazyProcessedPayload, Persistable
                             @Nullable byte[] hash,
                             @Nullable Map<String, String> extraDataMap) {
         this.direction = direction;
-        this.baseCurrency = baseCurrency;
-        this.counterCurrency = counterCurrency;
-        this.offerPaymentMethod = offerPaymentMethod;
+        this.baseCurrency = STRING_INTERNER.intern(baseCurrency);
+        this.counterCurrency = STRING_INTERNER.intern(counterCurrency);
+        this.offerPaymentMethod = STRING_INTERNER.intern(offerPaymentMethod);
         this.offerDate = offerDate;
         this.offerUseMarketBasedPrice = offerUseMarketBasedPrice;
         this.offerMarketPriceMargin = offerMarketPriceMargin;
@@ -151,13 +165,7 @@ public final class TradeStatistics2 implements LazyProcessedPayload, Persistable
         this.tradeDate = tradeDate;
         this.depositTxId = depositTxId;
         this.extraDataMap = extraDataMap;
-
-        if (hash == null)
-            // We create hash from all fields excluding hash itself. We use json as simple data serialisation.
-            // tradeDate is different for both peers so we ignore it for hash.
-            this.hash = Hash.getSha256Ripemd160hash(Utilities.objectToJson(this).getBytes());
-        else
-            this.hash = hash;
+        this.hash = hash;
     }
 
     @Override
@@ -177,7 +185,7 @@ public final class TradeStatistics2 implements LazyProcessedPayload, Persistable
                 .setTradeAmount(tradeAmount)
                 .setTradeDate(tradeDate)
                 .setDepositTxId(depositTxId)
-                .setHash(ByteString.copyFrom(hash));
+                .setHash(ByteString.copyFrom(getHash()));
         Optional.ofNullable(extraDataMap).ifPresent(builder::putAllExtraData);
         return PB.PersistableNetworkPayload.newBuilder().setTradeStatistics2(builder).build();
     }
@@ -221,13 +229,20 @@ public final class TradeStatistics2 implements LazyProcessedPayload, Persistable
 
     @Override
     public byte[] getHash() {
+        if (hash == null)
+            hash = createHash();
         return hash;
     }
 
     @Override
     public boolean verifyHashSize() {
-        checkNotNull(hash, "hash must not be null");
-        return hash.length == 20;
+        checkNotNull(getHash(), "hash must not be null");
+        return getHash().length == 20;
+    }
+
+    // Expensive as it requires json serialisation, should not be called on the UserThread for many items.
+    public boolean isHashValid() {
+        return Arrays.equals(createHash(), getHash());
     }
 
 
@@ -259,6 +274,17 @@ public final class TradeStatistics2 implements LazyProcessedPayload, Persistable
             return new Volume(new ExchangeRate((Fiat) getTradePrice().getMonetary()).coinToFiat(getTradeAmount()));
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private byte[] createHash() {
+        // We create hash from all fields excluding hash itself. We use json as simple data serialisation.
+        // tradeDate is different for both peers so we ignore it for hash.
+        return Hash.getSha256Ripemd160hash(Utilities.objectToJson(this).getBytes());
+    }
+
     @Override
     public String toString() {
         return "TradeStatistics2{" +
@@ -276,7 +302,7 @@ public final class TradeStatistics2 implements LazyProcessedPayload, Persistable
                 ",\n     tradeAmount=" + tradeAmount +
                 ",\n     tradeDate=" + tradeDate +
                 ",\n     depositTxId='" + depositTxId + '\'' +
-                ",\n     hash=" + Utilities.bytesAsHexString(hash) +
+                ",\n     hash=" + Utilities.bytesAsHexString(getHash()) +
                 ",\n     extraDataMap=" + extraDataMap +
                 "\n}";
     }
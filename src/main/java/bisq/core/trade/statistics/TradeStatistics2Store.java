@@ -52,8 +52,14 @@ public class TradeStatistics2Store implements PersistableEnvelope {
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private TradeStatistics2Store(List<TradeStatistics2> list) {
-        list.forEach(item -> map.put(new P2PDataStorage.ByteArray(item.getHash()), item));
+    private TradeStatistics2Store(List<PB.TradeStatistics2> protoList) {
+        // We size the map upfront and convert the items one by one to avoid an intermediate list of 100k+ objects
+        // and the rehashing of the map while it grows.
+        map = new ConcurrentHashMap<>(protoList.size() * 4 / 3 + 1);
+        protoList.forEach(proto -> {
+            TradeStatistics2 item = TradeStatistics2.fromProto(proto);
+            map.put(new P2PDataStorage.ByteArray(item.getHash()), item);
+        });
     }
 
     public Message toProtoMessage() {
@@ -71,9 +77,7 @@ public class TradeStatistics2Store implements PersistableEnvelope {
     }
 
     public static PersistableEnvelope fromProto(PB.TradeStatistics2Store proto) {
-        List<TradeStatistics2> list = proto.getItemsList().stream()
-                .map(TradeStatistics2::fromProto).collect(Collectors.toList());
-        return new TradeStatistics2Store(list);
+        return new TradeStatistics2Store(proto.getItemsList());
     }
 
     public boolean containsKey(P2PDataStorage.ByteArray hash) {
@@ -0,0 +1,259 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+import bisq.common.storage.Storage;
+import bisq.common.util.Utilities;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maintains OHLCV candles per currency and CandleInterval incrementally from the trade statistics so that charts
+ * and the latest Bisq market price do not need to scan and sort all TradeStatistics2 objects.
+ * <p>
+ * The candles are persisted in a columnar binary file next to the TradeStatistics2Store. The file carries a
+ * fingerprint (number of statistics and xor of their hashes) of the data it was built from. If it does not match the
+ * loaded statistics at startup we rebuild the candles.
+ */
+@Slf4j
+public class TradeStatisticsCandleStore {
+    public static final String FILE_NAME = "TradeStatisticsCandles";
+    private static final int VERSION = 1;
+    private static final long PERSIST_DELAY_SEC = 60;
+
+    private final File storageFile;
+    private final ListeningExecutorService executor = Utilities.getSingleThreadExecutor("TradeStatisticsCandleStore");
+    private final Map<String, CandleSeries[]> seriesByCurrencyCode = new HashMap<>();
+    private int numStatistics;
+    private long fingerprint;
+    @Nullable
+    private Timer persistTimer;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Inject
+    public TradeStatisticsCandleStore(@Named(Storage.STORAGE_DIR) File storageDir) {
+        this.storageFile = new File(storageDir, FILE_NAME);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void init(Collection<TradeStatistics2> tradeStatistics) {
+        long expectedFingerprint = 0;
+        for (TradeStatistics2 item : tradeStatistics)
+            expectedFingerprint ^= getFingerprint(item);
+
+        if (readFromDisk(tradeStatistics.size(), expectedFingerprint)) {
+            log.info("Read {} candle series from disk", seriesByCurrencyCode.size() * CandleInterval.values().length);
+            return;
+        }
+
+        long ts = System.currentTimeMillis();
+        seriesByCurrencyCode.clear();
+        numStatistics = 0;
+        fingerprint = 0;
+        tradeStatistics.forEach(this::addToSeries);
+        log.info("Building candles from {} trade statistics took {} ms", tradeStatistics.size(), System.currentTimeMillis() - ts);
+        persist();
+    }
+
+    public void add(TradeStatistics2 tradeStatistics) {
+        addToSeries(tradeStatistics);
+        if (persistTimer == null)
+            persistTimer = UserThread.runAfter(this::persist, PERSIST_DELAY_SEC);
+    }
+
+    public Set<String> getCurrencyCodes() {
+        return Collections.unmodifiableSet(seriesByCurrencyCode.keySet());
+    }
+
+    public Optional<CandleSeries> getCandleSeries(String currencyCode, CandleInterval interval) {
+        CandleSeries[] series = seriesByCurrencyCode.get(currencyCode);
+        return series != null ? Optional.of(series[interval.ordinal()]) : Optional.empty();
+    }
+
+    /**
+     * @return A copy of the candles with bucket start in the range [from, to).
+     */
+    public Optional<CandleSeries> getCandles(String currencyCode, CandleInterval interval, long from, long to) {
+        return getCandleSeries(currencyCode, interval).map(series -> series.subSeries(from, to));
+    }
+
+    /**
+     * @return The price of the most recent trade in that currency.
+     */
+    public Optional<Long> getLatestPrice(String currencyCode) {
+        return getCandleSeries(currencyCode, CandleInterval.HOUR)
+                .filter(series -> !series.isEmpty())
+                .map(CandleSeries::getLatestClose);
+    }
+
+    public void shutDown() {
+        if (persistTimer != null)
+            persist();
+        executor.shutdown();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void addToSeries(TradeStatistics2 tradeStatistics) {
+        String currencyCode = tradeStatistics.getCurrencyCode();
+        long volume;
+        try {
+            volume = tradeStatistics.getTradeVolume().getValue();
+        } catch (Throwable t) {
+            log.warn("Could not calculate trade volume for trade statistics with offer ID {}. {}",
+                    tradeStatistics.getOfferId(), t.toString());
+            volume = 0;
+        }
+
+        CandleSeries[] series = seriesByCurrencyCode.computeIfAbsent(currencyCode, this::createSeries);
+        for (CandleSeries candleSeries : series) {
+            candleSeries.add(tradeStatistics.getTradeDate().getTime(),
+                    tradeStatistics.getTradePrice().getValue(),
+                    tradeStatistics.getTradeAmount().getValue(),
+                    volume);
+        }
+        numStatistics++;
+        fingerprint ^= getFingerprint(tradeStatistics);
+    }
+
+    private CandleSeries[] createSeries(String currencyCode) {
+        CandleInterval[] intervals = CandleInterval.values();
+        CandleSeries[] series = new CandleSeries[intervals.length];
+        for (int i = 0; i < intervals.length; i++)
+            series[i] = new CandleSeries(currencyCode, intervals[i]);
+        return series;
+    }
+
+    private static long getFingerprint(TradeStatistics2 tradeStatistics) {
+        return Longs.fromByteArray(tradeStatistics.getHash());
+    }
+
+    private void persist() {
+        if (persistTimer != null) {
+            persistTimer.stop();
+            persistTimer = null;
+        }
+
+        // We copy the data on the UserThread and write it at the executor thread
+        List<CandleSeries> snapshot = new ArrayList<>();
+        seriesByCurrencyCode.values().forEach(series -> {
+            for (CandleSeries candleSeries : series)
+                snapshot.add(candleSeries.copy());
+        });
+        int numStatistics = this.numStatistics;
+        long fingerprint = this.fingerprint;
+        executor.submit(() -> {
+            writeToDisk(snapshot, numStatistics, fingerprint);
+            return null;
+        });
+    }
+
+    private void writeToDisk(List<CandleSeries> snapshot, int numStatistics, long fingerprint) {
+        File tempFile = new File(storageFile.getParentFile(), FILE_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(VERSION);
+            out.writeInt(numStatistics);
+            out.writeLong(fingerprint);
+            out.writeInt(snapshot.size());
+            for (CandleSeries series : snapshot)
+                series.writeTo(out);
+        } catch (IOException e) {
+            log.error("Could not write candles to {}. {}", tempFile, e.toString());
+            return;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), storageFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Could not rename {} to {}. {}", tempFile, storageFile, e.toString());
+        }
+    }
+
+    private boolean readFromDisk(int expectedNumStatistics, long expectedFingerprint) {
+        if (!storageFile.exists())
+            return false;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(storageFile)))) {
+            int version = in.readInt();
+            int numStatistics = in.readInt();
+            long fingerprint = in.readLong();
+            if (version != VERSION || numStatistics != expectedNumStatistics || fingerprint != expectedFingerprint) {
+                log.info("Persisted candles are outdated. We rebuild them.");
+                return false;
+            }
+
+            Map<String, CandleSeries[]> map = new HashMap<>();
+            int numSeries = in.readInt();
+            for (int i = 0; i < numSeries; i++) {
+                CandleSeries series = CandleSeries.readFrom(in);
+                map.computeIfAbsent(series.getCurrencyCode(), this::createSeries)[series.getInterval().ordinal()] = series;
+            }
+
+            seriesByCurrencyCode.clear();
+            seriesByCurrencyCode.putAll(map);
+            this.numStatistics = numStatistics;
+            this.fingerprint = fingerprint;
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not read candles from {}. We rebuild them. {}", storageFile, e.toString());
+            return false;
+        }
+    }
+}
@@ -80,6 +80,7 @@ public class TradeStatisticsManager {
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
     private final ReferralIdService referralIdService;
+    private final TradeStatisticsCandleStore candleStore;
     private final boolean dumpStatistics;
     private final ObservableSet<TradeStatistics2> observableTradeStatisticsSet = FXCollections.observableSet();
 
@@ -89,11 +90,13 @@ public class TradeStatisticsManager {
                                   TradeStatistics2StorageService tradeStatistics2StorageService,
                                   AppendOnlyDataStoreService appendOnlyDataStoreService,
                                   ReferralIdService referralIdService,
+                                  TradeStatisticsCandleStore candleStore,
                                   @Named(Storage.STORAGE_DIR) File storageDir,
                                   @Named(AppOptionKeys.DUMP_STATISTICS) boolean dumpStatistics) {
         this.p2PService = p2PService;
         this.priceFeedService = priceFeedService;
         this.referralIdService = referralIdService;
+        this.candleStore = candleStore;
         this.dumpStatistics = dumpStatistics;
         jsonFileManager = new JsonFileManager(storageDir);
 
@@ -124,8 +127,9 @@ public class TradeStatisticsManager {
                 .filter(e -> e instanceof TradeStatistics2)
                 .forEach(e -> addToMap((TradeStatistics2) e, map));
         observableTradeStatisticsSet.addAll(map.values());
+        candleStore.init(map.values());
 
-        priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+        priceFeedService.applyLatestBisqMarketPrice(candleStore);
         dump();
 
         // print all currencies sorted by nr. of trades
@@ -170,8 +174,9 @@ public class TradeStatisticsManager {
                     .anyMatch(e -> (e.getOfferId().equals(tradeStatistics.getOfferId())));
             if (!itemAlreadyAdded) {
                 observableTradeStatisticsSet.add(tradeStatistics);
+                candleStore.add(tradeStatistics);
                 if (storeLocally) {
-                    priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+                    priceFeedService.applyLatestBisqMarketPrice(candleStore);
                     dump();
                 }
             } else {
@@ -190,6 +195,14 @@ public class TradeStatisticsManager {
         return observableTradeStatisticsSet;
     }
 
+    public TradeStatisticsCandleStore getCandleStore() {
+        return candleStore;
+    }
+
+    public void shutDown() {
+        candleStore.shutDown();
+    }
+
     private void dump() {
         if (dumpStatistics) {
             // We store the statistics as json so it is easy for further processing (e.g. for web based services)
@@ -136,6 +136,7 @@ public final class Preferences implements PersistedDataHost, BridgeAddressProvid
     private final ObservableList<FiatCurrency> fiatCurrenciesAsObservable = FXCollections.observableArrayList();
     private final ObservableList<CryptoCurrency> cryptoCurrenciesAsObservable = FXCollections.observableArrayList();
     private final ObservableList<TradeCurrency> tradeCurrenciesAsObservable = FXCollections.observableArrayList();
+    private final ObservableList<String> ignoreTradersListAsObservable = FXCollections.observableArrayList();
 
     private final Storage<PreferencesPayload> storage;
     private final BisqEnvironment bisqEnvironment;
@@ -259,6 +260,7 @@ public final class Preferences implements PersistedDataHost, BridgeAddressProvid
 
         tradeCurrenciesAsObservable.addAll(prefPayload.getFiatCurrencies());
         tradeCurrenciesAsObservable.addAll(prefPayload.getCryptoCurrencies());
+        ignoreTradersListAsObservable.setAll(prefPayload.getIgnoreTradersList());
 
         // Override settings with options if set
         if (useTorFlagFromOptions != null && !useTorFlagFromOptions.isEmpty()) {
@@ -442,6 +444,7 @@ public final class Preferences implements PersistedDataHost, BridgeAddressProvid
 
     public void setIgnoreTradersList(List<String> ignoreTradersList) {
         prefPayload.setIgnoreTradersList(ignoreTradersList);
+        ignoreTradersListAsObservable.setAll(ignoreTradersList);
         persist();
     }
 
@@ -604,6 +607,10 @@ public final class Preferences implements PersistedDataHost, BridgeAddressProvid
         return tradeCurrenciesAsObservable;
     }
 
+    public ObservableList<String> getIgnoreTradersListAsObservable() {
+        return ignoreTradersListAsObservable;
+    }
+
     public BlockChainExplorer getBlockChainExplorer() {
         if (BisqEnvironment.getBaseCurrencyNetwork().isMainnet())
             return prefPayload.getBlockChainExplorerMainNet();
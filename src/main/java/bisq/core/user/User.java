@@ -40,6 +40,7 @@ import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.collections.ObservableSet;
 import javafx.collections.SetChangeListener;
 
@@ -69,6 +70,8 @@ public final class User implements PersistedDataHost {
 
     private ObservableSet<PaymentAccount> paymentAccountsAsObservable;
     private ObjectProperty<PaymentAccount> currentPaymentAccountProperty;
+    // Mirrors the accepted arbitrators of the userPayload, so services can observe changes
+    private final ObservableList<Arbitrator> acceptedArbitratorsAsObservable = FXCollections.observableArrayList();
 
     private UserPayload userPayload = new UserPayload();
 
@@ -93,6 +96,7 @@ public final class User implements PersistedDataHost {
         checkNotNull(userPayload.getAcceptedLanguageLocaleCodes(), "userPayload.getAcceptedLanguageLocaleCodes() must not be null");
         paymentAccountsAsObservable = FXCollections.observableSet(userPayload.getPaymentAccounts());
         currentPaymentAccountProperty = new SimpleObjectProperty<>(userPayload.getCurrentPaymentAccount());
+        updateAcceptedArbitratorsAsObservable();
         userPayload.setAccountId(String.valueOf(Math.abs(keyRing.getPubKeyRing().hashCode())));
 
         // language setup
@@ -117,6 +121,11 @@ public final class User implements PersistedDataHost {
             storage.queueUpForSave(userPayload);
     }
 
+    private void updateAcceptedArbitratorsAsObservable() {
+        List<Arbitrator> acceptedArbitrators = userPayload.getAcceptedArbitrators();
+        acceptedArbitratorsAsObservable.setAll(acceptedArbitrators != null ? acceptedArbitrators : new ArrayList<>());
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
@@ -231,8 +240,10 @@ public final class User implements PersistedDataHost {
         final List<Arbitrator> arbitrators = userPayload.getAcceptedArbitrators();
         if (arbitrators != null && !arbitrators.contains(arbitrator) && !isMyOwnRegisteredArbitrator(arbitrator)) {
             boolean changed = arbitrators.add(arbitrator);
-            if (changed)
+            if (changed) {
+                updateAcceptedArbitratorsAsObservable();
                 persist();
+            }
             return changed;
         } else {
             return false;
@@ -255,14 +266,17 @@ public final class User implements PersistedDataHost {
     public void removeAcceptedArbitrator(Arbitrator arbitrator) {
         if (userPayload.getAcceptedArbitrators() != null) {
             boolean changed = userPayload.getAcceptedArbitrators().remove(arbitrator);
-            if (changed)
+            if (changed) {
+                updateAcceptedArbitratorsAsObservable();
                 persist();
+            }
         }
     }
 
     public void clearAcceptedArbitrators() {
         if (userPayload.getAcceptedArbitrators() != null) {
             userPayload.getAcceptedArbitrators().clear();
+            updateAcceptedArbitratorsAsObservable();
             persist();
         }
     }
@@ -385,6 +399,10 @@ public final class User implements PersistedDataHost {
         return userPayload.getAcceptedArbitrators();
     }
 
+    public ObservableList<Arbitrator> getAcceptedArbitratorsAsObservable() {
+        return acceptedArbitratorsAsObservable;
+    }
+
     @Nullable
     public List<NodeAddress> getAcceptedArbitratorAddresses() {
         return userPayload.getAcceptedArbitrators() != null ? userPayload.getAcceptedArbitrators().stream().map(Arbitrator::getNodeAddress).collect(Collectors.toList()) : null;
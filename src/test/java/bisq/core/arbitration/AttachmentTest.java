@@ -0,0 +1,96 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.arbitration;
+
+import io.bisq.generated.protobuffer.PB;
+
+import java.io.File;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AttachmentTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private AttachmentStore store;
+
+    @Before
+    public void setUp() {
+        store = new AttachmentStore(folder.getRoot());
+    }
+
+    @Test
+    public void testPersistAsReference() {
+        byte[] content = new byte[10_000];
+        content[42] = 7;
+        Attachment attachment = new Attachment("screenshot.png", content);
+
+        PB.Attachment proto = attachment.toPersistableProtoMessage(store);
+        assertTrue(proto.getBytes().size() < 100);
+        assertTrue(attachment.isReference());
+        assertArrayEquals(content, attachment.getBytes());
+
+        Attachment persisted = Attachment.fromPersistedProto(proto);
+        assertTrue(persisted.isReference());
+        assertEquals(attachment, persisted);
+        persisted.setStore(store);
+        assertArrayEquals(content, persisted.getBytes());
+        // Over the network we send the content
+        assertArrayEquals(content, persisted.toProtoMessage().getBytes().toByteArray());
+    }
+
+    @Test
+    public void testSameContentIsStoredOnce() {
+        new Attachment("a.png", new byte[]{1, 2, 3}).toPersistableProtoMessage(store);
+        new Attachment("b.png", new byte[]{1, 2, 3}).toPersistableProtoMessage(store);
+        File[] files = new File(folder.getRoot(), AttachmentStore.DIR_NAME).listFiles();
+        assertEquals(1, files.length);
+
+        store.removeUnreferenced(Collections.emptySet());
+        assertFalse(files[0].exists());
+    }
+
+    @Test
+    public void testInlineAttachment() {
+        Attachment attachment = Attachment.fromProto(new Attachment("a.txt", new byte[]{1, 2, 3}).toProtoMessage());
+        assertFalse(attachment.isReference());
+        assertArrayEquals(new byte[]{1, 2, 3}, attachment.getBytes());
+    }
+
+    @Test
+    public void testReceivedReferenceIsReadAsContent() {
+        Attachment stored = new Attachment("secret.png", new byte[]{4, 5, 6});
+        PB.Attachment reference = stored.toPersistableProtoMessage(store);
+
+        // A peer sends an attachment with the content of a reference to a file in our store
+        Attachment received = Attachment.fromProto(reference);
+        assertFalse(received.isReference());
+        assertArrayEquals(reference.getBytes().toByteArray(), received.getBytes());
+        assertNotEquals(stored, received);
+    }
+}
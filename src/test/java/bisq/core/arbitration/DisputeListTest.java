@@ -0,0 +1,153 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.arbitration;
+
+import bisq.core.payment.payload.PaymentAccountPayload;
+import bisq.core.payment.payload.PaymentMethod;
+import bisq.core.trade.Contract;
+
+import bisq.network.p2p.NodeAddress;
+
+import bisq.common.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Storage.class)
+public class DisputeListTest {
+    private static final int NUM_TRADES = 20;
+    private static final int NUM_NODE_ADDRESSES = 5;
+
+    private Storage<DisputeList> storage;
+    private DisputeList disputeList;
+    private List<NodeAddress> nodeAddresses;
+    private List<Dispute> disputes;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() {
+        storage = mock(Storage.class);
+        disputeList = new DisputeList(storage, null);
+
+        nodeAddresses = new ArrayList<>();
+        for (int i = 0; i < NUM_NODE_ADDRESSES; i++)
+            nodeAddresses.add(new NodeAddress("192.168.0." + i + ":9999"));
+
+        PaymentAccountPayload paymentAccountPayload = mock(PaymentAccountPayload.class);
+        when(paymentAccountPayload.getPaymentMethodId()).thenReturn(PaymentMethod.SEPA_ID);
+
+        // Each trade has a dispute opened by the buyer and one by the seller
+        Random random = new Random(1);
+        disputes = new ArrayList<>();
+        for (int i = 0; i < NUM_TRADES; i++) {
+            NodeAddress buyerNodeAddress = nodeAddresses.get(random.nextInt(NUM_NODE_ADDRESSES));
+            NodeAddress sellerNodeAddress = nodeAddresses.get(random.nextInt(NUM_NODE_ADDRESSES));
+            Contract contract = new Contract(null, 1, 1, "takerFeeTxId" + i,
+                    buyerNodeAddress, sellerNodeAddress, null, null,
+                    true, "makerAccountId", "takerAccountId",
+                    paymentAccountPayload, paymentAccountPayload, null, null,
+                    "makerPayoutAddress", "takerPayoutAddress", null, null);
+            for (int traderId = 0; traderId < 2; traderId++)
+                disputes.add(new Dispute(storage, "tradeId" + i, traderId, traderId == 0, true, null,
+                        0, contract, null, null, null, null, null, "contractAsJson",
+                        null, null, null, false));
+        }
+    }
+
+    private void assertCounters() {
+        List<Dispute> list = disputeList.getList();
+        assertEquals(list.stream().filter(e -> !e.isClosed()).count(), disputeList.getNumOpenDisputes());
+
+        for (NodeAddress nodeAddress : nodeAddresses) {
+            assertEquals(list.stream().filter(e -> e.getContract().getBuyerNodeAddress().equals(nodeAddress)).count(),
+                    disputeList.getNumDisputes(true, nodeAddress));
+            assertEquals(list.stream().filter(e -> e.getContract().getSellerNodeAddress().equals(nodeAddress)).count(),
+                    disputeList.getNumDisputes(false, nodeAddress));
+        }
+        assertEquals(0, disputeList.getNumDisputes(true, null));
+
+        for (Dispute dispute : disputes) {
+            Optional<Dispute> expected = list.stream()
+                    .filter(e -> e.getTradeId().equals(dispute.getTradeId()) && e.getTraderId() == dispute.getTraderId())
+                    .findAny();
+            Optional<Dispute> found = disputeList.findDispute(dispute.getTradeId(), dispute.getTraderId());
+            assertEquals(expected.isPresent(), found.isPresent());
+            expected.ifPresent(e -> assertSame(e, found.get()));
+            assertEquals(expected.isPresent(), disputeList.contains(dispute));
+        }
+    }
+
+    @Test
+    public void testCountersMatchList() {
+        Random random = new Random(2);
+        for (int i = 0; i < 2000; i++) {
+            Dispute dispute = disputes.get(random.nextInt(disputes.size()));
+            int action = random.nextInt(4);
+            if (!disputeList.contains(dispute)) {
+                assertTrue(disputeList.add(dispute));
+            } else if (action == 0) {
+                assertTrue(disputeList.remove(dispute));
+            } else if (action == 1) {
+                // Changes of the list which bypass the DisputeList API are counted as well
+                disputeList.getList().remove(dispute);
+            } else {
+                dispute.setIsClosed(!dispute.isClosed());
+            }
+            assertCounters();
+        }
+    }
+
+    @Test
+    public void testClosedDisputeIsNotCountedAfterRemoval() {
+        Dispute dispute = disputes.get(0);
+        assertTrue(disputeList.add(dispute));
+        assertFalse(disputeList.add(dispute));
+        assertEquals(1, disputeList.getNumOpenDisputes());
+
+        dispute.setIsClosed(true);
+        assertEquals(0, disputeList.getNumOpenDisputes());
+
+        assertTrue(disputeList.remove(dispute));
+        // The listener of the removed dispute must not change the counter anymore
+        dispute.setIsClosed(false);
+        assertEquals(0, disputeList.getNumOpenDisputes());
+        assertCounters();
+
+        disputeList.getList().setAll(disputes);
+        assertCounters();
+        disputeList.getList().clear();
+        assertCounters();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.app.BisqEnvironment;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.wallet.Wallet;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AddressTxIndexTest {
+    // WalletService.getAddressFromOutput uses the parameters of the BisqEnvironment
+    private final NetworkParameters params = BisqEnvironment.getParameters();
+    private AddressTxIndex index;
+    private Wallet wallet;
+    // The not dead txs of the wallet
+    private Set<Transaction> walletTxs;
+    private Address addressA;
+    private Address addressB;
+    private Address addressC;
+    private Transaction fundingTx;
+    private Transaction spendingTx;
+
+    @Before
+    public void setup() {
+        index = new AddressTxIndex();
+        walletTxs = new HashSet<>();
+        wallet = createWallet(walletTxs);
+
+        addressA = new ECKey().toAddress(params);
+        addressB = new ECKey().toAddress(params);
+        addressC = new ECKey().toAddress(params);
+        fundingTx = new Transaction(params);
+        fundingTx.addOutput(Coin.COIN, addressA);
+        fundingTx.addOutput(Coin.COIN, addressA);
+        fundingTx.addOutput(Coin.COIN, addressB);
+        // Spends the first output to A, so it is a tx of A as well
+        spendingTx = new Transaction(params);
+        spendingTx.addInput(fundingTx.getOutput(0));
+        spendingTx.addOutput(Coin.CENT, addressC);
+        walletTxs.add(fundingTx);
+        walletTxs.add(spendingTx);
+    }
+
+    private static Wallet createWallet(Set<Transaction> transactions) {
+        Wallet wallet = mock(Wallet.class);
+        when(wallet.getTransactions(false)).thenAnswer(invocation -> new HashSet<>(transactions));
+        return wallet;
+    }
+
+    // Counts the outputs like WalletService.getNumTxOutputsForAddress did before we had the index
+    private int getNumOutputsByFullScan(Address address) {
+        int outputs = 0;
+        for (Transaction tx : walletTxs) {
+            for (TransactionOutput output : tx.getOutputs()) {
+                if (WalletService.isOutputScriptConvertibleToAddress(output) &&
+                        address.equals(WalletService.getAddressFromOutput(output)))
+                    outputs++;
+            }
+        }
+        return outputs;
+    }
+
+    private void assertNumOutputsAsFullScan(Address... addresses) {
+        for (Address address : addresses)
+            assertEquals(getNumOutputsByFullScan(address), index.getNumOutputs(wallet, address));
+    }
+
+    private static void assertTransactions(List<Transaction> expected, List<Transaction> actual) {
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        assertEquals(expected.size(), actual.size());
+    }
+
+    @Test
+    public void testIndexIsBuiltFromWallet() {
+        assertEquals(2, index.getNumOutputs(wallet, addressA));
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+        assertEquals(0, index.getNumOutputs(wallet, new ECKey().toAddress(params)));
+
+        assertTransactions(Arrays.asList(fundingTx, spendingTx), index.getTransactions(wallet, addressA));
+        assertTransactions(Collections.singletonList(fundingTx), index.getTransactions(wallet, addressB));
+        assertTransactions(Collections.singletonList(spendingTx), index.getTransactions(wallet, addressC));
+    }
+
+    @Test
+    public void testIndexIsUpdatedFromWalletEvents() {
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+
+        Transaction tx = new Transaction(params);
+        tx.addInput(fundingTx.getOutput(2));
+        tx.addOutput(Coin.CENT, addressC);
+        tx.addOutput(Coin.CENT, addressA);
+        walletTxs.add(tx);
+        index.onTransaction(tx);
+        // A tx we have indexed already does not get counted twice
+        index.onTransaction(tx);
+        index.onTransaction(fundingTx);
+
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+        assertTransactions(Arrays.asList(fundingTx, spendingTx, tx), index.getTransactions(wallet, addressA));
+        assertTransactions(Arrays.asList(fundingTx, tx), index.getTransactions(wallet, addressB));
+        assertTransactions(Arrays.asList(spendingTx, tx), index.getTransactions(wallet, addressC));
+    }
+
+    @Test
+    public void testIndexIsRebuiltAfterDeadTx() {
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+
+        // A dead tx is not in the txs of the wallet anymore
+        walletTxs.remove(spendingTx);
+        index.invalidate();
+        // Events until the next query do not bring the tx back
+        index.onTransaction(spendingTx);
+
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+        assertEquals(0, index.getNumOutputs(wallet, addressC));
+        assertTransactions(Collections.singletonList(fundingTx), index.getTransactions(wallet, addressA));
+        assertTrue(index.getTransactions(wallet, addressC).isEmpty());
+    }
+
+    @Test
+    public void testIndexIsRebuiltAfterReorg() {
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+
+        // After the reorg the spending tx got replaced by one paying to B
+        walletTxs.remove(spendingTx);
+        Transaction replacingTx = new Transaction(params);
+        replacingTx.addInput(fundingTx.getOutput(0));
+        replacingTx.addOutput(Coin.CENT, addressB);
+        walletTxs.add(replacingTx);
+        index.invalidate();
+
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+        assertTransactions(Arrays.asList(fundingTx, replacingTx), index.getTransactions(wallet, addressA));
+        assertTransactions(Arrays.asList(fundingTx, replacingTx), index.getTransactions(wallet, addressB));
+    }
+
+    @Test
+    public void testIndexIsRebuiltForNewWallet() {
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+
+        walletTxs = new HashSet<>(Collections.singletonList(spendingTx));
+        wallet = createWallet(walletTxs);
+
+        assertNumOutputsAsFullScan(addressA, addressB, addressC);
+        assertTransactions(Collections.singletonList(spendingTx), index.getTransactions(wallet, addressA));
+        assertTrue(index.getTransactions(wallet, addressB).isEmpty());
+    }
+}
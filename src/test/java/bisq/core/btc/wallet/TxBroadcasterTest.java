@@ -0,0 +1,301 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.PeerGroup;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionBroadcast;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.wallet.Wallet;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TxBroadcasterTest {
+    private static final int TIMEOUT_SEC = 20;
+
+    private final NetworkParameters params = RegTestParams.get();
+    private Wallet wallet;
+    private PeerGroup peerGroup;
+    // The broadcasts started at the peer group in their order
+    private List<Transaction> broadcastTxs;
+    private List<SettableFuture<Transaction>> broadcastFutures;
+    private List<ManualTimer> timers;
+    private Executor userThreadExecutor;
+
+    private static final class ManualTimer {
+        private final Runnable runnable;
+        private final long delayInMs;
+        private boolean stopped;
+
+        ManualTimer(Runnable runnable, long delayInMs) {
+            this.runnable = runnable;
+            this.delayInMs = delayInMs;
+        }
+
+        void fire() {
+            assertFalse(stopped);
+            stopped = true;
+            runnable.run();
+        }
+    }
+
+    private static final class RecordingCallback implements TxBroadcaster.Callback {
+        private Transaction success;
+        private TxBroadcastException failure;
+        private TxBroadcastTimeoutException timeout;
+
+        @Override
+        public void onSuccess(Transaction transaction) {
+            success = transaction;
+        }
+
+        @Override
+        public void onTimeout(TxBroadcastTimeoutException exception) {
+            timeout = exception;
+        }
+
+        @Override
+        public void onFailure(TxBroadcastException exception) {
+            failure = exception;
+        }
+    }
+
+    @Before
+    public void setup() {
+        // The callbacks get executed synchronously at the UserThread
+        userThreadExecutor = UserThread.getExecutor();
+        UserThread.setExecutor(Runnable::run);
+        TxBroadcaster.reset();
+        timers = new ArrayList<>();
+        TxBroadcaster.setTimerFactory((runnable, delayInMs) -> {
+            ManualTimer manualTimer = new ManualTimer(runnable, delayInMs);
+            timers.add(manualTimer);
+            Timer timer = mock(Timer.class);
+            doAnswer(invocation -> {
+                manualTimer.stopped = true;
+                return null;
+            }).when(timer).stop();
+            return timer;
+        });
+
+        wallet = mock(Wallet.class);
+        peerGroup = mock(PeerGroup.class);
+        broadcastTxs = new ArrayList<>();
+        broadcastFutures = new ArrayList<>();
+        when(peerGroup.broadcastTransaction(any(Transaction.class))).thenAnswer(invocation -> {
+            SettableFuture<Transaction> future = SettableFuture.create();
+            broadcastTxs.add(invocation.getArgument(0));
+            broadcastFutures.add(future);
+            TransactionBroadcast transactionBroadcast = mock(TransactionBroadcast.class);
+            when(transactionBroadcast.future()).thenReturn(future);
+            return transactionBroadcast;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        TxBroadcaster.reset();
+        TxBroadcaster.setTimerFactory(null);
+        UserThread.setExecutor(userThreadExecutor);
+    }
+
+    private Transaction createTx(int value) {
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.valueOf(value), new ECKey().toAddress(params));
+        return tx;
+    }
+
+    private RecordingCallback broadcast(Transaction tx, TxBroadcaster.Priority priority) {
+        RecordingCallback callback = new RecordingCallback();
+        TxBroadcaster.broadcastTx(wallet, peerGroup, tx, callback, priority, TIMEOUT_SEC);
+        return callback;
+    }
+
+    // The pending timer with the given delay which was created last
+    private ManualTimer getTimer(long delayInMs) {
+        for (int i = timers.size() - 1; i >= 0; i--) {
+            ManualTimer timer = timers.get(i);
+            if (!timer.stopped && timer.delayInMs == delayInMs)
+                return timer;
+        }
+        throw new AssertionError("No pending timer with delay " + delayInMs);
+    }
+
+    private void completeBroadcast(int index) {
+        broadcastFutures.get(index).set(broadcastTxs.get(index));
+    }
+
+    @Test
+    public void testPriorityOrder() {
+        TxBroadcaster.setMaxConcurrentBroadcasts(1);
+        Transaction first = createTx(1);
+        Transaction low = createTx(2);
+        Transaction normal = createTx(3);
+        Transaction high = createTx(4);
+        Transaction high2 = createTx(5);
+        broadcast(first, TxBroadcaster.Priority.LOW);
+        broadcast(low, TxBroadcaster.Priority.LOW);
+        broadcast(normal, TxBroadcaster.Priority.NORMAL);
+        broadcast(high, TxBroadcaster.Priority.HIGH);
+        broadcast(high2, TxBroadcaster.Priority.HIGH);
+        assertEquals(4, TxBroadcaster.getNumQueuedTxs());
+
+        for (int i = 0; i < 5; i++)
+            completeBroadcast(i);
+
+        assertEquals(Arrays.asList(first, high, high2, normal, low), broadcastTxs);
+        assertEquals(0, TxBroadcaster.getNumPendingTxs());
+        assertEquals(1, TxBroadcaster.getBroadcastLatencyStatistics(TxBroadcaster.Priority.NORMAL).getCount());
+    }
+
+    @Test
+    public void testConcurrencyLimit() {
+        TxBroadcaster.setMaxConcurrentBroadcasts(2);
+        Map<Transaction, RecordingCallback> callbacks = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            Transaction tx = createTx(i + 1);
+            callbacks.put(tx, broadcast(tx, TxBroadcaster.Priority.NORMAL));
+        }
+        assertEquals(2, broadcastTxs.size());
+        assertEquals(3, TxBroadcaster.getNumQueuedTxs());
+        assertEquals(5, TxBroadcaster.getNumPendingTxs());
+
+        completeBroadcast(1);
+        assertEquals(3, broadcastTxs.size());
+        assertEquals(2, TxBroadcaster.getNumQueuedTxs());
+        assertEquals(broadcastTxs.get(1), callbacks.get(broadcastTxs.get(1)).success);
+
+        for (int i = 0; i < 5; i++) {
+            if (i != 1)
+                completeBroadcast(i);
+        }
+        assertEquals(5, broadcastTxs.size());
+        assertEquals(0, TxBroadcaster.getNumPendingTxs());
+        assertTrue(callbacks.values().stream().allMatch(callback -> callback.success != null));
+        // The timeouts of completed broadcasts are stopped
+        assertTrue(timers.stream().allMatch(timer -> timer.stopped));
+    }
+
+    @Test
+    public void testRetryWithBackoff() {
+        Transaction tx = createTx(1);
+        RecordingCallback callback = broadcast(tx, TxBroadcaster.Priority.NORMAL);
+
+        broadcastFutures.get(0).setException(new Exception("No peers"));
+        assertEquals(1, broadcastTxs.size());
+        getTimer(5000).fire();
+        assertEquals(2, broadcastTxs.size());
+
+        broadcastFutures.get(1).setException(new Exception("No peers"));
+        getTimer(10000).fire();
+        assertEquals(3, broadcastTxs.size());
+        assertNull(callback.failure);
+
+        broadcastFutures.get(2).setException(new Exception("No peers"));
+        assertNotNull(callback.failure);
+        assertNull(callback.success);
+        assertEquals(3, broadcastTxs.size());
+        assertEquals(0, TxBroadcaster.getNumPendingTxs());
+    }
+
+    @Test
+    public void testTimeoutFreesSlot() {
+        TxBroadcaster.setMaxConcurrentBroadcasts(1);
+        Transaction hanging = createTx(1);
+        Transaction waiting = createTx(2);
+        RecordingCallback hangingCallback = broadcast(hanging, TxBroadcaster.Priority.NORMAL);
+        RecordingCallback waitingCallback = broadcast(waiting, TxBroadcaster.Priority.NORMAL);
+        assertEquals(1, broadcastTxs.size());
+
+        timers.get(0).fire();
+        assertNotNull(hangingCallback.timeout);
+        assertEquals(Arrays.asList(hanging, waiting), broadcastTxs);
+
+        // The tx can be broadcast again after the timeout. It waits for the slot.
+        RecordingCallback rebroadcastCallback = broadcast(hanging, TxBroadcaster.Priority.NORMAL);
+        assertNull(rebroadcastCallback.failure);
+        assertEquals(1, TxBroadcaster.getNumQueuedTxs());
+
+        // The late result of the first broadcast does not free a slot a second time
+        completeBroadcast(0);
+        assertNull(hangingCallback.success);
+        assertEquals(2, broadcastTxs.size());
+
+        completeBroadcast(1);
+        assertEquals(waiting, waitingCallback.success);
+        assertEquals(Arrays.asList(hanging, waiting, hanging), broadcastTxs);
+        completeBroadcast(2);
+        assertEquals(hanging, rebroadcastCallback.success);
+        assertEquals(0, TxBroadcaster.getNumPendingTxs());
+    }
+
+    @Test
+    public void testTimeoutOfQueuedTxStartsBroadcast() {
+        TxBroadcaster.setMaxConcurrentBroadcasts(1);
+        Transaction first = createTx(1);
+        Transaction queued = createTx(2);
+        Transaction other = createTx(3);
+        broadcast(first, TxBroadcaster.Priority.NORMAL);
+        RecordingCallback queuedCallback = broadcast(queued, TxBroadcaster.Priority.HIGH);
+        // The tx is already broadcast, so HIGH priority does not preempt it
+        assertEquals(1, broadcastTxs.size());
+
+        timers.get(1).fire();
+        assertNotNull(queuedCallback.timeout);
+        // The queued tx is broadcast outside of the limit
+        assertEquals(Arrays.asList(first, queued), broadcastTxs);
+        assertEquals(0, TxBroadcaster.getNumQueuedTxs());
+
+        // The slot is still held by the first tx
+        broadcast(other, TxBroadcaster.Priority.NORMAL);
+        assertEquals(1, TxBroadcaster.getNumQueuedTxs());
+
+        // A failure after the timeout is reported without retry
+        broadcastFutures.get(1).setException(new Exception("Rejected"));
+        assertNotNull(queuedCallback.failure);
+        completeBroadcast(0);
+        assertEquals(Arrays.asList(first, queued, other), broadcastTxs);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.btc.exceptions.TransactionVerificationException;
+
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.crypto.TransactionSignature;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.Script;
+import org.bitcoinj.script.ScriptBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TxVerificationServiceTest {
+    private static final int NUM_INPUTS = 8;
+
+    private final NetworkParameters params = RegTestParams.get();
+    private TxVerificationService service;
+    private List<ECKey> keys;
+    private Transaction tx;
+
+    @Before
+    public void setup() {
+        Context.propagate(new Context(params));
+        service = new TxVerificationService();
+
+        // A funding tx with an output for each key and a tx spending all of them
+        keys = new ArrayList<>();
+        Transaction fundingTx = new Transaction(params);
+        for (int i = 0; i < NUM_INPUTS; i++) {
+            ECKey key = new ECKey();
+            keys.add(key);
+            fundingTx.addOutput(Coin.COIN, key.toAddress(params));
+        }
+        tx = new Transaction(params);
+        fundingTx.getOutputs().forEach(tx::addInput);
+        tx.addOutput(Coin.COIN.multiply(NUM_INPUTS - 1), new ECKey().toAddress(params));
+        for (int i = 0; i < NUM_INPUTS; i++)
+            sign(i, keys.get(i));
+    }
+
+    private void sign(int inputIndex, ECKey key) {
+        TransactionInput input = tx.getInput(inputIndex);
+        Script scriptPubKey = input.getConnectedOutput().getScriptPubKey();
+        TransactionSignature signature = tx.calculateSignature(inputIndex, key, scriptPubKey, Transaction.SigHash.ALL, false);
+        input.setScriptSig(ScriptBuilder.createInputScript(signature, key));
+    }
+
+    private void assertVerificationFails(int from, int to) throws Exception {
+        try {
+            service.checkScriptSigs(tx, from, to).get(10, TimeUnit.SECONDS);
+            fail("Expected the verification to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TransactionVerificationException);
+        }
+    }
+
+    @Test
+    public void testSignedInputs() throws Exception {
+        service.checkScriptSigs(tx, 0, NUM_INPUTS).get(10, TimeUnit.SECONDS);
+        // A second check uses the cache
+        service.checkScriptSigs(tx, 0, NUM_INPUTS).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testTamperedScriptSig() throws Exception {
+        // We verify the tx first, so the verified inputs are in the cache
+        service.checkScriptSigs(tx, 0, NUM_INPUTS).get(10, TimeUnit.SECONDS);
+
+        // Input 5 gets signed with the key of another input
+        sign(5, keys.get(0));
+        assertVerificationFails(0, NUM_INPUTS);
+        assertVerificationFails(5, 6);
+
+        // Inputs outside of the checked range are not verified
+        service.checkScriptSigs(tx, 0, 5).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testMissingScriptSig() throws Exception {
+        tx.getInput(3).setScriptSig(new Script(new byte[]{}));
+        assertVerificationFails(0, NUM_INPUTS);
+    }
+
+    @Test
+    public void testFailureIsNotWrappedTwice() {
+        sign(2, keys.get(1));
+        try {
+            service.checkScriptSigs(tx, 0, NUM_INPUTS).join();
+            fail("Expected the verification to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof TransactionVerificationException);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.app.BisqEnvironment;
+import bisq.core.btc.listeners.AddressConfidenceListener;
+import bisq.core.btc.listeners.TxConfidenceListener;
+
+import bisq.common.UserThread;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.wallet.Wallet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WalletServiceConfidenceTest {
+    // WalletService.getAddressFromOutput uses the parameters of the BisqEnvironment
+    private final NetworkParameters params = BisqEnvironment.getParameters();
+    private WalletService walletService;
+    private Wallet wallet;
+    // The runnables posted to the UserThread, which get run by runUserThread
+    private List<Runnable> userThreadQueue;
+    private Executor userThreadExecutor;
+
+    private static final class RecordingTxConfidenceListener extends TxConfidenceListener {
+        private final List<TransactionConfidence> confidences = new ArrayList<>();
+
+        RecordingTxConfidenceListener(String txID) {
+            super(txID);
+        }
+
+        @Override
+        public void onTransactionConfidenceChanged(TransactionConfidence confidence) {
+            confidences.add(confidence);
+        }
+    }
+
+    private static final class RecordingAddressConfidenceListener extends AddressConfidenceListener {
+        private final List<TransactionConfidence> confidences = new ArrayList<>();
+
+        RecordingAddressConfidenceListener(Address address) {
+            super(address);
+        }
+
+        @Override
+        public void onTransactionConfidenceChanged(TransactionConfidence confidence) {
+            confidences.add(confidence);
+        }
+    }
+
+    @Before
+    public void setup() {
+        Context.propagate(new Context(params));
+        userThreadQueue = new ArrayList<>();
+        userThreadExecutor = UserThread.getExecutor();
+        UserThread.setExecutor(userThreadQueue::add);
+
+        WalletsSetup walletsSetup = mock(WalletsSetup.class);
+        when(walletsSetup.getParams()).thenReturn(params);
+        walletService = new WalletService(walletsSetup, null, null) {
+            @Override
+            String getWalletAsString(boolean includePrivKeys) {
+                return "";
+            }
+        };
+        wallet = mock(Wallet.class);
+    }
+
+    @After
+    public void tearDown() {
+        UserThread.setExecutor(userThreadExecutor);
+    }
+
+    private void runUserThread() {
+        while (!userThreadQueue.isEmpty())
+            userThreadQueue.remove(0).run();
+    }
+
+    @SuppressWarnings("deprecation")
+    private void onConfidenceChanged(Transaction tx) {
+        walletService.walletEventListener.onTransactionConfidenceChanged(wallet, tx);
+    }
+
+    private Transaction createTx(Address address) {
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.COIN, address);
+        return tx;
+    }
+
+    @Test
+    public void testOneCallbackPerTxAndBatch() {
+        Transaction tx1 = createTx(new ECKey().toAddress(params));
+        Transaction tx2 = createTx(new ECKey().toAddress(params));
+        RecordingTxConfidenceListener listener1 = new RecordingTxConfidenceListener(tx1.getHashAsString());
+        RecordingTxConfidenceListener listener2 = new RecordingTxConfidenceListener(tx2.getHashAsString());
+        walletService.addTxConfidenceListener(listener1);
+        walletService.addTxConfidenceListener(listener2);
+
+        // At a new block we get a confidence change for each tx, some of them several times
+        onConfidenceChanged(tx1);
+        onConfidenceChanged(tx2);
+        onConfidenceChanged(tx1);
+        onConfidenceChanged(tx1);
+        assertEquals(1, userThreadQueue.size());
+        assertTrue(listener1.confidences.isEmpty());
+
+        runUserThread();
+        assertEquals(Collections.singletonList(tx1.getConfidence()), listener1.confidences);
+        assertEquals(Collections.singletonList(tx2.getConfidence()), listener2.confidences);
+
+        // The next change starts a new batch
+        onConfidenceChanged(tx1);
+        assertEquals(1, userThreadQueue.size());
+        runUserThread();
+        assertEquals(2, listener1.confidences.size());
+        assertEquals(1, listener2.confidences.size());
+
+        // A removed listener is not called anymore
+        walletService.removeTxConfidenceListener(listener1);
+        onConfidenceChanged(tx1);
+        runUserThread();
+        assertEquals(2, listener1.confidences.size());
+    }
+
+    @Test
+    public void testAddressListenerIsOnlyCalledForItsTxs() {
+        Address address = new ECKey().toAddress(params);
+        Address otherAddress = new ECKey().toAddress(params);
+        RecordingAddressConfidenceListener listener = new RecordingAddressConfidenceListener(address);
+        RecordingAddressConfidenceListener otherListener = new RecordingAddressConfidenceListener(otherAddress);
+        walletService.addAddressConfidenceListener(listener);
+        walletService.addAddressConfidenceListener(otherListener);
+
+        Transaction unrelatedTx = createTx(new ECKey().toAddress(params));
+        onConfidenceChanged(unrelatedTx);
+        runUserThread();
+        assertTrue(listener.confidences.isEmpty());
+        assertTrue(otherListener.confidences.isEmpty());
+
+        // A tx with 2 outputs to the address is reported once
+        Transaction fundingTx = createTx(address);
+        fundingTx.addOutput(Coin.COIN, address);
+        onConfidenceChanged(fundingTx);
+        onConfidenceChanged(fundingTx);
+        runUserThread();
+        assertEquals(Collections.singletonList(fundingTx.getConfidence()), listener.confidences);
+        assertTrue(otherListener.confidences.isEmpty());
+
+        // A tx spending from the address is reported to the listeners of both addresses
+        Transaction spendingTx = createTx(otherAddress);
+        spendingTx.addInput(fundingTx.getOutput(0));
+        onConfidenceChanged(spendingTx);
+        runUserThread();
+        assertEquals(Arrays.asList(fundingTx.getConfidence(), spendingTx.getConfidence()), listener.confidences);
+        assertEquals(Collections.singletonList(spendingTx.getConfidence()), otherListener.confidences);
+    }
+}
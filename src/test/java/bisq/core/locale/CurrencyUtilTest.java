@@ -23,6 +23,7 @@ import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -44,4 +45,19 @@ public class CurrencyUtilTest {
         assertTrue(naira.isPresent());
         assertFalse("Fake currency shouldn't exist", fake.isPresent());
     }
+
+    @Test
+    public void testCurrencyRegistry() {
+        CurrencyRegistry registry = CurrencyUtil.getCurrencyRegistry();
+
+        int euroId = registry.getId("EUR");
+        assertTrue(euroId >= 0);
+        assertEquals("EUR", registry.getTradeCurrency(euroId).get().getCode());
+        assertTrue(registry.getCryptoCurrency("XMR").isPresent());
+        assertEquals("XMR", registry.getTradeCurrency(registry.getId("XMR")).get().getCode());
+
+        assertEquals(CurrencyRegistry.UNKNOWN_ID, registry.getId("FAK"));
+        assertFalse(registry.getTradeCurrency(CurrencyRegistry.UNKNOWN_ID).isPresent());
+        assertFalse(registry.getTradeCurrency(registry.size()).isPresent());
+    }
 }
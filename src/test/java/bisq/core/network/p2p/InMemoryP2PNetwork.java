@@ -0,0 +1,165 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.network.p2p;
+
+import bisq.network.p2p.DecryptedDirectMessageListener;
+import bisq.network.p2p.DecryptedMessageWithPubKey;
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.SendDirectMessageListener;
+import bisq.network.p2p.network.NetworkNode;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.security.PublicKey;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-process stand-in for the P2P network. Direct messages are delivered to the DecryptedDirectMessageListeners of
+ * the receiving node after a fixed latency, without Tor, encryption or seed nodes.
+ * <p>
+ * Each node has an executor on which its listeners and SendDirectMessageListeners get called. The network does not
+ * touch the global UserThread, so code which posts to the UserThread (e.g. the replies of the OpenOfferManager) runs on
+ * the executor of the UserThread. A test which wants one node to behave like a single threaded peer has to set the
+ * executor of the UserThread to the executor of that node (see OfferAvailabilityBenchmark).
+ * <p>
+ * The P2PService of a node is a Mockito mock, so the test using it has to prepare P2PService and NetworkNode for
+ * mocking (see OpenOfferManagerTest).
+ */
+@Slf4j
+public class InMemoryP2PNetwork {
+    private final long latencyMs;
+    private final ScheduledExecutorService wire = Executors.newSingleThreadScheduledExecutor();
+    private final Map<NodeAddress, Node> nodes = new ConcurrentHashMap<>();
+    private final AtomicLong numMessages = new AtomicLong();
+
+    private static final class Node {
+        private final Executor executor;
+        private final PublicKey signaturePubKey;
+        private final List<DecryptedDirectMessageListener> listeners = new CopyOnWriteArrayList<>();
+
+        private Node(Executor executor, PublicKey signaturePubKey) {
+            this.executor = executor;
+            this.signaturePubKey = signaturePubKey;
+        }
+    }
+
+    public InMemoryP2PNetwork(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void addNode(NodeAddress nodeAddress, Executor executor, PublicKey signaturePubKey) {
+        nodes.put(nodeAddress, new Node(executor, signaturePubKey));
+    }
+
+    public void addListener(NodeAddress nodeAddress, DecryptedDirectMessageListener listener) {
+        getNode(nodeAddress).listeners.add(listener);
+    }
+
+    /**
+     * @return A bootstrapped P2PService mock of a node added before, which sends its direct messages over this network.
+     */
+    public P2PService createP2PService(NodeAddress nodeAddress) {
+        getNode(nodeAddress);
+        P2PService p2PService = mock(P2PService.class);
+        NetworkNode networkNode = mock(NetworkNode.class);
+        when(networkNode.getNodeAddress()).thenReturn(nodeAddress);
+        when(p2PService.getNetworkNode()).thenReturn(networkNode);
+        when(p2PService.getAddress()).thenReturn(nodeAddress);
+        when(p2PService.isBootstrapped()).thenReturn(true);
+        doAnswer(invocation -> {
+            addListener(nodeAddress, invocation.getArgument(0));
+            return null;
+        }).when(p2PService).addDecryptedDirectMessageListener(any(DecryptedDirectMessageListener.class));
+        doAnswer(invocation -> {
+            send(nodeAddress, invocation.getArgument(0), invocation.getArgument(2), invocation.getArgument(3));
+            return null;
+        }).when(p2PService).sendEncryptedDirectMessage(any(), any(), any(), any());
+        return p2PService;
+    }
+
+    public void send(NodeAddress sender, NodeAddress receiver, NetworkEnvelope envelope,
+                     @Nullable SendDirectMessageListener sendDirectMessageListener) {
+        Node senderNode = getNode(sender);
+        Node receiverNode = nodes.get(receiver);
+        numMessages.incrementAndGet();
+        wire.schedule(() -> {
+            if (receiverNode == null) {
+                if (sendDirectMessageListener != null)
+                    senderNode.executor.execute(() -> sendDirectMessageListener.onFault("Unknown peer " + receiver));
+                return;
+            }
+
+            receiverNode.executor.execute(() -> {
+                DecryptedMessageWithPubKey message = new DecryptedMessageWithPubKey(envelope, senderNode.signaturePubKey);
+                receiverNode.listeners.forEach(listener -> {
+                    try {
+                        listener.onDirectMessage(message, sender);
+                    } catch (Throwable t) {
+                        log.error("Listener at {} failed to handle {}. {}", receiver, envelope.getClass().getSimpleName(), t.toString());
+                    }
+                });
+            });
+            if (sendDirectMessageListener != null)
+                senderNode.executor.execute(sendDirectMessageListener::onArrived);
+        }, latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    public long getNumMessages() {
+        return numMessages.get();
+    }
+
+    public void shutDown() {
+        wire.shutdownNow();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Node getNode(NodeAddress nodeAddress) {
+        Node node = nodes.get(nodeAddress);
+        if (node == null)
+            throw new IllegalArgumentException("Unknown node " + nodeAddress);
+        return node;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.arbitration.Arbitrator;
+import bisq.core.btc.wallet.BtcWalletService;
+import bisq.core.network.p2p.InMemoryP2PNetwork;
+import bisq.core.offer.messages.OfferAvailabilityRequest;
+import bisq.core.offer.messages.OfferAvailabilityResponse;
+import bisq.core.user.Preferences;
+import bisq.core.user.User;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.PeerManager;
+
+import bisq.common.UserThread;
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.KeyStorage;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+import bisq.common.storage.FileUtil;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import javafx.collections.FXCollections;
+
+import java.security.Security;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static bisq.core.offer.OfferMaker.id;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the offer availability handshake of N concurrent takers against one maker. The maker side is the real
+ * OpenOfferManager, the P2P network is an InMemoryP2PNetwork with a fixed latency and each taker sends its next
+ * OfferAvailabilityRequest as soon as it got the response to the previous one. The executor of the maker node is also
+ * used as UserThread, so the responses get sent from the same single thread as in the application.
+ * <p>
+ * This covers only the offer availability handshake. The later steps of the trade protocol (PayDepositRequest, deposit
+ * and payout tx) need a wallet double which can sign and publish the trade transactions; that benchmark is still to
+ * be done. Until then use the TradeTaskMetrics of a regtest trade for those steps.
+ * <p>
+ * Ignored as it is a benchmark and not a unit test; adjust the parameters and run it manually.
+ */
+@Ignore
+@Slf4j
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({P2PService.class, PeerManager.class, NetworkNode.class, OfferBookService.class, BtcWalletService.class,
+        User.class, Preferences.class})
+@PowerMockIgnore({"javax.crypto.*", "javax.security.*", "org.bouncycastle.*"})
+public class OfferAvailabilityBenchmark {
+    private static final int NUM_TAKERS = 50;
+    private static final int NUM_REQUESTS_PER_TAKER = 100;
+    private static final long LATENCY_MS = 5;
+    private static final String OFFER_ID = "benchmark-offer";
+    private static final long OFFER_PRICE = 100000L;
+
+    private File storageDir;
+    private KeyRing keyRing;
+    private InMemoryP2PNetwork network;
+    private ExecutorService makerExecutor;
+    private ExecutorService takersExecutor;
+    private Executor userThreadExecutor;
+
+    @Before
+    public void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        storageDir = File.createTempFile("offer_availability_benchmark", "");
+        //noinspection ResultOfMethodCallIgnored
+        storageDir.delete();
+        //noinspection ResultOfMethodCallIgnored
+        storageDir.mkdir();
+        keyRing = new KeyRing(new KeyStorage(storageDir));
+
+        network = new InMemoryP2PNetwork(LATENCY_MS);
+        // One thread per side like the UserThread of the maker and a busy taker node
+        makerExecutor = Executors.newSingleThreadExecutor();
+        takersExecutor = Executors.newSingleThreadExecutor();
+        // The OpenOfferManager sends its responses from the UserThread, which is the thread of the maker node here
+        userThreadExecutor = UserThread.getExecutor();
+        UserThread.setExecutor(makerExecutor);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        UserThread.setExecutor(userThreadExecutor);
+        network.shutDown();
+        makerExecutor.shutdownNow();
+        takersExecutor.shutdownNow();
+        FileUtil.deleteDirectory(storageDir);
+    }
+
+    @Test
+    public void testConcurrentTakers() throws InterruptedException {
+        NodeAddress makerAddress = new NodeAddress("maker.onion", 9999);
+        network.addNode(makerAddress, makerExecutor, keyRing.getSignatureKeyPair().getPublic());
+        createOpenOfferManager(makerAddress);
+
+        int numRequests = NUM_TAKERS * NUM_REQUESTS_PER_TAKER;
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        Map<NodeAddress, Long> requestStartByTaker = new ConcurrentHashMap<>();
+        Map<NodeAddress, AtomicInteger> numResponsesByTaker = new ConcurrentHashMap<>();
+        AtomicInteger numAvailable = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(numRequests);
+
+        List<NodeAddress> takers = new ArrayList<>();
+        for (int i = 0; i < NUM_TAKERS; i++) {
+            NodeAddress takerAddress = new NodeAddress("taker" + i + ".onion", 9999);
+            takers.add(takerAddress);
+            numResponsesByTaker.put(takerAddress, new AtomicInteger());
+            network.addNode(takerAddress, takersExecutor, keyRing.getSignatureKeyPair().getPublic());
+            network.addListener(takerAddress, (decryptedMessageWithPubKey, peerNodeAddress) -> {
+                if (!(decryptedMessageWithPubKey.getNetworkEnvelope() instanceof OfferAvailabilityResponse))
+                    return;
+
+                OfferAvailabilityResponse response = (OfferAvailabilityResponse) decryptedMessageWithPubKey.getNetworkEnvelope();
+                latencies.add(System.nanoTime() - requestStartByTaker.get(takerAddress));
+                if (response.getAvailabilityResult() == AvailabilityResult.AVAILABLE)
+                    numAvailable.incrementAndGet();
+                latch.countDown();
+
+                if (numResponsesByTaker.get(takerAddress).incrementAndGet() < NUM_REQUESTS_PER_TAKER)
+                    sendRequest(takerAddress, makerAddress, requestStartByTaker);
+            });
+        }
+
+        long ts = System.nanoTime();
+        takers.forEach(takerAddress -> takersExecutor.execute(() -> sendRequest(takerAddress, makerAddress, requestStartByTaker)));
+        latch.await(5, TimeUnit.MINUTES);
+        long durationNanos = System.nanoTime() - ts;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        log.info("{} takers, {} requests, latency {} ms: {} handshakes/sec, p50={} ms, p99={} ms, max={} ms, messages={}",
+                NUM_TAKERS, sorted.size(), LATENCY_MS,
+                sorted.size() * TimeUnit.SECONDS.toNanos(1) / Math.max(1, durationNanos),
+                getPercentileMs(sorted, 50), getPercentileMs(sorted, 99), getPercentileMs(sorted, 100),
+                network.getNumMessages());
+
+        assertEquals(numRequests, sorted.size());
+        assertEquals(numRequests, numAvailable.get());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private OpenOfferManager createOpenOfferManager(NodeAddress makerAddress) {
+        User user = mock(User.class);
+        Arbitrator arbitrator = new Arbitrator(new NodeAddress("arbitrator.onion", 9999), null, null, null,
+                new ArrayList<>(), 0L, null, "", null,
+                null, null);
+        when(user.getAcceptedArbitratorsAsObservable()).thenReturn(FXCollections.observableArrayList(arbitrator));
+        Preferences preferences = mock(Preferences.class);
+        when(preferences.getIgnoreTradersListAsObservable()).thenReturn(FXCollections.observableArrayList());
+
+        OpenOfferManager openOfferManager = new OpenOfferManager(keyRing, user, network.createP2PService(makerAddress),
+                mock(BtcWalletService.class), null, null, mock(OfferBookService.class),
+                null, null, preferences, mock(PersistenceProtoResolver.class),
+                storageDir);
+        openOfferManager.readPersisted();
+        openOfferManager.getObservableList().add(new OpenOffer(make(btcUsdOffer.but(with(id, OFFER_ID))), null));
+        // Registers the manager as listener for direct messages at the network
+        openOfferManager.onAllServicesInitialized();
+        return openOfferManager;
+    }
+
+    private void sendRequest(NodeAddress takerAddress, NodeAddress makerAddress, Map<NodeAddress, Long> requestStartByTaker) {
+        requestStartByTaker.put(takerAddress, System.nanoTime());
+        network.send(takerAddress, makerAddress,
+                new OfferAvailabilityRequest(OFFER_ID, keyRing.getPubKeyRing(), OFFER_PRICE),
+                null);
+    }
+
+    private static long getPercentileMs(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty())
+            return 0;
+        int index = (int) Math.ceil(sorted.size() * percentile / 100d) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+    }
+}
@@ -25,6 +25,7 @@ import static com.natpryce.makeiteasy.MakeItEasy.a;
 
 public class OfferMaker {
 
+    public static final Property<Offer, String> id = new Property<>();
     public static final Property<Offer, Long> price = new Property<>();
     public static final Property<Offer, Long> minAmount = new Property<>();
     public static final Property<Offer, Long> amount = new Property<>();
@@ -35,7 +36,7 @@ public class OfferMaker {
     public static final Property<Offer, Double> marketPriceMargin = new Property<>();
 
     public static final Instantiator<Offer> Offer = lookup -> new Offer(
-            new OfferPayload("",
+            new OfferPayload(lookup.valueOf(id, ""),
                     0L,
                     null,
                     null,
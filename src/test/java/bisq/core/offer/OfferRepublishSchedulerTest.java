@@ -0,0 +1,236 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.common.Timer;
+import bisq.common.handlers.ErrorMessageHandler;
+import bisq.common.handlers.ResultHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static bisq.core.offer.OfferMaker.id;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(OfferBookService.class)
+public class OfferRepublishSchedulerTest {
+    private long now;
+    // The runnable of the timer which is currently running and when it fires
+    private Runnable timerRunnable;
+    private long timerDate;
+    private OfferRepublishScheduler scheduler;
+    private final Set<OpenOffer> activeOffers = new HashSet<>();
+    private final List<OpenOffer> republishedOffers = new ArrayList<>();
+    // The operations at the OfferBookService in their order, e.g. "add:1" or "refresh:2"
+    private final List<String> operations = new ArrayList<>();
+    // The result handlers of the last operation per offer ID
+    private final Map<String, ResultHandler> resultHandlers = new HashMap<>();
+    private final Map<String, ErrorMessageHandler> errorMessageHandlers = new HashMap<>();
+
+    @Before
+    public void setup() {
+        now = 1_000_000;
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        doAnswer(invocation -> {
+            recordOperation("add", ((Offer) invocation.getArgument(0)).getId(),
+                    invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(offerBookService).addOffer(any(), any(), any());
+        doAnswer(invocation -> {
+            recordOperation("refresh", ((OfferPayload) invocation.getArgument(0)).getId(),
+                    invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(offerBookService).refreshTTL(any(), any(), any());
+
+        scheduler = new OfferRepublishScheduler(offerBookService, activeOffers::contains, republishedOffers::add,
+                () -> now,
+                (runnable, delay) -> {
+                    timerRunnable = runnable;
+                    timerDate = now + delay;
+                    Timer timer = mock(Timer.class);
+                    doAnswer(invocation -> {
+                        if (timerRunnable == runnable)
+                            timerRunnable = null;
+                        return null;
+                    }).when(timer).stop();
+                    return timer;
+                });
+    }
+
+    private void recordOperation(String type, String offerId, ResultHandler resultHandler,
+                                 ErrorMessageHandler errorMessageHandler) {
+        operations.add(type + ":" + offerId);
+        resultHandlers.put(offerId, resultHandler);
+        errorMessageHandlers.put(offerId, errorMessageHandler);
+    }
+
+    // Moves the clock forward and fires the timers which are due
+    private void advance(long ms) {
+        long target = now + ms;
+        while (timerRunnable != null && timerDate <= target) {
+            now = timerDate;
+            Runnable runnable = timerRunnable;
+            timerRunnable = null;
+            runnable.run();
+        }
+        now = target;
+    }
+
+    private OpenOffer createOpenOffer(String offerId) {
+        OpenOffer openOffer = new OpenOffer(make(btcUsdOffer.but(with(id, offerId))), null);
+        activeOffers.add(openOffer);
+        return openOffer;
+    }
+
+    private List<OpenOffer> createOpenOffers(int numOffers) {
+        List<OpenOffer> openOffers = new ArrayList<>();
+        for (int i = 0; i < numOffers; i++)
+            openOffers.add(createOpenOffer(String.valueOf(i)));
+        return openOffers;
+    }
+
+    @Test
+    public void testTokensGetRefilled() {
+        scheduler.refresh(createOpenOffers(5));
+        assertEquals(5, scheduler.getBacklog());
+
+        // The bucket is full, so the first 3 refreshes are sent at once
+        advance(1);
+        assertEquals(Arrays.asList("refresh:0", "refresh:1", "refresh:2"), operations);
+
+        // A refresh costs 1 token and we get 10 tokens in 3 sec
+        advance(250);
+        assertEquals(3, operations.size());
+        advance(60);
+        assertEquals(4, operations.size());
+        advance(300);
+        assertEquals(5, operations.size());
+        assertEquals(0, scheduler.getBacklog());
+        assertNull(timerRunnable);
+
+        // A republish costs more tokens than a refresh
+        scheduler.republish(Collections.singletonList(createOpenOffer("republish")));
+        advance(1);
+        assertEquals(5, operations.size());
+        advance(700);
+        assertEquals("add:republish", operations.get(5));
+    }
+
+    @Test
+    public void testRequestsAreCoalesced() {
+        OpenOffer openOffer = createOpenOffer("1");
+        scheduler.refresh(Collections.singletonList(openOffer));
+        scheduler.refresh(Collections.singletonList(openOffer));
+        // A republish supersedes the refresh and a later refresh does not downgrade it
+        scheduler.republish(Collections.singletonList(openOffer));
+        scheduler.refresh(Collections.singletonList(openOffer));
+        assertEquals(1, scheduler.getBacklog());
+
+        advance(1);
+        assertEquals(Collections.singletonList("add:1"), operations);
+        resultHandlers.get("1").handleResult();
+        assertEquals(Collections.singletonList(openOffer), republishedOffers);
+        assertEquals(1, scheduler.getNumRepublished());
+    }
+
+    @Test
+    public void testInactiveOffersAreSkipped() {
+        List<OpenOffer> openOffers = createOpenOffers(2);
+        scheduler.republish(openOffers);
+        activeOffers.remove(openOffers.get(0));
+
+        advance(1);
+        assertEquals(Collections.singletonList("add:1"), operations);
+        assertEquals(0, scheduler.getBacklog());
+    }
+
+    @Test
+    public void testFailedOfferIsRetriedWithBackoff() {
+        OpenOffer failing = createOpenOffer("failing");
+        scheduler.refresh(Collections.singletonList(failing));
+        advance(1);
+        assertEquals(Collections.singletonList("refresh:failing"), operations);
+
+        // A failed refresh is retried as republish after 10 sec
+        errorMessageHandlers.get("failing").handleErrorMessage("error");
+        assertEquals(1, scheduler.getNumRetries());
+        advance(9_000);
+        assertEquals(1, operations.size());
+
+        // The retry of one offer does not delay the others
+        scheduler.refresh(Collections.singletonList(createOpenOffer("other")));
+        advance(1);
+        assertEquals(Arrays.asList("refresh:failing", "refresh:other"), operations);
+
+        advance(998);
+        assertEquals(2, operations.size());
+        advance(1);
+        assertEquals("add:failing", operations.get(2));
+
+        // The next retry waits twice as long
+        errorMessageHandlers.get("failing").handleErrorMessage("error");
+        advance(19_999);
+        assertEquals(3, operations.size());
+        advance(1);
+        assertEquals("add:failing", operations.get(3));
+        assertEquals(2, scheduler.getNumFailed());
+
+        // A new republish request does not wait for the retry
+        errorMessageHandlers.get("failing").handleErrorMessage("error");
+        scheduler.republish(Collections.singletonList(failing));
+        advance(1_000);
+        assertEquals("add:failing", operations.get(4));
+
+        // After a success there is no retry anymore
+        resultHandlers.get("failing").handleResult();
+        advance(600_000);
+        assertEquals(5, operations.size());
+        assertEquals(Collections.singletonList(failing), republishedOffers);
+    }
+
+    @Test
+    public void testClearStopsTimer() {
+        scheduler.refresh(createOpenOffers(10));
+        advance(1);
+        scheduler.clear();
+        assertNull(timerRunnable);
+        advance(10_000);
+        assertEquals(3, operations.size());
+    }
+}
@@ -1,12 +1,23 @@
 package bisq.core.offer;
 
+import bisq.core.offer.messages.OfferAvailabilityRequest;
+import bisq.core.offer.messages.OfferAvailabilityResponse;
+
+import bisq.network.p2p.DecryptedMessageWithPubKey;
+import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.P2PService;
+import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.peers.PeerManager;
 
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
 import bisq.common.storage.Storage;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.powermock.core.classloader.annotations.PrepareForTest;
@@ -17,8 +28,11 @@ import org.junit.runner.RunWith;
 
 import static bisq.core.offer.OfferMaker.btcUsdOffer;
 import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(PowerMockRunner.class)
@@ -117,4 +131,86 @@ public class OpenOfferManagerTest {
         assertTrue(startEditOfferSuccessful.get());
     }
 
+    @Test
+    public void testReserveOpenOfferConcurrently() throws Exception {
+        P2PService p2PService = mock(P2PService.class);
+        when(p2PService.getPeerManager()).thenReturn(mock(PeerManager.class));
+        final OpenOfferManager manager = new OpenOfferManager(null, null, p2PService,
+                null, null, null, mock(OfferBookService.class),
+                null, null, null, null,
+                null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 100; i++) {
+                final OpenOffer openOffer = new OpenOffer(make(btcUsdOffer), mock(Storage.class));
+                CountDownLatch start = new CountDownLatch(1);
+                Future<Boolean> first = executor.submit(() -> {
+                    start.await();
+                    return manager.reserveOpenOffer(openOffer);
+                });
+                Future<Boolean> second = executor.submit(() -> {
+                    start.await();
+                    return manager.reserveOpenOffer(openOffer);
+                });
+                start.countDown();
+
+                assertTrue(first.get(5, TimeUnit.SECONDS) ^ second.get(5, TimeUnit.SECONDS));
+                assertEquals(OpenOffer.State.RESERVED, openOffer.getState());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOfferAvailabilityRequestIsRejectedIfQueueIsFull() throws Exception {
+        P2PService p2PService = mock(P2PService.class);
+        when(p2PService.getPeerManager()).thenReturn(mock(PeerManager.class));
+        when(p2PService.getNetworkNode()).thenReturn(mock(NetworkNode.class));
+        // The handlers wait at the bootstrap check until we release them
+        CountDownLatch release = new CountDownLatch(1);
+        when(p2PService.isBootstrapped()).thenAnswer(invocation -> release.await(10, TimeUnit.SECONDS));
+        final OpenOfferManager manager = new OpenOfferManager(null, null, p2PService,
+                null, null, null, mock(OfferBookService.class),
+                null, null, null, null,
+                null);
+
+        NodeAddress peer = new NodeAddress("taker.onion", 9999);
+        try {
+            int numAccepted = OpenOfferManager.AVAILABILITY_THREADS + OpenOfferManager.AVAILABILITY_QUEUE_CAPACITY;
+            for (int i = 0; i < numAccepted; i++)
+                manager.onDirectMessage(new DecryptedMessageWithPubKey(new OfferAvailabilityRequest("offerId", null, 0), null), peer);
+
+            verify(p2PService, never()).sendEncryptedDirectMessage(any(), any(), any(), any());
+
+            manager.onDirectMessage(new DecryptedMessageWithPubKey(new OfferAvailabilityRequest("offerId", null, 0), null), peer);
+
+            verify(p2PService, times(1)).sendEncryptedDirectMessage(eq(peer), any(),
+                    argThat(message -> message instanceof OfferAvailabilityResponse &&
+                            ((OfferAvailabilityResponse) message).getAvailabilityResult() == AvailabilityResult.UNKNOWN_FAILURE),
+                    any());
+        } finally {
+            release.countDown();
+            manager.shutDown();
+        }
+    }
+
+    @Test
+    public void testOfferAvailabilityRequestAfterShutDownIsNotHandled() {
+        P2PService p2PService = mock(P2PService.class);
+        when(p2PService.getPeerManager()).thenReturn(mock(PeerManager.class));
+        when(p2PService.getNetworkNode()).thenReturn(mock(NetworkNode.class));
+        final OpenOfferManager manager = new OpenOfferManager(null, null, p2PService,
+                null, null, null, mock(OfferBookService.class),
+                null, null, null, null,
+                null);
+        manager.shutDown();
+
+        NodeAddress peer = new NodeAddress("taker.onion", 9999);
+        manager.onDirectMessage(new DecryptedMessageWithPubKey(new OfferAvailabilityRequest("offerId", null, 0), null), peer);
+
+        verify(p2PService, never()).sendEncryptedDirectMessage(any(), any(),
+                argThat(message -> message instanceof OfferAvailabilityResponse), any());
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.payment;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AccountAgeWitnessIndexTest {
+
+    @Test
+    public void testPutAndGet() {
+        AccountAgeWitnessIndex index = new AccountAgeWitnessIndex();
+        Random random = new Random(1);
+        byte[][] hashes = new byte[5000][];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = new byte[AccountAgeWitnessIndex.HASH_LENGTH];
+            random.nextBytes(hashes[i]);
+            assertTrue(index.putIfAbsent(hashes[i], i));
+        }
+        assertEquals(hashes.length, index.size());
+
+        for (int i = 0; i < hashes.length; i++)
+            assertEquals(i, index.getDate(hashes[i].clone()));
+
+        // First witness wins
+        assertFalse(index.putIfAbsent(hashes[7], 1000));
+        assertEquals(7, index.getDate(hashes[7]));
+        assertEquals(hashes.length, index.size());
+    }
+
+    @Test
+    public void testCollidingHashCodes() {
+        AccountAgeWitnessIndex index = new AccountAgeWitnessIndex();
+        // Same first 4 bytes, so all land in the same slot
+        byte[] hash1 = new byte[AccountAgeWitnessIndex.HASH_LENGTH];
+        byte[] hash2 = new byte[AccountAgeWitnessIndex.HASH_LENGTH];
+        hash2[19] = 1;
+        index.putIfAbsent(hash1, 1);
+        index.putIfAbsent(hash2, 2);
+        assertEquals(1, index.getDate(hash1));
+        assertEquals(2, index.getDate(hash2));
+    }
+
+    @Test
+    public void testInvalidHash() {
+        AccountAgeWitnessIndex index = new AccountAgeWitnessIndex();
+        assertFalse(index.putIfAbsent(new byte[0], 1));
+        assertFalse(index.contains(new byte[0]));
+        assertFalse(index.contains(null));
+        assertEquals(AccountAgeWitnessIndex.NOT_FOUND, index.getDate(new byte[AccountAgeWitnessIndex.HASH_LENGTH]));
+    }
+}
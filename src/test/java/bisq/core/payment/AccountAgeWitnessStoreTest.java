@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.payment;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import io.bisq.generated.protobuffer.PB;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AccountAgeWitnessStoreTest {
+    private static Map<P2PDataStorage.ByteArray, AccountAgeWitness> createWitnesses(int numWitnesses) {
+        Random random = new Random(1);
+        Map<P2PDataStorage.ByteArray, AccountAgeWitness> witnesses = new HashMap<>();
+        for (int i = 0; i < numWitnesses; i++) {
+            byte[] hash = new byte[AccountAgeWitnessIndex.HASH_LENGTH];
+            random.nextBytes(hash);
+            witnesses.put(new P2PDataStorage.ByteArray(hash), new AccountAgeWitness(hash, 1000 + i));
+        }
+        return witnesses;
+    }
+
+    @Test
+    public void testMapViewOfIndex() {
+        AccountAgeWitnessStore store = new AccountAgeWitnessStore();
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = store.getMap();
+        Map<P2PDataStorage.ByteArray, AccountAgeWitness> witnesses = createWitnesses(3000);
+        witnesses.forEach((key, witness) -> assertNull(map.putIfAbsent(key, witness)));
+
+        assertEquals(witnesses.size(), map.size());
+        assertEquals(witnesses.size(), store.getIndex().size());
+        witnesses.forEach((key, witness) -> {
+            assertTrue(store.containsKey(key));
+            assertEquals(witness, map.get(key));
+        });
+
+        // First witness wins
+        AccountAgeWitness first = witnesses.values().iterator().next();
+        P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(first.getHash());
+        assertEquals(first, map.put(key, new AccountAgeWitness(first.getHash(), 1)));
+        assertEquals(first, map.get(key));
+
+        assertEquals(witnesses, new HashMap<>(map));
+        assertFalse(map.containsKey(new P2PDataStorage.ByteArray(new byte[AccountAgeWitnessIndex.HASH_LENGTH])));
+    }
+
+    @Test
+    public void testInvalidWitnessIsRejected() {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new AccountAgeWitnessStore().getMap();
+        byte[] hash = new byte[AccountAgeWitnessIndex.HASH_LENGTH];
+        byte[] otherHash = new byte[AccountAgeWitnessIndex.HASH_LENGTH];
+        otherHash[0] = 1;
+        byte[] invalidHash = new byte[AccountAgeWitnessIndex.HASH_LENGTH + 1];
+
+        assertPutFails(map, new P2PDataStorage.ByteArray(otherHash), new AccountAgeWitness(hash, 1000));
+        assertPutFails(map, new P2PDataStorage.ByteArray(invalidHash), new AccountAgeWitness(invalidHash, 1000));
+        assertEquals(0, map.size());
+    }
+
+    private static void assertPutFails(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map,
+                                       P2PDataStorage.ByteArray key, AccountAgeWitness witness) {
+        try {
+            map.put(key, witness);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException ignore) {
+        }
+        assertFalse(map.containsKey(key));
+    }
+
+    @Test
+    public void testProtoRoundTrip() {
+        AccountAgeWitnessStore store = new AccountAgeWitnessStore();
+        Map<P2PDataStorage.ByteArray, AccountAgeWitness> witnesses = createWitnesses(100);
+        witnesses.forEach(store.getMap()::put);
+
+        PB.AccountAgeWitnessStore proto = ((PB.PersistableEnvelope) store.toProtoMessage()).getAccountAgeWitnessStore();
+        AccountAgeWitnessStore persisted = (AccountAgeWitnessStore) AccountAgeWitnessStore.fromProto(proto);
+
+        assertEquals(witnesses.size(), proto.getItemsCount());
+        assertEquals(witnesses, new HashMap<>(persisted.getMap()));
+    }
+}
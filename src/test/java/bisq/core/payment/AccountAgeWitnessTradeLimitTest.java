@@ -0,0 +1,62 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.payment;
+
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import org.bitcoinj.core.Coin;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class AccountAgeWitnessTradeLimitTest {
+    private static final Coin MAX_TRADE_LIMIT = Coin.parseCoin("1");
+
+    private AccountAgeWitnessService service;
+
+    @Before
+    public void setup() {
+        service = new AccountAgeWitnessService(null, null, null, null, mock(AppendOnlyDataStoreService.class));
+    }
+
+    @Test
+    public void testFiatLimitWithoutWitness() {
+        assertEquals(MAX_TRADE_LIMIT.value / 4, service.getTradeLimit(MAX_TRADE_LIMIT, "EUR", Optional.empty()));
+    }
+
+    @Test
+    public void testFiatLimitByAccountAge() {
+        assertEquals(MAX_TRADE_LIMIT.value / 4,
+                service.getTradeLimit(MAX_TRADE_LIMIT, "EUR", Optional.of(TimeUnit.DAYS.toMillis(10))));
+        assertEquals(MAX_TRADE_LIMIT.value / 2,
+                service.getTradeLimit(MAX_TRADE_LIMIT, "EUR", Optional.of(TimeUnit.DAYS.toMillis(45))));
+        assertEquals(MAX_TRADE_LIMIT.value,
+                service.getTradeLimit(MAX_TRADE_LIMIT, "EUR", Optional.of(TimeUnit.DAYS.toMillis(90))));
+    }
+
+    @Test
+    public void testAltcoinLimitIsNotReduced() {
+        assertEquals(MAX_TRADE_LIMIT.value, service.getTradeLimit(MAX_TRADE_LIMIT, "XMR", Optional.empty()));
+    }
+}
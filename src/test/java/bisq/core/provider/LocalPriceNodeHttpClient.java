@@ -0,0 +1,196 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.provider;
+
+import java.time.Instant;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process stand-in for a price node. It serves recorded or synthetic getAllMarketPrices and getFees responses
+ * without network access, so PriceFeedService and FeeService can be run and measured offline (e.g. with a
+ * PriceProvider or FeeProvider created with this client).
+ * <p>
+ * Recorded responses are replayed in a loop. If no responses are recorded we create synthetic data for
+ * numCurrencies currencies where each price changes with priceChangeProbability at each request.
+ */
+@Slf4j
+public class LocalPriceNodeHttpClient extends PriceNodeHttpClient {
+    public static final String GET_ALL_MARKET_PRICES = "getAllMarketPrices";
+    public static final String GET_FEES = "getFees";
+
+    private final List<String> recordedMarketPrices = new ArrayList<>();
+    private final List<String> recordedFees = new ArrayList<>();
+    private final Random random;
+    private double[] syntheticPrices = new double[0];
+    private int marketPricesIndex;
+    private int feesIndex;
+
+    @Setter
+    private int numCurrencies = 100;
+    @Setter
+    private double priceChangeProbability = 0.1;
+    @Setter
+    private long responseDelayMs;
+    @Setter
+    private double failureRate;
+
+    @Getter
+    private final AtomicInteger numRequests = new AtomicInteger();
+    // System.nanoTime() when the last response was returned, used for measuring the latency of the consumers
+    @Getter
+    private volatile long lastResponseNanoTime;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public LocalPriceNodeHttpClient() {
+        this(new Random().nextLong());
+    }
+
+    public LocalPriceNodeHttpClient(long seed) {
+        super(null);
+        random = new Random(seed);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized void setRecordedMarketPrices(List<String> jsonResponses) {
+        recordedMarketPrices.clear();
+        recordedMarketPrices.addAll(jsonResponses);
+        marketPricesIndex = 0;
+    }
+
+    public synchronized void setRecordedFees(List<String> jsonResponses) {
+        recordedFees.clear();
+        recordedFees.addAll(jsonResponses);
+        feesIndex = 0;
+    }
+
+    public static String getSyntheticCurrencyCode(int index) {
+        if (index < 26 * 26)
+            return "X" + (char) ('A' + index / 26) + (char) ('A' + index % 26);
+        else
+            return "X" + index;
+    }
+
+    @Override
+    public String requestWithGET(String param, String headerKey, String headerValue) throws IOException {
+        numRequests.incrementAndGet();
+        if (responseDelayMs > 0) {
+            try {
+                Thread.sleep(responseDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Request got interrupted");
+            }
+        }
+
+        String response;
+        synchronized (this) {
+            if (random.nextDouble() < failureRate)
+                throw new IOException("Simulated failure at request " + param);
+
+            switch (param) {
+                case GET_ALL_MARKET_PRICES:
+                    response = getMarketPricesResponse();
+                    break;
+                case GET_FEES:
+                    response = getFeesResponse();
+                    break;
+                default:
+                    throw new IOException("Unsupported request " + param);
+            }
+        }
+        lastResponseNanoTime = System.nanoTime();
+        return response;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalPriceNodeHttpClient{" +
+                "\n     numCurrencies=" + numCurrencies +
+                ",\n     priceChangeProbability=" + priceChangeProbability +
+                ",\n     responseDelayMs=" + responseDelayMs +
+                ",\n     failureRate=" + failureRate +
+                ",\n     numRequests=" + numRequests +
+                "\n}";
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private String getMarketPricesResponse() {
+        if (!recordedMarketPrices.isEmpty())
+            return recordedMarketPrices.get(marketPricesIndex++ % recordedMarketPrices.size());
+
+        if (syntheticPrices.length != numCurrencies) {
+            syntheticPrices = new double[numCurrencies];
+            for (int i = 0; i < numCurrencies; i++)
+                syntheticPrices[i] = 1 + random.nextInt(10_000);
+        }
+
+        long now = Instant.now().getEpochSecond();
+        StringBuilder sb = new StringBuilder(numCurrencies * 80 + 100);
+        sb.append("{\"data\":[");
+        for (int i = 0; i < numCurrencies; i++) {
+            if (random.nextDouble() < priceChangeProbability)
+                syntheticPrices[i] = Math.max(0.0001, syntheticPrices[i] * (1 + (random.nextDouble() - 0.5) / 100));
+
+            if (i > 0)
+                sb.append(',');
+            sb.append("{\"currencyCode\":\"").append(getSyntheticCurrencyCode(i))
+                    .append("\",\"price\":").append(syntheticPrices[i])
+                    .append(",\"timestampSec\":").append(now)
+                    .append(",\"provider\":\"LOCAL\"}");
+        }
+        sb.append("],\"btcAverageTs\":").append(now)
+                .append(",\"poloniexTs\":").append(now)
+                .append(",\"coinmarketcapTs\":").append(now)
+                .append('}');
+        return sb.toString();
+    }
+
+    private String getFeesResponse() {
+        if (!recordedFees.isEmpty())
+            return recordedFees.get(feesIndex++ % recordedFees.size());
+
+        return "{\"dataMap\":{" +
+                "\"btcTxFee\":" + (20 + random.nextInt(200)) +
+                ",\"ltcTxFee\":" + (500 + random.nextInt(100)) +
+                ",\"dashTxFee\":" + (50 + random.nextInt(10)) +
+                "},\"bitcoinFeesTs\":" + Instant.now().getEpochSecond() +
+                "}";
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.provider.price;
+
+import bisq.core.provider.LocalPriceNodeHttpClient;
+import bisq.core.provider.ProvidersRepository;
+import bisq.core.provider.fee.FeeProvider;
+import bisq.core.provider.fee.FeeService;
+import bisq.core.user.Preferences;
+
+import bisq.common.UserThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the latency from the response of a LocalPriceNodeHttpClient until the price and fee updates reach
+ * their listeners (alerts use the updateCounter, offer re-pricing the market price of its currency).
+ * With a failureRate > 0 it measures how long the PriceFeedService needs to get a price again after a failed request.
+ * Ignored as it is a benchmark and not a unit test; adjust the parameters and run it manually.
+ */
+@Ignore
+@Slf4j
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Preferences.class)
+public class PriceFeedServiceBenchmark {
+    private static final int NUM_ROUNDS = 200;
+    private static final int NUM_CURRENCIES = 500;
+    private static final double PRICE_CHANGE_PROBABILITY = 0.05;
+    private static final long RESPONSE_DELAY_MS = 0;
+    // Parameters of the recovery run. As PriceFeedService waits PERIOD_SEC (60 sec) between successful requests and
+    // the retry delay grows by 5 sec per failure, a run takes several minutes.
+    private static final double FAILURE_RATE = 0.5;
+    private static final long RECOVERY_RUN_DURATION_SEC = 600;
+
+    private LocalPriceNodeHttpClient httpClient;
+    private ProvidersRepository providersRepository;
+
+    @Before
+    public void setUp() {
+        UserThread.setExecutor(Executors.newSingleThreadExecutor());
+
+        httpClient = new LocalPriceNodeHttpClient(1);
+        httpClient.setNumCurrencies(NUM_CURRENCIES);
+        httpClient.setPriceChangeProbability(PRICE_CHANGE_PROBABILITY);
+        httpClient.setResponseDelayMs(RESPONSE_DELAY_MS);
+
+        providersRepository = mock(ProvidersRepository.class);
+        when(providersRepository.getBaseUrl()).thenReturn("http://localhost:8080/");
+    }
+
+    @Test
+    public void testPriceUpdateLatency() throws InterruptedException {
+        PriceFeedService priceFeedService = new PriceFeedService(httpClient, providersRepository, mock(Preferences.class));
+        String currencyCode = LocalPriceNodeHttpClient.getSyntheticCurrencyCode(0);
+        priceFeedService.setCurrencyCode(currencyCode);
+
+        List<Long> updateCounterLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> marketPriceLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<CountDownLatch> latch = new AtomicReference<>();
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) -> {
+            updateCounterLatencies.add(System.nanoTime() - httpClient.getLastResponseNanoTime());
+            latch.get().countDown();
+        });
+        priceFeedService.addMarketPriceListener(currencyCode, marketPrice ->
+                marketPriceLatencies.add(System.nanoTime() - httpClient.getLastResponseNanoTime()));
+
+        int numUnchanged = 0;
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            latch.set(new CountDownLatch(1));
+            UserThread.execute(priceFeedService::initialRequestPriceFeed);
+            // If no price has changed the updateCounter is not incremented
+            if (!latch.get().await(RESPONSE_DELAY_MS + 1000, TimeUnit.MILLISECONDS))
+                numUnchanged++;
+        }
+
+        log.info("{} rounds with {} currencies, {} rounds without price change, {} requests",
+                NUM_ROUNDS, NUM_CURRENCIES, numUnchanged, httpClient.getNumRequests().get());
+        logLatencies("updateCounter", updateCounterLatencies);
+        logLatencies("market price " + currencyCode, marketPriceLatencies);
+    }
+
+    @Test
+    public void testRecoveryAfterFailures() throws InterruptedException {
+        httpClient.setFailureRate(FAILURE_RATE);
+        PriceFeedService priceFeedService = new PriceFeedService(httpClient, providersRepository, mock(Preferences.class));
+        priceFeedService.setCurrencyCode(LocalPriceNodeHttpClient.getSyntheticCurrencyCode(0));
+
+        // The time from the first failed request of a series of failures until we got a price again
+        List<Long> recoveryTimes = Collections.synchronizedList(new ArrayList<>());
+        // The number of failed requests until we got a price again
+        List<Long> numFailuresUntilRecovery = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong firstFailureNanoTime = new AtomicLong();
+        AtomicInteger numFailures = new AtomicInteger();
+        AtomicInteger numPrices = new AtomicInteger();
+        // The handlers get called at the UserThread
+        UserThread.execute(() -> priceFeedService.requestPriceFeed(price -> {
+                    numPrices.incrementAndGet();
+                    if (numFailures.get() > 0) {
+                        recoveryTimes.add(System.nanoTime() - firstFailureNanoTime.get());
+                        numFailuresUntilRecovery.add((long) numFailures.getAndSet(0));
+                    }
+                },
+                (errorMessage, throwable) -> {
+                    if (numFailures.getAndIncrement() == 0)
+                        firstFailureNanoTime.set(System.nanoTime());
+                }));
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(RECOVERY_RUN_DURATION_SEC));
+
+        log.info("{} sec with failureRate {}: {} requests, {} prices, {} recoveries, {} failures pending",
+                RECOVERY_RUN_DURATION_SEC, FAILURE_RATE, httpClient.getNumRequests().get(), numPrices.get(),
+                recoveryTimes.size(), numFailures.get());
+        logLatencies("recovery", recoveryTimes);
+        if (!numFailuresUntilRecovery.isEmpty()) {
+            List<Long> sorted = new ArrayList<>(numFailuresUntilRecovery);
+            Collections.sort(sorted);
+            log.info("failures until recovery: median={}, max={}",
+                    getPercentile(sorted, 50), sorted.get(sorted.size() - 1));
+        }
+    }
+
+    @Test
+    public void testFeeUpdateLatency() throws InterruptedException {
+        FeeService feeService = new FeeService(new FeeProvider(httpClient, providersRepository));
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(1);
+        feeService.feeUpdateCounterProperty().addListener((observable, oldValue, newValue) -> {
+            latencies.add(System.nanoTime() - httpClient.getLastResponseNanoTime());
+            latch.countDown();
+        });
+
+        // FeeService does not request more often than each MIN_PAUSE_BETWEEN_REQUESTS_IN_MIN, so we do one request
+        feeService.requestFees(null, null);
+        latch.await(RESPONSE_DELAY_MS + 5000, TimeUnit.MILLISECONDS);
+        logLatencies("fee", latencies);
+    }
+
+    private static void logLatencies(String name, List<Long> latencies) {
+        if (latencies.isEmpty()) {
+            log.info("No {} updates", name);
+            return;
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        log.info("{} latency of {} updates in µs: min={}, median={}, p90={}, p99={}, max={}",
+                name,
+                sorted.size(),
+                sorted.get(0) / 1000,
+                getPercentile(sorted, 50) / 1000,
+                getPercentile(sorted, 90) / 1000,
+                getPercentile(sorted, 99) / 1000,
+                sorted.get(sorted.size() - 1) / 1000);
+    }
+
+    private static long getPercentile(List<Long> sorted, int percentile) {
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percentile / 100));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.provider.price;
+
+import bisq.common.util.Tuple2;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PriceProviderTest {
+
+    @Test
+    public void testParseAll() throws IOException {
+        String json = "{\"data\":[" +
+                "{\"currencyCode\":\"EUR\",\"price\":5523.45,\"timestampSec\":1.532263204E9,\"provider\":\"BTCA_L\"}," +
+                "{\"currencyCode\":\"XMR\",\"price\":0.01763,\"timestampSec\":1532263158,\"extra\":{\"a\":[1,2]}}," +
+                "{\"currencyCode\":\"USD\",\"price\":null,\"timestampSec\":1532263204}" +
+                "]," +
+                "\"btcAverageTs\":1532263204," +
+                "\"poloniexTs\":1.532263158E9," +
+                "\"coinmarketcapTs\":1532263100}";
+
+        Tuple2<Map<String, Long>, Map<String, MarketPrice>> result = PriceProvider.parseAll(new StringReader(json));
+
+        assertEquals(1532263204L, (long) result.first.get("btcAverageTs"));
+        assertEquals(1532263158L, (long) result.first.get("poloniexTs"));
+        assertEquals(1532263100L, (long) result.first.get("coinmarketcapTs"));
+
+        Map<String, MarketPrice> marketPriceMap = result.second;
+        assertEquals(2, marketPriceMap.size());
+        assertEquals(new MarketPrice("EUR", 5523.45, 1532263204L, true), marketPriceMap.get("EUR"));
+        assertEquals(new MarketPrice("XMR", 0.01763, 1532263158L, true), marketPriceMap.get("XMR"));
+        // Items without price are ignored
+        assertFalse(marketPriceMap.containsKey("USD"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testParseInvalidJson() throws IOException {
+        PriceProvider.parseAll(new StringReader("{\"data\":{}}"));
+    }
+
+    @Test
+    public void testParseEmpty() throws IOException {
+        assertTrue(PriceProvider.parseAll(new StringReader("{}")).second.isEmpty());
+    }
+}
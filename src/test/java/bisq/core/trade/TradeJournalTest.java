@@ -0,0 +1,338 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TradeJournalTest {
+    private static final byte UPDATE = 1;
+    private static final byte REMOVE = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // The state of the mocked trades, which gets written by the fake serializer
+    private final Map<Trade, String> stateByTrade = new ConcurrentHashMap<>();
+    private final AtomicInteger numSnapshots = new AtomicInteger();
+    private File storageDir;
+    private File journalFile;
+
+    @Before
+    public void setup() throws IOException {
+        storageDir = folder.newFolder();
+        journalFile = new File(storageDir, TradeJournal.FILE_NAME);
+    }
+
+    private Trade createTrade(String id, String state) {
+        Trade trade = mock(Trade.class);
+        when(trade.getId()).thenReturn(id);
+        stateByTrade.put(trade, state);
+        return trade;
+    }
+
+    private TradeJournal createJournal() {
+        return new TradeJournal(storageDir,
+                trade -> (trade.getId() + ":" + stateByTrade.get(trade)).getBytes(StandardCharsets.UTF_8),
+                bytes -> {
+                    String[] tokens = new String(bytes, StandardCharsets.UTF_8).split(":", 2);
+                    if (tokens.length != 2 || tokens[1].equals("corrupted"))
+                        throw new IllegalArgumentException("Cannot parse trade");
+                    return createTrade(tokens[0], tokens[1]);
+                },
+                numSnapshots::incrementAndGet);
+    }
+
+    private List<String> toStates(List<Trade> trades) {
+        return trades.stream()
+                .map(trade -> trade.getId() + ":" + stateByTrade.get(trade))
+                .collect(Collectors.toList());
+    }
+
+    private List<String> load(List<Trade> fallbackTrades) {
+        TradeJournal journal = createJournal();
+        List<Trade> trades = journal.load(fallbackTrades);
+        assertTrue(journal.isEnabled());
+        return toStates(trades);
+    }
+
+    private void writeJournal(int version, JournalWriter writer) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journalFile))) {
+            out.writeInt(version);
+            writer.write(out);
+        }
+    }
+
+    private static void writeUpdate(DataOutputStream out, String tradeId, String state) throws IOException {
+        byte[] bytes = (tradeId + ":" + state).getBytes(StandardCharsets.UTF_8);
+        out.writeByte(UPDATE);
+        out.writeUTF(tradeId);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeRemove(DataOutputStream out, String tradeId) throws IOException {
+        out.writeByte(REMOVE);
+        out.writeUTF(tradeId);
+    }
+
+    private File[] getBackupFiles() {
+        File[] files = new File(storageDir, "backup_of_corrupted_data").listFiles();
+        return files != null ? files : new File[0];
+    }
+
+    private interface JournalWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @Test
+    public void testUpdateAndRemoveAreReplayed() {
+        TradeJournal journal = createJournal();
+        assertTrue(journal.load(new ArrayList<>()).isEmpty());
+        journal.compact();
+        Trade trade1 = createTrade("1", "created");
+        Trade trade2 = createTrade("2", "created");
+        journal.update(trade1);
+        journal.update(trade2);
+        journal.shutDown();
+
+        journal = createJournal();
+        List<Trade> trades = journal.load(new ArrayList<>());
+        assertEquals(Arrays.asList("1:created", "2:created"), toStates(trades));
+        journal.compact();
+        trade1 = trades.get(0);
+        trade2 = trades.get(1);
+        stateByTrade.put(trade1, "depositPublished");
+        journal.update(trade1);
+        journal.remove(trade2);
+        journal.shutDown();
+
+        assertEquals(Collections.singletonList("1:depositPublished"), load(new ArrayList<>()));
+    }
+
+    @Test
+    public void testLastRecordOfTradeWins() throws IOException {
+        writeJournal(1, out -> {
+            writeUpdate(out, "1", "created");
+            writeUpdate(out, "2", "created");
+            writeUpdate(out, "1", "depositPublished");
+            writeRemove(out, "2");
+            writeUpdate(out, "3", "created");
+            writeRemove(out, "3");
+            writeUpdate(out, "3", "readded");
+        });
+
+        assertEquals(Arrays.asList("1:depositPublished", "3:readded"), load(new ArrayList<>()));
+        assertEquals(0, getBackupFiles().length);
+    }
+
+    @Test
+    public void testTruncatedLastRecordIsIgnored() throws IOException {
+        writeJournal(1, out -> {
+            writeUpdate(out, "1", "created");
+            writeUpdate(out, "2", "created");
+            writeUpdate(out, "1", "depositPublished");
+        });
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        assertEquals(Arrays.asList("1:created", "2:created"), load(new ArrayList<>()));
+
+        // Also if the record is cut off in its header
+        writeJournal(1, out -> {
+            writeUpdate(out, "1", "created");
+            out.writeByte(UPDATE);
+        });
+        assertEquals(Collections.singletonList("1:created"), load(new ArrayList<>()));
+    }
+
+    @Test
+    public void testCorruptedLengthKeepsRecordsBefore() throws IOException {
+        for (int length : new int[]{-1, Integer.MAX_VALUE}) {
+            writeJournal(1, out -> {
+                writeUpdate(out, "1", "created");
+                out.writeByte(UPDATE);
+                out.writeUTF("2");
+                out.writeInt(length);
+                writeUpdate(out, "3", "created");
+            });
+            byte[] journal = Files.readAllBytes(journalFile.toPath());
+
+            assertEquals(Collections.singletonList("1:created"), load(new ArrayList<>()));
+            assertTrue(journalFile.exists());
+            File[] backupFiles = getBackupFiles();
+            assertEquals(1, backupFiles.length);
+            assertArrayEquals(journal, Files.readAllBytes(backupFiles[0].toPath()));
+            assertTrue(backupFiles[0].delete());
+        }
+    }
+
+    @Test
+    public void testUnparsableRecordFallsBackToPreviousRecordOrPendingTrades() throws IOException {
+        writeJournal(1, out -> {
+            writeUpdate(out, "1", "created");
+            writeUpdate(out, "1", "corrupted");
+            writeUpdate(out, "2", "corrupted");
+            writeUpdate(out, "3", "corrupted");
+        });
+        List<Trade> fallbackTrades = Collections.singletonList(createTrade("2", "fromPendingTrades"));
+
+        // Trade 3 is neither in the journal nor in the PendingTrades file, so it cannot be recovered
+        assertEquals(Arrays.asList("1:created", "2:fromPendingTrades"), load(fallbackTrades));
+        assertEquals(1, getBackupFiles().length);
+    }
+
+    @Test
+    public void testTradeOnlyInPendingTradesIsKept() throws IOException {
+        // E.g. written by a version without journal or we crashed before the journal got flushed
+        writeJournal(1, out -> writeUpdate(out, "1", "depositPublished"));
+        List<Trade> fallbackTrades = Arrays.asList(createTrade("1", "created"), createTrade("2", "fromPendingTrades"));
+
+        assertEquals(Arrays.asList("1:depositPublished", "2:fromPendingTrades"), load(fallbackTrades));
+        assertEquals(0, getBackupFiles().length);
+    }
+
+    @Test
+    public void testRemovedTradeDoesNotComeBackFromPendingTrades() throws IOException {
+        writeJournal(1, out -> {
+            writeUpdate(out, "1", "created");
+            writeUpdate(out, "2", "created");
+            writeRemove(out, "2");
+        });
+        // The PendingTrades file was not written after the removal of trade 2
+        List<Trade> fallbackTrades = Arrays.asList(createTrade("1", "created"), createTrade("2", "created"));
+
+        // The removal record is kept at compaction
+        TradeJournal journal = createJournal();
+        List<Trade> trades = journal.load(fallbackTrades);
+        assertEquals(Collections.singletonList("1:created"), toStates(trades));
+        trades.forEach(journal::update);
+        journal.compact();
+
+        // Trade 1 gets removed now and we crash before the PendingTrades file is written
+        journal.remove(trades.get(0));
+        journal.compact();
+        journal.shutDown();
+        assertTrue(load(fallbackTrades).isEmpty());
+
+        // Once the PendingTrades file does not contain the trades anymore we drop the removal records
+        journal = createJournal();
+        assertTrue(journal.load(new ArrayList<>()).isEmpty());
+        journal.compact();
+        journal.shutDown();
+        assertEquals(Collections.singletonList("2:fromPendingTrades"),
+                load(Collections.singletonList(createTrade("2", "fromPendingTrades"))));
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        writeJournal(1, out -> {
+            for (int i = 0; i < 10; i++)
+                writeUpdate(out, "1", "state" + i);
+            writeUpdate(out, "2", "created");
+        });
+        long journalSize = journalFile.length();
+
+        TradeJournal journal = createJournal();
+        List<Trade> trades = journal.load(new ArrayList<>());
+        trades.forEach(journal::update);
+        journal.compact();
+        journal.shutDown();
+
+        assertEquals(1, numSnapshots.get());
+        assertTrue(journalFile.length() < journalSize);
+        assertEquals(Arrays.asList("1:state9", "2:created"), load(new ArrayList<>()));
+    }
+
+    @Test
+    public void testCompactionWhenJournalGrows() {
+        TradeJournal journal = createJournal();
+        journal.load(new ArrayList<>());
+        journal.compact();
+        assertEquals(1, numSnapshots.get());
+
+        char[] largeState = new char[2 * 1024 * 1024];
+        Arrays.fill(largeState, 'x');
+        Trade trade = createTrade("1", new String(largeState));
+        journal.update(trade);
+        journal.shutDown();
+
+        assertEquals(2, numSnapshots.get());
+        assertEquals(Collections.singletonList(trade.getId() + ":" + stateByTrade.get(trade)), load(new ArrayList<>()));
+    }
+
+    @Test
+    public void testUnreadableJournalIsKeptAndDisablesJournal() throws IOException {
+        writeJournal(99, out -> writeUpdate(out, "1", "created"));
+        byte[] unreadableJournal = Files.readAllBytes(journalFile.toPath());
+        List<Trade> fallbackTrades = Collections.singletonList(createTrade("1", "fromPendingTrades"));
+
+        TradeJournal journal = createJournal();
+        assertEquals(fallbackTrades, journal.load(fallbackTrades));
+        assertFalse(journal.isEnabled());
+
+        // The journal got moved aside and is not replaced by the older state of the PendingTrades file
+        assertFalse(journalFile.exists());
+        File[] backupFiles = getBackupFiles();
+        assertEquals(1, backupFiles.length);
+        assertArrayEquals(unreadableJournal, Files.readAllBytes(backupFiles[0].toPath()));
+
+        journal.update(fallbackTrades.get(0));
+        journal.compact();
+        journal.shutDown();
+        assertFalse(journalFile.exists());
+        assertEquals(0, numSnapshots.get());
+    }
+
+    @Test
+    public void testMissingJournalUsesPendingTrades() {
+        List<Trade> fallbackTrades = Collections.singletonList(createTrade("1", "fromPendingTrades"));
+        TradeJournal journal = createJournal();
+
+        assertEquals(fallbackTrades, journal.load(fallbackTrades));
+        assertTrue(journal.isEnabled());
+    }
+}
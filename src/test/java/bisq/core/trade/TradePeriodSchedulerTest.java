@@ -0,0 +1,189 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade;
+
+import bisq.common.Timer;
+
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TradePeriodSchedulerTest {
+    private long now;
+    // The runnable of the timer which is currently running and when it fires
+    private Runnable timerRunnable;
+    private long timerDate;
+    private TradePeriodScheduler scheduler;
+
+    @Before
+    public void setup() {
+        now = 1_000_000;
+        scheduler = new TradePeriodScheduler(() -> now, (runnable, delay) -> {
+            timerRunnable = runnable;
+            timerDate = now + delay;
+            Timer timer = mock(Timer.class);
+            doAnswer(invocation -> {
+                if (timerRunnable == runnable)
+                    timerRunnable = null;
+                return null;
+            }).when(timer).stop();
+            return timer;
+        });
+    }
+
+    // Moves the clock forward and fires the timer if it is due
+    private void advance(long ms) {
+        now += ms;
+        if (timerRunnable != null && timerDate <= now) {
+            Runnable runnable = timerRunnable;
+            timerRunnable = null;
+            runnable.run();
+        }
+    }
+
+    private static final class TestTrade {
+        private final Trade trade = mock(Trade.class);
+        private final ObjectProperty<Trade.State> state = new SimpleObjectProperty<>(Trade.State.PREPARATION);
+        private Trade.TradePeriodState tradePeriodState = Trade.TradePeriodState.FIRST_HALF;
+        private long halfTradePeriodDate;
+        private long maxTradePeriodDate;
+
+        TestTrade(String id, long halfTradePeriodDate, long maxTradePeriodDate) {
+            this.halfTradePeriodDate = halfTradePeriodDate;
+            this.maxTradePeriodDate = maxTradePeriodDate;
+            when(trade.getId()).thenReturn(id);
+            when(trade.stateProperty()).thenReturn(state);
+            when(trade.getHalfTradePeriodDate()).thenAnswer(invocation -> new Date(this.halfTradePeriodDate));
+            when(trade.getMaxTradePeriodDate()).thenAnswer(invocation -> new Date(this.maxTradePeriodDate));
+            doAnswer(invocation -> {
+                tradePeriodState = invocation.getArgument(0);
+                return null;
+            }).when(trade).setTradePeriodState(any());
+        }
+    }
+
+    @Test
+    public void testHalfAndMaxTransitions() {
+        TestTrade testTrade = new TestTrade("1", now + 1000, now + 2000);
+        scheduler.add(testTrade.trade);
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, testTrade.tradePeriodState);
+
+        advance(999);
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, testTrade.tradePeriodState);
+        advance(2);
+        assertEquals(Trade.TradePeriodState.SECOND_HALF, testTrade.tradePeriodState);
+
+        advance(998);
+        assertEquals(Trade.TradePeriodState.SECOND_HALF, testTrade.tradePeriodState);
+        advance(2);
+        assertEquals(Trade.TradePeriodState.TRADE_PERIOD_OVER, testTrade.tradePeriodState);
+        assertNull(timerRunnable);
+    }
+
+    @Test
+    public void testTradesAreProcessedInOrderOfTheirDates() {
+        TestTrade late = new TestTrade("1", now + 3000, now + 6000);
+        TestTrade early = new TestTrade("2", now + 1000, now + 2000);
+        scheduler.add(late.trade);
+        scheduler.add(early.trade);
+
+        advance(1001);
+        assertEquals(Trade.TradePeriodState.SECOND_HALF, early.tradePeriodState);
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, late.tradePeriodState);
+
+        advance(1000);
+        assertEquals(Trade.TradePeriodState.TRADE_PERIOD_OVER, early.tradePeriodState);
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, late.tradePeriodState);
+
+        advance(1000);
+        assertEquals(Trade.TradePeriodState.SECOND_HALF, late.tradePeriodState);
+    }
+
+    @Test
+    public void testRescheduleOnStateChange() {
+        // Until the deposit tx is confirmed the dates move with the current time
+        TestTrade testTrade = new TestTrade("1", now + 1000, now + 2000);
+        scheduler.add(testTrade.trade);
+
+        advance(500);
+        testTrade.halfTradePeriodDate = now + 1000;
+        testTrade.maxTradePeriodDate = now + 2000;
+        testTrade.state.set(Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN);
+
+        // The timer for the old date fires but the outdated entry is ignored
+        advance(501);
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, testTrade.tradePeriodState);
+        assertNotNull(timerRunnable);
+
+        advance(500);
+        assertEquals(Trade.TradePeriodState.SECOND_HALF, testTrade.tradePeriodState);
+
+        // A state change to an earlier date starts the timer again
+        testTrade.maxTradePeriodDate = now + 100;
+        testTrade.state.set(Trade.State.BUYER_CONFIRMED_IN_UI_FIAT_PAYMENT_INITIATED);
+        advance(101);
+        assertEquals(Trade.TradePeriodState.TRADE_PERIOD_OVER, testTrade.tradePeriodState);
+    }
+
+    @Test
+    public void testRemovedTradeIsNotUpdated() {
+        TestTrade removed = new TestTrade("1", now + 1000, now + 2000);
+        TestTrade kept = new TestTrade("2", now + 1500, now + 3000);
+        scheduler.add(removed.trade);
+        scheduler.add(kept.trade);
+
+        scheduler.remove(removed.trade);
+        advance(2500);
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, removed.tradePeriodState);
+        assertEquals(Trade.TradePeriodState.SECOND_HALF, kept.tradePeriodState);
+
+        // State changes of a removed trade are not observed anymore
+        removed.state.set(Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN);
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, removed.tradePeriodState);
+
+        // If no trade is left the queue is empty and the timer is stopped
+        scheduler.remove(kept.trade);
+        assertNull(timerRunnable);
+    }
+
+    @Test
+    public void testLateTimerCatchesUpOnAwake() {
+        TestTrade testTrade = new TestTrade("1", now + 1000, now + 2000);
+        scheduler.add(testTrade.trade);
+
+        // The computer was in standby, so the timer did not fire
+        now += 5000;
+        assertEquals(Trade.TradePeriodState.FIRST_HALF, testTrade.tradePeriodState);
+
+        scheduler.onAwake();
+        assertEquals(Trade.TradePeriodState.TRADE_PERIOD_OVER, testTrade.tradePeriodState);
+        assertNull(timerRunnable);
+    }
+}
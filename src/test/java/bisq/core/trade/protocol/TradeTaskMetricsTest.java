@@ -0,0 +1,58 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.protocol;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TradeTaskMetricsTest {
+
+    @Test
+    public void testStats() {
+        TradeTaskMetrics metrics = new TradeTaskMetrics("0");
+        for (int i = 1; i <= 100; i++)
+            metrics.record("BuyerAsMakerTrade", "MakerCreateAndSignContract", TimeUnit.MILLISECONDS.toNanos(i), true);
+        metrics.record("BuyerAsMakerTrade", "MakerVerifyTakerFeePayment", TimeUnit.SECONDS.toNanos(300), false);
+        metrics.record("SellerAsTakerTrade", "MakerCreateAndSignContract", TimeUnit.MILLISECONDS.toNanos(3), true);
+
+        List<TradeTaskMetrics.Stats> stats = metrics.getStats();
+        assertEquals(3, stats.size());
+
+        // Sorted by total time
+        TradeTaskMetrics.Stats slowest = stats.get(0);
+        assertEquals("MakerVerifyTakerFeePayment", slowest.getTaskName());
+        assertEquals(1, slowest.getNumFailed());
+        assertEquals(300_000, slowest.getPercentileMs(50));
+
+        TradeTaskMetrics.Stats contract = stats.get(1);
+        assertEquals("BuyerAsMakerTrade", contract.getTradeType());
+        assertEquals(100, contract.getCount());
+        assertEquals(5050, contract.getTotalMs());
+        assertEquals(50, contract.getMeanMs());
+        assertEquals(50, contract.getPercentileMs(50));
+        assertEquals(100, contract.getPercentileMs(99));
+        assertEquals(100, contract.getMaxMs());
+
+        metrics.reset();
+        assertEquals(0, metrics.getStats().size());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CandleSeriesTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void testAggregation() {
+        CandleSeries series = new CandleSeries("EUR", CandleInterval.HOUR);
+        series.add(10 * HOUR + 100, 50, 1, 10);
+        series.add(10 * HOUR + 300, 70, 2, 20);
+        // out of order trade in same bucket is the new open
+        series.add(10 * HOUR + 50, 40, 3, 30);
+        // out of order trade in an earlier bucket gets inserted before
+        series.add(8 * HOUR, 20, 4, 40);
+
+        assertEquals(2, series.size());
+        assertEquals(8 * HOUR, series.getBucketStart(0));
+        assertEquals(20, series.getOpen(0));
+        assertEquals(20, series.getClose(0));
+        assertEquals(1, series.getNumTrades(0));
+
+        assertEquals(10 * HOUR, series.getBucketStart(1));
+        assertEquals(40, series.getOpen(1));
+        assertEquals(70, series.getHigh(1));
+        assertEquals(40, series.getLow(1));
+        assertEquals(70, series.getClose(1));
+        assertEquals(6, series.getAmount(1));
+        assertEquals(60, series.getVolume(1));
+        assertEquals(3, series.getNumTrades(1));
+        assertEquals(70, series.getLatestClose());
+    }
+
+    @Test
+    public void testSubSeries() {
+        CandleSeries series = new CandleSeries("EUR", CandleInterval.HOUR);
+        for (int i = 0; i < 100; i++)
+            series.add(i * HOUR, i, 1, 1);
+
+        CandleSeries subSeries = series.subSeries(10 * HOUR, 20 * HOUR);
+        assertEquals(10, subSeries.size());
+        assertEquals(10 * HOUR, subSeries.getBucketStart(0));
+        assertEquals(19, subSeries.getClose(9));
+
+        assertEquals(0, series.subSeries(200 * HOUR, 300 * HOUR).size());
+    }
+
+    @Test
+    public void testBucketStart() {
+        // 2018-07-18T13:45:00Z is a Wednesday
+        long date = 1531921500000L;
+        assertEquals(1531918800000L, CandleInterval.HOUR.getBucketStart(date));
+        assertEquals(1531872000000L, CandleInterval.DAY.getBucketStart(date));
+        // Monday 2018-07-16T00:00:00Z
+        assertEquals(1531699200000L, CandleInterval.WEEK.getBucketStart(date));
+        // 2018-07-01T00:00:00Z
+        assertEquals(1530403200000L, CandleInterval.MONTH.getBucketStart(date));
+    }
+
+    @Test
+    public void testSerialisation() throws IOException {
+        CandleSeries series = new CandleSeries("XMR", CandleInterval.DAY);
+        for (int i = 0; i < 40; i++)
+            series.add(i * 24 * HOUR, 1000 + i, 10, 20);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        series.writeTo(new DataOutputStream(bytes));
+        CandleSeries result = CandleSeries.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals("XMR", result.getCurrencyCode());
+        assertEquals(CandleInterval.DAY, result.getInterval());
+        assertEquals(40, result.size());
+        assertEquals(1039, result.getLatestClose());
+        assertEquals(series.getBucketStart(17), result.getBucketStart(17));
+
+        // we can continue to add after reading
+        result.add(40 * 24 * HOUR, 5, 1, 1);
+        assertEquals(41, result.size());
+    }
+}
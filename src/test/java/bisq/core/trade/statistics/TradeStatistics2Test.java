@@ -0,0 +1,60 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.offer.OfferPayload;
+
+import io.bisq.generated.protobuffer.PB;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TradeStatistics2Test {
+    private static TradeStatistics2 createTradeStatistics(long tradePrice, long tradeDate) {
+        return new TradeStatistics2(OfferPayload.Direction.BUY, "BTC", "EUR", "SEPA", 1_500_000_000_000L, false,
+                0, 10_000_000, 5_000_000, "offerId", tradePrice, 10_000_000, tradeDate, "depositTxId", null, null);
+    }
+
+    @Test
+    public void testHashOfReceivedPayloadIsValid() {
+        TradeStatistics2 tradeStatistics = createTradeStatistics(60_000_000, 1_500_000_100_000L);
+        TradeStatistics2 received = TradeStatistics2.fromProto(tradeStatistics.toProtoTradeStatistics2());
+
+        assertArrayEquals(tradeStatistics.getHash(), received.getHash());
+        assertTrue(received.isHashValid());
+        assertTrue(received.verifyHashSize());
+    }
+
+    @Test
+    public void testTradeDateIsNotPartOfHash() {
+        assertArrayEquals(createTradeStatistics(60_000_000, 1_500_000_100_000L).getHash(),
+                createTradeStatistics(60_000_000, 1_500_000_200_000L).getHash());
+    }
+
+    @Test
+    public void testHashOfTamperedPayloadIsInvalid() {
+        PB.TradeStatistics2 proto = createTradeStatistics(60_000_000, 1_500_000_100_000L).toProtoTradeStatistics2();
+        TradeStatistics2 tampered = TradeStatistics2.fromProto(proto.toBuilder().setTradePrice(1).build());
+
+        assertArrayEquals(proto.getHash().toByteArray(), tampered.getHash());
+        assertFalse(tampered.isHashValid());
+    }
+}